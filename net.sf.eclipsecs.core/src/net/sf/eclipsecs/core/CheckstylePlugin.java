@@ -30,6 +30,8 @@ import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Plugin;
 import org.osgi.framework.BundleContext;
 
+import net.sf.eclipsecs.core.projectconfig.ProjectConfigurationFactory;
+import net.sf.eclipsecs.core.projectconfig.filters.SourceFolderIndex;
 import net.sf.eclipsecs.core.util.CheckstyleLog;
 import net.sf.eclipsecs.core.util.EclipseLogHandler;
 import net.sf.eclipsecs.core.util.ExtensionClassLoader;
@@ -48,13 +50,13 @@ public class CheckstylePlugin extends Plugin {
     /**
      * Platform Locale.
      */
-    private static Locale platformLocale;
+    private static volatile Locale platformLocale;
 
     /** The shared instance. */
     private static CheckstylePlugin sPlugin;
 
     /** The addon extension class loader. */
-    private ClassLoader mAddonExtensionClassLoader;
+    private ExtensionClassLoader mAddonExtensionClassLoader;
 
     /**
      * The constructor.
@@ -82,6 +84,16 @@ public class CheckstylePlugin extends Plugin {
         }
     }
 
+    @Override
+    public void stop(BundleContext context) throws Exception {
+        if (mAddonExtensionClassLoader != null) {
+            mAddonExtensionClassLoader.dispose();
+        }
+        SourceFolderIndex.dispose();
+        ProjectConfigurationFactory.dispose();
+        super.stop(context);
+    }
+
     /**
      * Returns the shared instance.
      *
@@ -130,4 +142,14 @@ public class CheckstylePlugin extends Plugin {
     public ClassLoader getAddonExtensionClassLoader() {
         return mAddonExtensionClassLoader;
     }
+
+    /**
+     * Returns the statistics of the class and resource lookups of the extension classloader, which
+     * show how much time the lookup cache saves during the creation of checkers.
+     *
+     * @return the lookup statistics
+     */
+    public ExtensionClassLoader.Statistics getAddonExtensionStatistics() {
+        return mAddonExtensionClassLoader.getStatistics();
+    }
 }
@@ -62,9 +62,75 @@ public class CheckstylePluginPrefs extends AbstractPreferenceInitializer {
      */
     public static final String PREF_BACKGROUND_FULL_BUILD = "background.full.build"; //$NON-NLS-1$
 
+    /**
+     * Preference name for the number of worker threads used to audit the files of a check
+     * configuration. A value of <code>1</code> audits all files on the calling thread.
+     */
+    public static final String PREF_AUDIT_WORKER_COUNT = "audit.worker.count"; //$NON-NLS-1$
+
+    /**
+     * Preference name indicating if audit results are cached persistently, so that unchanged files
+     * are not audited again.
+     */
+    public static final String PREF_AUDIT_RESULT_CACHE = "audit.result.cache"; //$NON-NLS-1$
+
+    /**
+     * Preference name indicating if the builder keeps an index of the audited files, so that files
+     * unchanged since their last audit with the same configuration are not audited again.
+     */
+    public static final String PREF_BUILD_INDEX = "build.index"; //$NON-NLS-1$
+
+    /**
+     * Preference name indicating if the existing markers of an audited file are reconciled with the
+     * new audit results instead of being deleted and created again. When enabled, a full build no
+     * longer wipes all markers of the project up front but removes the markers of files that are
+     * not audited anymore afterwards.
+     */
+    public static final String PREF_RECONCILE_MARKERS = "reconcile.markers"; //$NON-NLS-1$
+
+    /**
+     * Preference name for the number of idle checkers kept per check configuration regardless of
+     * the idle timeout.
+     */
+    public static final String PREF_CHECKER_POOL_MIN_IDLE = "checker.pool.min.idle"; //$NON-NLS-1$
+
+    /**
+     * Preference name for the maximum number of checkers used at the same time per check
+     * configuration. Further audits of the configuration wait for a checker to be returned.
+     */
+    public static final String PREF_CHECKER_POOL_MAX_SIZE = "checker.pool.max.size"; //$NON-NLS-1$
+
+    /**
+     * Preference name for the number of seconds after which idle checkers are destroyed.
+     */
+    public static final String PREF_CHECKER_POOL_IDLE_TIMEOUT =
+        "checker.pool.idle.timeout"; //$NON-NLS-1$
+
+    /**
+     * Preference name for the number of seconds a downloaded remote configuration is used before
+     * it gets revalidated with the server.
+     */
+    public static final String PREF_REMOTE_CONFIG_REVALIDATION_INTERVAL =
+        "remote.config.revalidation.interval"; //$NON-NLS-1$
+
     /** Default value for the marker limitation. */
     public static final int MARKER_LIMIT = 100;
 
+    /** Default value for the audit worker count. */
+    public static final int AUDIT_WORKER_COUNT = 1;
+
+    /** Default value for the minimum number of idle checkers. */
+    public static final int CHECKER_POOL_MIN_IDLE = 1;
+
+    /** Default value for the maximum checker pool size. */
+    public static final int CHECKER_POOL_MAX_SIZE = 4;
+
+    /** Default value for the checker idle timeout in seconds. */
+    public static final int CHECKER_POOL_IDLE_TIMEOUT = 300;
+
+    /** Default value for the remote configuration revalidation interval in seconds. */
+    public static final int REMOTE_CONFIG_REVALIDATION_INTERVAL = 60;
+
     /**
      * Preference checkstyle rule language.
      */
@@ -79,6 +145,14 @@ public class CheckstylePluginPrefs extends AbstractPreferenceInitializer {
         prefs.putBoolean(PREF_LIMIT_MARKERS_PER_RESOURCE, false);
         prefs.putInt(PREF_MARKER_AMOUNT_LIMIT, MARKER_LIMIT);
         prefs.putBoolean(PREF_BACKGROUND_FULL_BUILD, false);
+        prefs.putInt(PREF_AUDIT_WORKER_COUNT, AUDIT_WORKER_COUNT);
+        prefs.putBoolean(PREF_AUDIT_RESULT_CACHE, false);
+        prefs.putBoolean(PREF_RECONCILE_MARKERS, false);
+        prefs.putBoolean(PREF_BUILD_INDEX, false);
+        prefs.putInt(PREF_CHECKER_POOL_MIN_IDLE, CHECKER_POOL_MIN_IDLE);
+        prefs.putInt(PREF_CHECKER_POOL_MAX_SIZE, CHECKER_POOL_MAX_SIZE);
+        prefs.putInt(PREF_CHECKER_POOL_IDLE_TIMEOUT, CHECKER_POOL_IDLE_TIMEOUT);
+        prefs.putInt(PREF_REMOTE_CONFIG_REVALIDATION_INTERVAL, REMOTE_CONFIG_REVALIDATION_INTERVAL);
 
         try {
             prefs.flush();
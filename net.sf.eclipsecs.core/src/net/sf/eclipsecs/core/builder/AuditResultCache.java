@@ -0,0 +1,302 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+
+package net.sf.eclipsecs.core.builder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IProject;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import net.sf.eclipsecs.core.CheckstylePlugin;
+import net.sf.eclipsecs.core.config.ICheckConfiguration;
+import net.sf.eclipsecs.core.util.CheckstyleLog;
+import net.sf.eclipsecs.core.util.HashUtil;
+
+/**
+ * Persistent cache of audit results, one cache file per project and check configuration. Each
+ * audited file is stored with the hash of its contents and the marker attributes of the violations
+ * found in it, so that an unchanged file does not need to be audited again. The cache is
+ * discarded as a whole if the effective configuration, including the resolved properties and the
+ * files referenced by the configuration, the plugin or Checkstyle version or any setting
+ * influencing the marker attributes changes.
+ */
+final class AuditResultCache {
+
+    /** Name of the folder inside the plugin state location holding the cache files. */
+    private static final String CACHE_FOLDER = "audit-cache"; //$NON-NLS-1$
+
+    /** Extension of the cache files. */
+    private static final String CACHE_FILE_EXTENSION = ".cache"; //$NON-NLS-1$
+
+    /** Separator of the parts of composed keys. */
+    private static final String SEPARATOR = "#"; //$NON-NLS-1$
+
+    /** The cache file. */
+    private final File mCacheFile;
+
+    /** The key the cached results are valid for. */
+    private final String mValidityKey;
+
+    /** The cached results, keyed by the file location. */
+    private final Map<String, CachedResult> mResults;
+
+    private AuditResultCache(File cacheFile, String validityKey,
+        Map<String, CachedResult> results) {
+        mCacheFile = cacheFile;
+        mValidityKey = validityKey;
+        mResults = new ConcurrentHashMap<>(results);
+    }
+
+    /**
+     * Opens the audit result cache of a project and check configuration.
+     *
+     * @param project
+     *            the audited project
+     * @param config
+     *            the check configuration
+     * @param configKey
+     *            the key of the effective configuration, see
+     *            {@link CheckerFactory#getConfigurationKey(ICheckConfiguration, IProject)}
+     * @param settings
+     *            further settings that influence the produced markers
+     * @return the cache, empty if no valid cached results exist
+     */
+    static AuditResultCache open(IProject project, ICheckConfiguration config,
+        String configKey, String settings) {
+
+        String cacheName = String.join(SEPARATOR, project.getName(), config.getName(),
+            config.isGlobal() ? "Global" : "Local"); //$NON-NLS-1$ //$NON-NLS-2$
+        String cacheFileName = HashUtil.hash(cacheName.getBytes(StandardCharsets.UTF_8));
+        File cacheFile =
+            getCacheFolder().toPath().resolve(cacheFileName + CACHE_FILE_EXTENSION).toFile();
+
+        String validityKey = String.join(SEPARATOR, configKey,
+            getVersion(CheckstylePlugin.class), getVersion(Checker.class), settings);
+
+        return open(cacheFile, validityKey);
+    }
+
+    /**
+     * Opens an audit result cache file.
+     *
+     * @param cacheFile
+     *            the cache file
+     * @param validityKey
+     *            the key the cached results must be valid for
+     * @return the cache, empty if the file holds no results valid for the key
+     */
+    static AuditResultCache open(File cacheFile, String validityKey) {
+        return new AuditResultCache(cacheFile, validityKey, read(cacheFile, validityKey));
+    }
+
+    /**
+     * Deletes all audit result caches.
+     */
+    static void clearAll() {
+        File[] cacheFiles = getCacheFolder().listFiles();
+        if (cacheFiles != null) {
+            for (File cacheFile : cacheFiles) {
+                cacheFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Computes the hash of a file's contents.
+     *
+     * @param file
+     *            the file
+     * @return the content hash or <code>null</code> if the file cannot be read
+     */
+    static String hashContent(File file) {
+        String contentHash = null;
+        try {
+            contentHash = HashUtil.hash(Files.readAllBytes(file.toPath()));
+        }
+        catch (IOException ex) {
+            // the file will be audited without caching
+        }
+        return contentHash;
+    }
+
+    /**
+     * Returns the cached violations of a file.
+     *
+     * @param fileName
+     *            the file location
+     * @param contentHash
+     *            the current hash of the file contents
+     * @return the marker attributes of the cached violations, empty if the file has no valid
+     *         cached result
+     */
+    Optional<List<Map<String, Object>>> getViolations(String fileName, String contentHash) {
+        return Optional.ofNullable(mResults.get(fileName))
+            .filter(result -> result.contentHash().equals(contentHash))
+            .map(CachedResult::violations);
+    }
+
+    /**
+     * Starts recording a new result for a file about to be audited, dropping any previous one.
+     *
+     * @param fileName
+     *            the file location
+     * @param contentHash
+     *            the current hash of the file contents
+     */
+    void beginFile(String fileName, String contentHash) {
+        mResults.put(fileName,
+            new CachedResult(contentHash, Collections.synchronizedList(new ArrayList<>())));
+    }
+
+    /**
+     * Records a violation for a file previously passed to {@link #beginFile(String, String)}.
+     *
+     * @param fileName
+     *            the file location
+     * @param markerAttributes
+     *            the attributes of the created marker
+     */
+    void addViolation(String fileName, Map<String, Object> markerAttributes) {
+        CachedResult result = mResults.get(fileName);
+        if (result != null) {
+            result.violations().add(new HashMap<>(markerAttributes));
+        }
+    }
+
+    /**
+     * Writes the cache back to the plugin state location. Results of files which do not exist
+     * anymore are dropped.
+     */
+    void store() {
+        mResults.keySet().removeIf(fileName -> !new File(fileName).exists());
+
+        Map<String, CachedResult> results = new HashMap<>();
+        mResults.forEach((fileName, result) -> results.put(fileName,
+            new CachedResult(result.contentHash(), new ArrayList<>(result.violations()))));
+
+        mCacheFile.getParentFile().mkdirs();
+        try (OutputStream out =
+            new BufferedOutputStream(Files.newOutputStream(mCacheFile.toPath()));
+            ObjectOutputStream objectOut = new ObjectOutputStream(out)) {
+            objectOut.writeUTF(mValidityKey);
+            objectOut.writeObject(results);
+        }
+        catch (IOException ex) {
+            CheckstyleLog.log(ex);
+            mCacheFile.delete();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, CachedResult> read(File cacheFile, String validityKey) {
+        Map<String, CachedResult> results = Collections.emptyMap();
+        if (cacheFile.exists()) {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(cacheFile.toPath()));
+                ObjectInputStream objectIn = newObjectInputStream(in, HashMap.class,
+                    CachedResult.class, ArrayList.class, String.class, Integer.class,
+                    Boolean.class)) {
+                if (validityKey.equals(objectIn.readUTF())) {
+                    results = (Map<String, CachedResult>) objectIn.readObject();
+                }
+            }
+            catch (IOException | ClassNotFoundException | ClassCastException ex) {
+                // corrupt or incompatible cache, start over
+                results = Collections.emptyMap();
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Creates an object input stream which rejects any class but the given ones, so that a
+     * manipulated file in the plugin state location cannot instantiate arbitrary classes.
+     * {@link Number} is accepted as well, being the super class of the boxed numbers, and so are
+     * arrays, which hash based collections allocate while reading their elements.
+     *
+     * @param in
+     *            the stream to read
+     * @param allowedClasses
+     *            the classes that may be deserialized
+     * @return the object input stream
+     * @throws IOException
+     *             if the stream header cannot be read
+     */
+    static ObjectInputStream newObjectInputStream(InputStream in, Class<?>... allowedClasses)
+        throws IOException {
+        Set<Class<?>> allowed = Set.of(allowedClasses);
+        ObjectInputStream objectIn = new ObjectInputStream(in);
+        objectIn.setObjectInputFilter(info -> info.serialClass() == null
+            || allowed.contains(info.serialClass()) || info.serialClass() == Number.class
+            || info.serialClass().isArray()
+                ? ObjectInputFilter.Status.UNDECIDED
+                : ObjectInputFilter.Status.REJECTED);
+        return objectIn;
+    }
+
+    private static File getCacheFolder() {
+        return CheckstylePlugin.getDefault().getStateLocation().append(CACHE_FOLDER).toFile();
+    }
+
+    /**
+     * Returns the version of the bundle a class has been loaded from.
+     *
+     * @param clazz
+     *            the class
+     * @return the bundle version
+     */
+    static String getVersion(Class<?> clazz) {
+        Bundle bundle = FrameworkUtil.getBundle(clazz);
+        return bundle != null ? bundle.getVersion().toString() : "unknown"; //$NON-NLS-1$
+    }
+
+    /**
+     * The cached audit result of a single file.
+     *
+     * @param contentHash
+     *            the hash of the file contents the result belongs to
+     * @param violations
+     *            the marker attributes of the violations
+     */
+    private record CachedResult(String contentHash, List<Map<String, Object>> violations)
+            implements Serializable {
+    }
+}
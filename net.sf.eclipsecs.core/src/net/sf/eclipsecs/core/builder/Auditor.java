@@ -22,15 +22,25 @@ package net.sf.eclipsecs.core.builder;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.codehaus.plexus.util.StringUtils;
 import org.eclipse.core.filebuffers.FileBuffers;
+import org.eclipse.core.filebuffers.ITextFileBuffer;
 import org.eclipse.core.filebuffers.ITextFileBufferManager;
+import org.eclipse.core.filebuffers.LocationKind;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
@@ -38,12 +48,8 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Path;
-import org.eclipse.jface.text.BadLocationException;
-import org.eclipse.jface.text.IDocument;
-import org.eclipse.jface.text.IRegion;
 import org.eclipse.osgi.util.NLS;
 
 import com.puppycrawl.tools.checkstyle.Checker;
@@ -51,6 +57,7 @@ import com.puppycrawl.tools.checkstyle.api.AuditEvent;
 import com.puppycrawl.tools.checkstyle.api.AuditListener;
 import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
 import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import net.sf.eclipsecs.core.CheckstylePlugin;
 import net.sf.eclipsecs.core.CheckstylePluginPrefs;
 import net.sf.eclipsecs.core.Messages;
 import net.sf.eclipsecs.core.config.ICheckConfiguration;
@@ -68,12 +75,24 @@ public final class Auditor {
     /** The interval for updating the task info. */
     private static final int MONITOR_INTERVAL = 10;
 
+    /** The default number of files whose markers are created in one workspace operation. */
+    public static final int DEFAULT_MARKER_FLUSH_INTERVAL = 10;
+
+    /** The minimum number of files a worker has to audit to justify its own checker. */
+    private static final int MIN_FILES_PER_WORKER = 50;
+
     /** The check configuration the auditor uses. */
     private final ICheckConfiguration mCheckConfiguration;
 
     /** Map containing the file resources to audit. */
     private final Map<String, IFile> mFiles = new HashMap<>();
 
+    /** The files whose markers have been deleted before the audit and need no reconciliation. */
+    private final Set<IFile> mUnreconciledFiles = new HashSet<>();
+
+    /** The files finished by the last audit, written by the audit workers concurrently. */
+    private final Set<IResource> mFinishedFiles = ConcurrentHashMap.newKeySet();
+
     /** Reference to the file buffer manager. */
     private final ITextFileBufferManager mFileBufferManager =
         FileBuffers.getTextFileBufferManager();
@@ -81,12 +100,24 @@ public final class Auditor {
     /** The progress monitor. */
     private IProgressMonitor mMonitor;
 
+    /** The cache of audit results, <code>null</code> if caching is disabled. */
+    private AuditResultCache mResultCache;
+
     /** Add the check rule name to the message. */
     private boolean mAddRuleName;
 
     /** Add the check module id to the message. */
     private boolean mAddModuleId;
 
+    /** Reconcile the existing markers of the audited files instead of creating them anew. */
+    private boolean mReconcileMarkers;
+
+    /** The number of files whose markers are created in one workspace operation. */
+    private int mMarkerFlushInterval = DEFAULT_MARKER_FLUSH_INTERVAL;
+
+    /** Flags if the last audit ran through without errors or cancellation. */
+    private boolean mCompleted;
+
     /**
      * Creates an auditor.
      *
@@ -103,6 +134,8 @@ public final class Auditor {
             CheckstylePluginPrefs.getBoolean(CheckstylePluginPrefs.PREF_INCLUDE_RULE_NAMES);
         mAddModuleId =
             CheckstylePluginPrefs.getBoolean(CheckstylePluginPrefs.PREF_INCLUDE_MODULE_IDS);
+        mReconcileMarkers =
+            CheckstylePluginPrefs.getBoolean(CheckstylePluginPrefs.PREF_RECONCILE_MARKERS);
     }
 
     /**
@@ -118,12 +151,16 @@ public final class Auditor {
     public void runAudit(IProject project, IProgressMonitor monitor)
             throws CheckstylePluginException {
         mMonitor = monitor;
+        mCompleted = false;
+        mFinishedFiles.clear();
 
         Checker checker = null;
         CheckstyleAuditListener listener = null;
 
         try {
 
+            mResultCache = openResultCache(project);
+
             List<File> filesToAudit = getFilesList();
 
             // begin task
@@ -131,16 +168,26 @@ public final class Auditor {
                 NLS.bind(Messages.Auditor_msgCheckingConfig, mCheckConfiguration.getName()),
                 filesToAudit.size());
 
-            // create checker
-            checker = CheckerFactory.createChecker(mCheckConfiguration, project);
+            int workerCount = getWorkerCount(filesToAudit.size());
+            if (workerCount > 1) {
+                runParallelAudit(project, filesToAudit, workerCount);
+            }
+            else {
+                // check out a checker
+                checker = CheckerFactory.checkoutChecker(mCheckConfiguration, project, mMonitor);
 
-            // create and add listener
-            listener = new CheckstyleAuditListener(project);
-            checker.addListener(listener);
+                // create and add listener
+                listener = new CheckstyleAuditListener(project);
+                checker.addListener(listener);
 
-            // run the files through the checker
-            checker.process(filesToAudit);
+                // run the files through the checker
+                checker.process(filesToAudit);
+            }
 
+            if (mResultCache != null) {
+                mResultCache.store();
+            }
+            mCompleted = true;
         }
         catch (CheckstyleException ex) {
             if (ex.getCause() instanceof OperationCanceledException) {
@@ -158,12 +205,150 @@ public final class Auditor {
         }
         finally {
             monitor.done();
+            mResultCache = null;
 
             // Cleanup listener and filter
             if (checker != null) {
                 checker.removeListener(listener);
+                CheckerFactory.returnChecker(checker);
+            }
+            if (listener != null) {
+                listener.flushMarkers();
+            }
+            clearUnfinishedFiles();
+        }
+    }
+
+    /**
+     * Clears the markers of the files the checker did not finish, e.g. because they are excluded
+     * by the file extensions or file filters of the configuration, or because the audit has been
+     * cancelled or failed. In reconciliation mode their markers would stay untouched otherwise,
+     * although they do not reflect an audit with the current configuration.
+     */
+    private void clearUnfinishedFiles() {
+        MarkerBatch markerBatch = new MarkerBatch(Integer.MAX_VALUE);
+        for (IFile file : mFiles.values()) {
+            if (isReconciled(file) && !mFinishedFiles.contains(file)) {
+                // reconciling without new markers deletes the existing ones
+                markerBatch.fileFinished(file, true);
+            }
+        }
+        markerBatch.flush();
+    }
+
+    /**
+     * Audits the files with several worker threads. The files are split into one partition per
+     * worker, each worker checks out its own checker and runs its own audit listener, since
+     * neither is thread safe.
+     *
+     * @param project
+     *            the project is needed to build the correct classpath for the checker
+     * @param filesToAudit
+     *            the files to audit
+     * @param workerCount
+     *            the number of workers
+     * @throws CheckstyleException
+     *             error processing the files
+     * @throws CheckstylePluginException
+     *             error creating the checkers
+     */
+    private void runParallelAudit(IProject project, List<File> filesToAudit, int workerCount)
+            throws CheckstyleException, CheckstylePluginException {
+
+        ExecutorService executor = Executors.newFixedThreadPool(workerCount);
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (List<File> partition : partition(filesToAudit, workerCount)) {
+                // checkers are checked out on the calling thread, they share static locale state
+                Checker checker =
+                    CheckerFactory.checkoutChecker(mCheckConfiguration, project, mMonitor);
+                results.add(executor.submit(() -> runWorker(checker, project, partition)));
+            }
+
+            for (Future<Void> result : results) {
+                awaitWorker(result);
             }
         }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Splits the files into consecutive partitions of equal size, only the last partition may be
+     * smaller.
+     *
+     * @param files
+     *            the files
+     * @param partitionCount
+     *            the maximum number of partitions
+     * @return the partitions, views of the given list
+     */
+    static List<List<File>> partition(List<File> files, int partitionCount) {
+        int fileCount = files.size();
+        int partitionSize = Math.max(1, (fileCount + partitionCount - 1) / partitionCount);
+        List<List<File>> partitions = new ArrayList<>();
+        for (int start = 0; start < fileCount; start += partitionSize) {
+            partitions.add(files.subList(start, Math.min(start + partitionSize, fileCount)));
+        }
+        return partitions;
+    }
+
+    private Void runWorker(Checker checker, IProject project, List<File> files)
+            throws CheckstyleException {
+        CheckstyleAuditListener listener = new CheckstyleAuditListener(project);
+        checker.addListener(listener);
+        try {
+            checker.process(files);
+        }
+        catch (RuntimeException ex) {
+            listener.cleanup();
+            throw ex;
+        }
+        finally {
+            checker.removeListener(listener);
+            CheckerFactory.returnChecker(checker);
+            listener.flushMarkers();
+        }
+        return null;
+    }
+
+    private static void awaitWorker(Future<Void> result) throws CheckstyleException {
+        try {
+            result.get();
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new OperationCanceledException();
+        }
+        catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof CheckstyleException checkstyleException) {
+                throw checkstyleException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new CheckstyleException(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Determines the number of audit workers for the given amount of files. There are never more
+     * workers than checkers in the checker pool.
+     *
+     * @param fileCount
+     *            the number of files to audit
+     * @return the number of workers, at least <code>1</code>
+     */
+    static int getWorkerCount(int fileCount) {
+        int workers = Math.min(
+            CheckstylePluginPrefs.getInt(CheckstylePluginPrefs.PREF_AUDIT_WORKER_COUNT),
+            CheckstylePluginPrefs.getInt(CheckstylePluginPrefs.PREF_CHECKER_POOL_MAX_SIZE));
+        return Math.max(1, Math.min(workers, fileCount / MIN_FILES_PER_WORKER));
     }
 
     private void handleCheckstyleFailure(IProject project, CheckstyleException error)
@@ -189,6 +374,132 @@ public final class Auditor {
         }
     }
 
+    /**
+     * Opens the audit result cache for this audit, if result caching is enabled and the effective
+     * configuration can be determined.
+     *
+     * @param project
+     *            the audited project
+     * @return the audit result cache or <code>null</code> if caching is disabled
+     * @throws CheckstylePluginException
+     *             error reading the check configuration
+     */
+    private AuditResultCache openResultCache(IProject project) throws CheckstylePluginException {
+        AuditResultCache cache = null;
+        if (CheckstylePluginPrefs.getBoolean(CheckstylePluginPrefs.PREF_AUDIT_RESULT_CACHE)) {
+            String configKey = null;
+            try {
+                configKey = CheckerFactory.getConfigurationKey(mCheckConfiguration, project);
+            }
+            catch (CheckstyleException ex) {
+                // the audit reports the broken configuration
+                configKey = null;
+            }
+            if (configKey != null) {
+                cache = AuditResultCache.open(project, mCheckConfiguration, configKey,
+                    getMarkerSettings(project));
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the settings which influence the created markers, besides the configuration.
+     *
+     * @param project
+     *            the audited project
+     * @return the settings, joined into a single string
+     * @throws CheckstylePluginException
+     *             the project charset could not be determined
+     */
+    private String getMarkerSettings(IProject project) throws CheckstylePluginException {
+        String settings = null;
+        try {
+            settings = String.join("#", //$NON-NLS-1$
+                Boolean.toString(mAddRuleName), Boolean.toString(mAddModuleId),
+                Boolean.toString(CheckstylePluginPrefs
+                    .getBoolean(CheckstylePluginPrefs.PREF_LIMIT_MARKERS_PER_RESOURCE)),
+                Integer.toString(
+                    CheckstylePluginPrefs.getInt(CheckstylePluginPrefs.PREF_MARKER_AMOUNT_LIMIT)),
+                CheckstylePluginPrefs.getString(CheckstylePluginPrefs.PREF_LOCALE_LANGUAGE),
+                CheckstylePlugin.getPlatformLocale().toString(), project.getDefaultCharset());
+        }
+        catch (CoreException ex) {
+            CheckstylePluginException.rethrow(ex);
+        }
+        return settings;
+    }
+
+    /**
+     * Returns a key identifying everything the audit results of a file depend on besides the file
+     * itself: the effective check configuration and the settings influencing the markers.
+     *
+     * @param project
+     *            the audited project
+     * @return the audit key, <code>null</code> if the configuration cannot be loaded or refers to
+     *         files whose contents cannot be determined
+     */
+    String getAuditKey(IProject project) {
+        String auditKey = null;
+        try {
+            String configKey = CheckerFactory.getConfigurationKey(mCheckConfiguration, project);
+            if (configKey != null) {
+                auditKey = String.join("#", configKey, getMarkerSettings(project)); //$NON-NLS-1$
+            }
+        }
+        catch (CheckstyleException | CheckstylePluginException ex) {
+            // the audit reports the broken configuration, its files are never up to date
+            auditKey = null;
+        }
+        return auditKey;
+    }
+
+    /**
+     * Checks if the last audit ran through without errors or cancellation.
+     *
+     * @return <code>true</code> if all files have been audited
+     */
+    boolean isCompleted() {
+        return mCompleted;
+    }
+
+    /**
+     * Restores the markers of a file from the audit result cache. If there is no valid cached
+     * result for the file, recording of a new result is started.
+     *
+     * @param fileName
+     *            the file location
+     * @param resource
+     *            the file resource
+     * @param file
+     *            the file
+     * @param markerBatch
+     *            the batch to create the restored markers with
+     * @return <code>true</code> if the cached result was restored and the file does not need to be
+     *         audited
+     */
+    private boolean restoreCachedResult(String fileName, IFile resource, File file,
+        MarkerBatch markerBatch) {
+        boolean restored = false;
+        String contentHash = AuditResultCache.hashContent(file);
+        if (contentHash != null) {
+            Optional<List<Map<String, Object>>> violations =
+                mResultCache.getViolations(fileName, contentHash);
+            if (violations.isPresent()) {
+                for (Map<String, Object> markerAttributes : violations.get()) {
+                    markerBatch.add(resource, markerAttributes);
+                }
+                markerBatch.fileFinished(resource, isReconciled(resource));
+                mFinishedFiles.add(resource);
+                restored = true;
+            }
+            else {
+                mResultCache.beginFile(fileName, contentHash);
+            }
+        }
+        return restored;
+    }
+
     /**
      * Add a file to the audit.
      *
@@ -203,6 +514,61 @@ public final class Auditor {
         return !mFiles.isEmpty();
     }
 
+    /**
+     * Returns the files added to the audit.
+     *
+     * @return the files
+     */
+    Collection<IFile> getFiles() {
+        return Collections.unmodifiableCollection(mFiles.values());
+    }
+
+    /**
+     * Checks if the auditor reconciles the existing markers of the audited files with the audit
+     * results. If not, the markers have to be deleted before the audit.
+     *
+     * @return <code>true</code> if markers are reconciled
+     */
+    boolean isReconcilingMarkers() {
+        return mReconcileMarkers;
+    }
+
+    /**
+     * Excludes a file from the marker reconciliation, because its markers have already been
+     * deleted. This is the case for files audited by more than one check configuration, whose
+     * markers must not be reconciled against the results of a single configuration.
+     *
+     * @param file
+     *            the file
+     */
+    void excludeFromReconciliation(IFile file) {
+        mUnreconciledFiles.add(file);
+    }
+
+    /**
+     * Sets the number of audited files whose markers are created together in one workspace
+     * operation. Higher values cause less resource change notifications, lower values let
+     * markers show up earlier during long audits.
+     *
+     * @param fileCount
+     *            the number of files, values smaller than <code>1</code> are treated as
+     *            <code>1</code>
+     */
+    public void setMarkerFlushInterval(int fileCount) {
+        mMarkerFlushInterval = fileCount;
+    }
+
+    /**
+     * Checks if the existing markers of a resource are to be reconciled with the audit results.
+     *
+     * @param resource
+     *            the resource
+     * @return <code>true</code> if the markers are reconciled
+     */
+    private boolean isReconciled(IResource resource) {
+        return mReconcileMarkers && !mUnreconciledFiles.contains(resource);
+    }
+
     /**
      * Get a file resource by the file name.
      *
@@ -215,15 +581,24 @@ public final class Auditor {
     }
 
     /**
-     * Helper method to get an array of java.io.Files. This array gets passed to the checker.
+     * Helper method to get an array of java.io.Files. This array gets passed to the checker. Files
+     * whose markers could be restored from the audit result cache are left out.
      *
      * @return the list of files
      */
     private List<File> getFilesList() {
         List<File> files = new ArrayList<>();
-        for (IFile file : mFiles.values()) {
-            files.add(file.getLocation().toFile());
+        MarkerBatch markerBatch = new MarkerBatch(mMarkerFlushInterval);
+        for (Map.Entry<String, IFile> entry : mFiles.entrySet()) {
+            File file = entry.getValue().getLocation().toFile();
+
+            // files with a cached result don't need to go through the checker
+            if (mResultCache == null
+                || !restoreCachedResult(entry.getKey(), entry.getValue(), file, markerBatch)) {
+                files.add(file);
+            }
         }
+        markerBatch.flush();
         return files;
     }
 
@@ -240,6 +615,9 @@ public final class Auditor {
         /** map containing the marker data. */
         private final Map<String, Object> mMarkerAttributes = new HashMap<>();
 
+        /** the markers waiting for creation. */
+        private final MarkerBatch mMarkerBatch = new MarkerBatch(mMarkerFlushInterval);
+
         /** flags if the amount of markers should be limited. */
         private final boolean mLimitMarkers;
 
@@ -249,8 +627,14 @@ public final class Auditor {
         /** The file currently being checked. */
         private IResource mResource;
 
-        /** Document model of the current file. */
-        private IDocument mDocument;
+        /** The location of the file currently being checked. */
+        private String mFileName;
+
+        /**
+         * Line offsets of the current file, <code>null</code> until the first violation and empty
+         * if the file could not be read.
+         */
+        private Optional<LineOffsets> mLineOffsets;
 
         /** internal counter used to time to actualisation of the monitor. */
         private int mMonitorCounter;
@@ -258,11 +642,6 @@ public final class Auditor {
         /** the count of markers generated for the current resource. */
         private int mMarkerCount;
 
-        /**
-         * Keep track which file paths have been connected with the BufferManager.
-         */
-        private Set<IPath> mConnectedFileBufferPaths = new HashSet<>();
-
         public CheckstyleAuditListener(IProject project) {
             mProject = project;
 
@@ -281,6 +660,7 @@ public final class Auditor {
             }
 
             // get the current IFile reference
+            mFileName = new Path(event.getFileName()).toString();
             mResource = getFile(event.getFileName());
             mMarkerCount = 0;
 
@@ -288,8 +668,10 @@ public final class Auditor {
 
                 // begin subtask
                 if (mMonitorCounter == 0) {
-                    mMonitor
-                        .subTask(NLS.bind(Messages.Auditor_msgCheckingFile, mResource.getName()));
+                    synchronized (mMonitor) {
+                        mMonitor.subTask(
+                            NLS.bind(Messages.Auditor_msgCheckingFile, mResource.getName()));
+                    }
                 }
 
                 // increment monitor-counter
@@ -316,60 +698,58 @@ public final class Auditor {
 
         @Override
         public void addError(AuditEvent error) {
-            try {
-                if (!mLimitMarkers || mMarkerCount < mMarkerLimit) {
-
-                    SeverityLevel severity = error.getSeverityLevel();
-
-                    if (mResource != null && !severity.equals(SeverityLevel.IGNORE)) {
-
-                        RuleMetadata metaData =
-                            MetadataFactory.getRuleMetadata(error.getSourceName());
-
-                        // create generic metadata if none can be found
-                        if (metaData == null) {
-                            Module module = new Module(error.getSourceName());
-                            metaData = MetadataFactory.createGenericMetadata(module);
-                        }
-
-                        mMarkerAttributes.put(CheckstyleMarker.MODULE_NAME,
-                            metaData.identity().internalName());
-                        mMarkerAttributes.put(CheckstyleMarker.MESSAGE_KEY,
-                            error.getViolation().getKey());
-                        String moduleId = error.getModuleId();
-                        if (StringUtils.isNotBlank(moduleId)) {
-                            mMarkerAttributes.put(CheckstyleMarker.MODULE_ID, moduleId);
-                        }
-                        mMarkerAttributes.put(IMarker.PRIORITY,
-                            Integer.valueOf(IMarker.PRIORITY_NORMAL));
-                        mMarkerAttributes.put(IMarker.SEVERITY,
-                            Integer.valueOf(getSeverityValue(severity)));
-                        mMarkerAttributes.put(IMarker.LINE_NUMBER,
-                            Integer.valueOf(error.getLine()));
-                        mMarkerAttributes.put(IMarker.MESSAGE, getMessage(error));
-
-                        // calculate offset for editor annotations
-                        calculateMarkerOffset(error, mMarkerAttributes);
-
-                        // enables own category under Java Problem Type
-                        // setting for Problems view (RFE 1530366)
-                        mMarkerAttributes.put("categoryId", CheckstyleMarker.CATEGORY_ID);
-
-                        // create a marker for the actual resource
-                        IMarker marker = mResource.createMarker(CheckstyleMarker.MARKER_ID);
-                        marker.setAttributes(mMarkerAttributes);
-
-                        mMarkerCount++;
-
-                        // clear the marker attributes to reuse the map for the
-                        // next error
-                        mMarkerAttributes.clear();
+            if (!mLimitMarkers || mMarkerCount < mMarkerLimit) {
+
+                SeverityLevel severity = error.getSeverityLevel();
+
+                if (mResource != null && !severity.equals(SeverityLevel.IGNORE)) {
+
+                    RuleMetadata metaData =
+                        MetadataFactory.getRuleMetadata(error.getSourceName());
+
+                    // create generic metadata if none can be found
+                    if (metaData == null) {
+                        Module module = new Module(error.getSourceName());
+                        metaData = MetadataFactory.createGenericMetadata(module);
+                    }
+
+                    mMarkerAttributes.put(CheckstyleMarker.MODULE_NAME,
+                        metaData.identity().internalName());
+                    mMarkerAttributes.put(CheckstyleMarker.MESSAGE_KEY,
+                        error.getViolation().getKey());
+                    String moduleId = error.getModuleId();
+                    if (StringUtils.isNotBlank(moduleId)) {
+                        mMarkerAttributes.put(CheckstyleMarker.MODULE_ID, moduleId);
                     }
+                    mMarkerAttributes.put(IMarker.PRIORITY,
+                        Integer.valueOf(IMarker.PRIORITY_NORMAL));
+                    mMarkerAttributes.put(IMarker.SEVERITY,
+                        Integer.valueOf(getSeverityValue(severity)));
+                    mMarkerAttributes.put(IMarker.LINE_NUMBER,
+                        Integer.valueOf(error.getLine()));
+                    mMarkerAttributes.put(IMarker.MESSAGE, getMessage(error));
+
+                    // calculate offset for editor annotations
+                    calculateMarkerOffset(error, mMarkerAttributes);
+
+                    // enables own category under Java Problem Type
+                    // setting for Problems view (RFE 1530366)
+                    mMarkerAttributes.put("categoryId", CheckstyleMarker.CATEGORY_ID);
+
+                    // buffer a marker for the actual resource
+                    mMarkerBatch.add(mResource, mMarkerAttributes);
+
+                    if (mResultCache != null) {
+                        mResultCache.addViolation(mFileName, mMarkerAttributes);
+                    }
+
+                    mMarkerCount++;
+
+                    // clear the marker attributes to reuse the map for the
+                    // next error
+                    mMarkerAttributes.clear();
                 }
             }
-            catch (CoreException ex) {
-                CheckstyleLog.log(ex);
-            }
         }
 
         @Override
@@ -381,12 +761,18 @@ public final class Auditor {
         public void fileFinished(AuditEvent event) {
             // update monitor according to the monitor interval
             if (mMonitorCounter == MONITOR_INTERVAL) {
-                mMonitor.worked(MONITOR_INTERVAL);
+                synchronized (mMonitor) {
+                    mMonitor.worked(MONITOR_INTERVAL);
+                }
                 mMonitorCounter = 0;
             }
 
-            disconnectFileBuffer(mResource);
-            mDocument = null;
+            mLineOffsets = null;
+
+            if (mResource != null) {
+                mMarkerBatch.fileFinished(mResource, isReconciled(mResource));
+                mFinishedFiles.add(mResource);
+            }
         }
 
         @Override
@@ -400,12 +786,16 @@ public final class Auditor {
 
         public void cleanup() {
 
-            mDocument = null;
+            mLineOffsets = null;
 
-            // disconnect any leftover buffer paths, in case of an unexpected abortion
-            for (IPath p : mConnectedFileBufferPaths) {
-                disconnectFileBuffer(p);
-            }
+            flushMarkers();
+        }
+
+        /**
+         * Creates the markers still waiting in the batch.
+         */
+        public void flushMarkers() {
+            mMarkerBatch.flush();
         }
 
         /**
@@ -418,75 +808,43 @@ public final class Auditor {
          */
         private void calculateMarkerOffset(AuditEvent error, Map<String, Object> markerAttributes) {
 
-            // lazy create the document for the current file
-            if (mDocument == null) {
-                mDocument = connectFileBuffer(mResource);
+            // lazy create the line offsets for the current file
+            if (mLineOffsets == null && mResource instanceof IFile file) {
+                mLineOffsets = getLineOffsets(file);
             }
 
+            int line = error.getLine() == 0 ? 0 : error.getLine() - 1;
+
             // Provide offset information for the marker to make
             // annotated source code possible
-            if (mDocument != null) {
-                try {
-
-                    int line = error.getLine();
-
-                    IRegion lineInformation =
-                        mDocument.getLineInformation(line == 0 ? 0 : line - 1);
-                    int lineOffset = lineInformation.getOffset();
-                    int lineLength = lineInformation.getLength();
-
-                    // annotate from the error column until the end of
-                    // the line
-                    final int offset = error.getViolation().getColumnCharIndex();
-
-                    markerAttributes.put(IMarker.CHAR_START, Integer.valueOf(lineOffset + offset));
-                    markerAttributes.put(IMarker.CHAR_END,
-                        Integer.valueOf(lineOffset + lineLength));
-                }
-                catch (BadLocationException ex) {
-                    // seems to happen quite often so its no use to log since we
-                    // can't do anything about it
-                    // CheckstyleLog.log(e);
-                }
-            }
-        }
-
-        private IDocument connectFileBuffer(IResource resource) {
-            IDocument document = null;
-            if (resource instanceof IFile) {
-                try {
-                    IPath path = resource.getFullPath();
-                    mFileBufferManager.connect(path, new NullProgressMonitor());
+            LineOffsets lineOffsets = mLineOffsets != null ? mLineOffsets.orElse(null) : null;
+            if (lineOffsets != null && lineOffsets.hasLine(line)) {
+                int lineOffset = lineOffsets.getLineOffset(line);
+                int lineLength = lineOffsets.getLineLength(line);
 
-                    mConnectedFileBufferPaths.add(path);
-                    document = mFileBufferManager.getTextFileBuffer(path).getDocument();
-                }
-                catch (CoreException ex) {
-                    CheckstyleLog.log(ex);
-                }
-            }
-            return document;
-        }
+                // annotate from the error column until the end of
+                // the line
+                final int offset = error.getViolation().getColumnCharIndex();
 
-        private void disconnectFileBuffer(IResource resource) {
-            if (resource instanceof IFile) {
-                IPath path = resource.getFullPath();
-                disconnectFileBuffer(path);
+                markerAttributes.put(IMarker.CHAR_START, Integer.valueOf(lineOffset + offset));
+                markerAttributes.put(IMarker.CHAR_END, Integer.valueOf(lineOffset + lineLength));
             }
         }
 
-        private void disconnectFileBuffer(IPath path) {
-
-            try {
-
-                if (mConnectedFileBufferPaths.contains(path)) {
-                    mFileBufferManager.disconnect(path, new NullProgressMonitor());
-                    mConnectedFileBufferPaths.remove(path);
-                }
-            }
-            catch (CoreException ex) {
-                CheckstyleLog.log(ex);
-            }
+        /**
+         * Returns the line offsets of a file. The contents of a file buffer are only used if the
+         * file is open in an editor with unsaved changes, otherwise the file is read from disk.
+         *
+         * @param file
+         *            the file
+         * @return the line offsets, empty if the file cannot be read
+         */
+        private Optional<LineOffsets> getLineOffsets(IFile file) {
+            ITextFileBuffer buffer =
+                mFileBufferManager.getTextFileBuffer(file.getFullPath(), LocationKind.IFILE);
+            return buffer != null && buffer.isDirty()
+                ? Optional.of(LineOffsets.scan(buffer.getDocument().get()))
+                : LineOffsets.read(file);
         }
 
         private int getSeverityValue(SeverityLevel severity) {
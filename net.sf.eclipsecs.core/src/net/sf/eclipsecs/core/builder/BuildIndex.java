@@ -0,0 +1,284 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+
+package net.sf.eclipsecs.core.builder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import net.sf.eclipsecs.core.CheckstylePlugin;
+import net.sf.eclipsecs.core.util.CheckstyleLog;
+import net.sf.eclipsecs.core.util.HashUtil;
+
+/**
+ * Persistent index of the files audited by the builder of a project. For each file it keeps the
+ * audit key of the check configurations the file has been audited with and the modification stamp
+ * and content hash the file had at that time. A file whose index entry still matches is up to
+ * date and needs no new audit, so that deltas without content changes and full builds after a
+ * change of one check configuration only audit the files which are actually affected. Since the
+ * audit results only live on as markers, a file which had markers after its audit but has none
+ * anymore is not up to date either.
+ */
+final class BuildIndex {
+
+    /** Name of the folder inside the plugin state location holding the index files. */
+    private static final String INDEX_FOLDER = "build-index"; //$NON-NLS-1$
+
+    /** Extension of the index files. */
+    private static final String INDEX_FILE_EXTENSION = ".index"; //$NON-NLS-1$
+
+    /** The index file. */
+    private final File mIndexFile;
+
+    /** The key the index entries are valid for. */
+    private final String mValidityKey;
+
+    /** The index entries of the audited files, keyed by project relative path. */
+    private final Map<String, IndexEntry> mEntries;
+
+    /** The entries of the files about to be audited, added once the audit has completed. */
+    private final Map<IFile, IndexEntry> mPendingEntries = new HashMap<>();
+
+    private BuildIndex(File indexFile, String validityKey, Map<String, IndexEntry> entries) {
+        mIndexFile = indexFile;
+        mValidityKey = validityKey;
+        mEntries = entries;
+    }
+
+    /**
+     * Opens the build index of a project.
+     *
+     * @param project
+     *            the project
+     * @return the build index, empty if no valid index exists
+     */
+    static BuildIndex open(IProject project) {
+        return open(getIndexFile(project));
+    }
+
+    /**
+     * Opens a build index file.
+     *
+     * @param indexFile
+     *            the index file
+     * @return the build index, empty if the file holds no valid index
+     */
+    static BuildIndex open(File indexFile) {
+        String validityKey = String.join("#", //$NON-NLS-1$
+            AuditResultCache.getVersion(CheckstylePlugin.class),
+            AuditResultCache.getVersion(Checker.class));
+        return new BuildIndex(indexFile, validityKey, read(indexFile, validityKey));
+    }
+
+    /**
+     * Deletes the build index of a project, so that all files get audited on the next build.
+     *
+     * @param project
+     *            the project
+     */
+    static void delete(IProject project) {
+        getIndexFile(project).delete();
+    }
+
+    /**
+     * Checks if a file has been audited with the given audit key and has not been modified since.
+     *
+     * @param file
+     *            the file
+     * @param auditKey
+     *            the audit key of the check configurations the file belongs to, <code>null</code>
+     *            if it could not be determined
+     * @return <code>true</code> if the file needs no new audit
+     */
+    boolean isUpToDate(IFile file, String auditKey) {
+        IndexEntry entry = mEntries.get(getPath(file));
+        return auditKey != null && entry != null && entry.auditKey().equals(auditKey)
+            && (entry.modificationStamp() == file.getModificationStamp()
+                || entry.contentHash().equals(hashContent(file)))
+            && (!entry.hasMarkers() || hasMarkers(file));
+    }
+
+    /**
+     * Records a file about to be audited. The entry is added to the index by
+     * {@link #commitPending()} once the audit has completed.
+     *
+     * @param file
+     *            the file
+     * @param auditKey
+     *            the audit key of the check configurations the file belongs to, <code>null</code>
+     *            if it could not be determined
+     */
+    void prepare(IFile file, String auditKey) {
+        mEntries.remove(getPath(file));
+
+        String contentHash = hashContent(file);
+        if (auditKey != null && contentHash != null) {
+            mPendingEntries.put(file,
+                new IndexEntry(auditKey, file.getModificationStamp(), contentHash, false));
+        }
+    }
+
+    /**
+     * Removes a file from the index, e.g. because it has not been audited due to compile errors.
+     *
+     * @param file
+     *            the file
+     */
+    void remove(IFile file) {
+        mEntries.remove(getPath(file));
+        mPendingEntries.remove(file);
+    }
+
+    /**
+     * Adds the entries of the files recorded by {@link #prepare(IFile, String)} to the index,
+     * together with the information whether the audit left markers on the file.
+     */
+    void commitPending() {
+        for (Map.Entry<IFile, IndexEntry> pending : mPendingEntries.entrySet()) {
+            IFile file = pending.getKey();
+            IndexEntry entry = pending.getValue();
+            mEntries.put(getPath(file), new IndexEntry(entry.auditKey(),
+                entry.modificationStamp(), entry.contentHash(), hasMarkers(file)));
+        }
+        mPendingEntries.clear();
+    }
+
+    /**
+     * Removes all files from the index but the given ones. Used after full builds to forget about
+     * deleted files and files no longer included in any file set.
+     *
+     * @param files
+     *            the files to keep
+     */
+    void retainOnly(Collection<IFile> files) {
+        Set<String> paths = new HashSet<>();
+        for (IFile file : files) {
+            paths.add(getPath(file));
+        }
+        mEntries.keySet().retainAll(paths);
+    }
+
+    /**
+     * Writes the index back to the plugin state location. Entries which have not been committed
+     * are discarded.
+     */
+    void store() {
+        mPendingEntries.clear();
+
+        mIndexFile.getParentFile().mkdirs();
+        try (OutputStream out =
+            new BufferedOutputStream(Files.newOutputStream(mIndexFile.toPath()));
+            ObjectOutputStream objectOut = new ObjectOutputStream(out)) {
+            objectOut.writeUTF(mValidityKey);
+            objectOut.writeObject(new HashMap<>(mEntries));
+        }
+        catch (IOException ex) {
+            CheckstyleLog.log(ex);
+            mIndexFile.delete();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, IndexEntry> read(File indexFile, String validityKey) {
+        Map<String, IndexEntry> entries = new HashMap<>();
+        if (indexFile.exists()) {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(indexFile.toPath()));
+                ObjectInputStream objectIn = AuditResultCache.newObjectInputStream(in,
+                    HashMap.class, IndexEntry.class, String.class)) {
+                if (validityKey.equals(objectIn.readUTF())) {
+                    entries.putAll((Map<String, IndexEntry>) objectIn.readObject());
+                }
+            }
+            catch (IOException | ClassNotFoundException | ClassCastException ex) {
+                // corrupt or incompatible index, start over
+                entries.clear();
+            }
+        }
+        return entries;
+    }
+
+    private static File getIndexFile(IProject project) {
+        String indexName =
+            HashUtil.hash(project.getName().getBytes(StandardCharsets.UTF_8));
+        return CheckstylePlugin.getDefault().getStateLocation().append(INDEX_FOLDER)
+            .append(indexName + INDEX_FILE_EXTENSION).toFile();
+    }
+
+    private static String getPath(IFile file) {
+        return file.getProjectRelativePath().toString();
+    }
+
+    private static boolean hasMarkers(IFile file) {
+        boolean hasMarkers = false;
+        try {
+            IMarker[] markers =
+                file.findMarkers(CheckstyleMarker.MARKER_ID, false, IResource.DEPTH_ZERO);
+            hasMarkers = markers.length > 0;
+        }
+        catch (CoreException ex) {
+            // the file is gone or closed, it cannot be up to date
+            hasMarkers = false;
+        }
+        return hasMarkers;
+    }
+
+    private static String hashContent(IFile file) {
+        IPath location = file.getLocation();
+        return location != null ? AuditResultCache.hashContent(location.toFile()) : null;
+    }
+
+    /**
+     * The index entry of an audited file.
+     *
+     * @param auditKey
+     *            the audit key of the check configurations the file has been audited with
+     * @param modificationStamp
+     *            the modification stamp of the file at the time of the audit
+     * @param contentHash
+     *            the hash of the file contents at the time of the audit
+     * @param hasMarkers
+     *            <code>true</code> if the audit left Checkstyle markers on the file
+     */
+    private record IndexEntry(String auditKey, long modificationStamp, String contentHash,
+        boolean hasMarkers) implements Serializable {
+    }
+}
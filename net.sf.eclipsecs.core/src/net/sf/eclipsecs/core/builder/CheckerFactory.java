@@ -21,24 +21,19 @@
 package net.sf.eclipsecs.core.builder;
 
 import java.io.UnsupportedEncodingException;
-import java.net.URL;
 import java.util.Locale;
-import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.xml.sax.InputSource;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import com.google.common.io.Closeables;
 import com.puppycrawl.tools.checkstyle.Checker;
 import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
 import com.puppycrawl.tools.checkstyle.ConfigurationLoader.IgnoredModulesOptions;
 import com.puppycrawl.tools.checkstyle.LocalizedMessage;
-import com.puppycrawl.tools.checkstyle.PackageNamesLoader;
 import com.puppycrawl.tools.checkstyle.PackageObjectFactory;
 import com.puppycrawl.tools.checkstyle.PackageObjectFactory.ModuleLoadOption;
 import com.puppycrawl.tools.checkstyle.PropertyResolver;
@@ -49,29 +44,20 @@ import net.sf.eclipsecs.core.CheckstylePluginPrefs;
 import net.sf.eclipsecs.core.config.CheckstyleConfigurationFile;
 import net.sf.eclipsecs.core.config.ICheckConfiguration;
 import net.sf.eclipsecs.core.config.configtypes.IContextAware;
+import net.sf.eclipsecs.core.config.configtypes.RemoteConfigurationType;
 import net.sf.eclipsecs.core.util.CheckstylePluginException;
 
 /**
- * Factory class to create (and cache) checker objects.
+ * Factory class to create (and pool) checker objects.
  *
  */
 public final class CheckerFactory {
 
-    /** Map containing the configured checkers. */
-    private static Cache<String, Checker> sCheckerMap;
+    /** The pool of configured checkers. */
+    private static final CheckerPool CHECKER_POOL = new CheckerPool();
 
-    /** Map containing the modification times of configs. */
-    private static Map<String, Long> sModifiedMap;
-
-    /*
-     * Initialize the cache.
-     */
-    static {
-
-        sCheckerMap = CacheBuilder.newBuilder().softValues().build();
-
-        sModifiedMap = new ConcurrentHashMap<>();
-    }
+    /** The locale the Checkstyle messages are currently set to. */
+    private static Locale sMessageLocale;
 
     /**
      * Hidden utility class constructor.
@@ -81,156 +67,192 @@ public final class CheckerFactory {
     }
 
     /**
-     * Creates a checker for a given configuration file.
+     * Checks out a checker for a given configuration file. The checker is used exclusively by the
+     * caller until it is given back with {@link #returnChecker(Checker)}, so audits of the same
+     * configuration may run concurrently.
      *
      * @param config
      *            the check configuration data
      * @param project
      *            the project to create the checker for
+     * @param monitor
+     *            the progress monitor of the audit, cancelling it aborts waiting for a checker
      * @return the checker for the given configuration file
      * @throws CheckstyleException
      *             the configuration file had errors
      * @throws CheckstylePluginException
      *             the configuration could not be read
+     * @throws OperationCanceledException
+     *             the audit has been cancelled while waiting for a checker
      */
-    public static Checker createChecker(ICheckConfiguration config, IProject project)
-            throws CheckstyleException, CheckstylePluginException {
-
-        String cacheKey = getCacheKey(config, project);
+    public static Checker checkoutChecker(ICheckConfiguration config, IProject project,
+        IProgressMonitor monitor) throws CheckstyleException, CheckstylePluginException {
 
         CheckstyleConfigurationFile configFileData = config.getCheckstyleConfiguration();
-        Checker checker = tryCheckerCache(cacheKey, configFileData.getModificationStamp());
+        String charset = getCharset(project);
+        PropertyResolver resolver = getPropertyResolver(configFileData, project);
 
-        // clear Checkstyle internal caches upon checker reuse
-        if (checker != null) {
-            checker.clearCache();
-        }
+        // the configuration only needs to be loaded if the pool has no checker for it
+        ConfigurationKey key = ConfigurationKey.get(configFileData, project, resolver, charset);
+        Checker checker = CHECKER_POOL.checkout(key.getKey(), () -> createCheckerInternal(
+            loadConfiguration(configFileData, resolver), charset), monitor);
 
-        // no cache hit
-        if (checker == null) {
-            PropertyResolver resolver = configFileData.getPropertyResolver();
-
-            // set the project context if the property resolver needs the
-            // context
-            if (resolver instanceof IContextAware) {
-                ((IContextAware) resolver).setProjectContext(project);
-            }
-
-            InputSource input = null;
-            try {
-                input = configFileData.getCheckConfigFileInputSource();
-                checker = createCheckerInternal(input, resolver, project);
-            }
-            finally {
-                Closeables.closeQuietly(input.getByteStream());
-            }
-
-            // store checker in cache
-            Long modified = Long.valueOf(configFileData.getModificationStamp());
-            sCheckerMap.put(cacheKey, checker);
-            sModifiedMap.put(cacheKey, modified);
-        }
-        else {
-            setLocaleIfChanged(checker);
-        }
+        // clear Checkstyle internal caches upon checker reuse
+        checker.clearCache();
+        setLocaleIfChanged(checker);
 
         return checker;
     }
 
     /**
-     * Cleans up the checker cache.
-     */
-    public static void cleanup() {
-        sCheckerMap.invalidateAll();
-        sModifiedMap.clear();
-    }
-
-    /**
-     * Build a unique cache key for the check configuration.
+     * Returns the content addressed key of the effective configuration, the same key the pooled
+     * checkers of the configuration are stored under.
      *
      * @param config
-     *            the check configuration
+     *            the check configuration data
      * @param project
-     *            the project being checked
-     * @return the unique cache key
+     *            the project to create the key for
+     * @return the configuration key, <code>null</code> if the contents of a file referenced by
+     *         the configuration cannot be determined, e.g. because it is a remote URL
+     * @throws CheckstyleException
+     *             the configuration file had errors
      * @throws CheckstylePluginException
-     *             error getting configuration file data
+     *             the configuration could not be read
      */
-    private static String getCacheKey(ICheckConfiguration config, IProject project)
-            throws CheckstylePluginException {
+    public static String getConfigurationKey(ICheckConfiguration config, IProject project)
+            throws CheckstyleException, CheckstylePluginException {
         CheckstyleConfigurationFile configFileData = config.getCheckstyleConfiguration();
-
-        URL configLocation = configFileData.getResolvedConfigFileURL();
-        String checkConfigName = config.getName() + "#" + (config.isGlobal() ? "Global" : "Local");
-
-        return project.getName() + "#" + configLocation + "#" + checkConfigName;
+        ConfigurationKey key = ConfigurationKey.get(configFileData, project,
+            getPropertyResolver(configFileData, project), getCharset(project));
+        return key.isComplete() ? key.getKey() : null;
     }
 
     /**
-     * Tries to reuse an already configured checker for this configuration.
+     * Returns a checker obtained from
+     * {@link #checkoutChecker(ICheckConfiguration, IProject, IProgressMonitor)} to the pool.
      *
-     * @param cacheKey
-     *            the key for cache access
-     * @param modificationStamp
-     *            the last modification timestamp of the configuration file
-     * @return the cached checker or null
+     * @param checker
+     *            the checker
      */
-    private static Checker tryCheckerCache(String cacheKey, long modificationStamp) {
+    public static void returnChecker(Checker checker) {
+        CHECKER_POOL.checkin(checker);
+    }
 
-        // try the cache
-        Checker checker = sCheckerMap.getIfPresent(cacheKey);
+    /**
+     * Returns the statistics of the checker pool.
+     *
+     * @return the pool statistics
+     */
+    public static CheckerPool.Statistics getPoolStatistics() {
+        return CHECKER_POOL.getStatistics();
+    }
 
-        // if cache hit
-        if (checker != null) {
+    /**
+     * Cleans up the checker pool, the persistent audit result cache and the downloaded remote
+     * configurations.
+     */
+    public static void cleanup() {
+        CHECKER_POOL.clear();
+        ConfigurationKey.clearCache();
+        AuditResultCache.clearAll();
+        RemoteConfigurationType.clearCachedContents();
+    }
 
-            // compare modification times of the configs
-            Long oldTime = sModifiedMap.get(cacheKey);
-            Long newTime = Long.valueOf(modificationStamp);
+    /**
+     * Returns the property resolver of the configuration, with the project context set if the
+     * resolver needs it.
+     *
+     * @param configFileData
+     *            the configuration file data
+     * @param project
+     *            the project
+     * @return the property resolver, may be <code>null</code>
+     */
+    private static PropertyResolver getPropertyResolver(
+        CheckstyleConfigurationFile configFileData, IProject project) {
+        PropertyResolver resolver = configFileData.getPropertyResolver();
+
+        // set the project context if the property resolver needs the
+        // context
+        if (resolver instanceof IContextAware) {
+            ((IContextAware) resolver).setProjectContext(project);
+        }
+        return resolver;
+    }
 
-            // no match - remove checker from cache
-            if (oldTime == null || oldTime.compareTo(newTime) != 0) {
-                checker = null;
-                sCheckerMap.invalidate(cacheKey);
-                sModifiedMap.remove(cacheKey);
-            }
+    /**
+     * Loads the Checkstyle configuration from the given configuration file data.
+     *
+     * @param configFileData
+     *            the configuration file data
+     * @param resolver
+     *            the property resolver
+     * @return the loaded configuration
+     * @throws CheckstyleException
+     *             the configuration file had errors
+     */
+    static Configuration loadConfiguration(CheckstyleConfigurationFile configFileData,
+        PropertyResolver resolver) throws CheckstyleException {
+        InputSource input = null;
+        try {
+            input = configFileData.getCheckConfigFileInputSource();
+            return ConfigurationLoader.loadConfiguration(input, resolver,
+                IgnoredModulesOptions.OMIT);
+        }
+        finally {
+            Closeables.closeQuietly(input.getByteStream());
         }
-        return checker;
     }
 
     /**
-     * Creates a new checker and configures it with the given configuration file.
+     * Returns the default charset of the project.
      *
-     * @param input
-     *            the input source for the configuration file
-     * @param propResolver
-     *            a property resolver null
      * @param project
      *            the project
+     * @return the charset name
+     * @throws CheckstylePluginException
+     *             the charset could not be determined
+     */
+    private static String getCharset(IProject project) throws CheckstylePluginException {
+        String charset = null;
+        try {
+            charset = project.getDefaultCharset();
+        }
+        catch (CoreException ex) {
+            CheckstylePluginException.rethrow(ex);
+        }
+        return charset;
+    }
+
+    /**
+     * Creates a new checker and configures it with the given configuration.
+     *
+     * @param configuration
+     *            the loaded Checkstyle configuration
+     * @param charset
+     *            the charset the checker reads the files with
      * @return the newly created Checker
      * @throws CheckstyleException
      *             an exception during the creation of the checker occured
      * @throws CheckstylePluginException
      *             an unexpected exception occurred
      */
-    private static Checker createCheckerInternal(InputSource input, PropertyResolver propResolver,
-        IProject project) throws CheckstyleException, CheckstylePluginException {
-
-        // load configuration
-        final Configuration configuration =
-            ConfigurationLoader.loadConfiguration(input, propResolver, IgnoredModulesOptions.OMIT);
+    private static Checker createCheckerInternal(Configuration configuration, String charset)
+            throws CheckstyleException, CheckstylePluginException {
 
         ClassLoader moduleClassLoader =
             CheckstylePlugin.getDefault().getAddonExtensionClassLoader();
-        Set<String> packageNames = PackageNamesLoader.getPackageNames(moduleClassLoader);
+        ModuleIndex moduleIndex = ModuleIndex.get(moduleClassLoader);
 
-        // create and configure checker
+        // create and configure checker, resolving module names through the index
         Checker checker = new Checker();
-        checker.setModuleFactory(new PackageObjectFactory(packageNames, moduleClassLoader,
-            ModuleLoadOption.TRY_IN_ALL_REGISTERED_PACKAGES));
+        checker.setModuleFactory(moduleIndex.wrap(new PackageObjectFactory(
+            moduleIndex.getPackageNames(), moduleClassLoader,
+            ModuleLoadOption.TRY_IN_ALL_REGISTERED_PACKAGES)));
         try {
-            checker.setCharset(project.getDefaultCharset());
+            checker.setCharset(charset);
         }
-        catch (UnsupportedEncodingException | CoreException ex) {
+        catch (UnsupportedEncodingException ex) {
             CheckstylePluginException.rethrow(ex);
         }
 
@@ -243,6 +265,8 @@ public final class CheckerFactory {
         // https://sourceforge.net/tracker/?func=detail&aid=2880044&group_id=80344&atid=559497
         checker.setBasedir(null);
 
+        moduleIndex.store();
+
         return checker;
     }
 
@@ -254,22 +278,31 @@ public final class CheckerFactory {
     }
 
     private static void setLocale(final Checker checker, final String lang) {
-        final String lastLocale;
-        if (lang != null) {
-            lastLocale = lang;
-            checker.setLocaleLanguage(lang);
-            checker.setLocaleCountry("");
-            final Locale locale = new Locale(lang);
+        final Locale locale =
+            lang != null ? new Locale(lang) : CheckstylePlugin.getPlatformLocale();
+        checker.setLocaleLanguage(locale.getLanguage());
+        checker.setLocaleCountry(locale.getCountry());
+        setMessageLocale(locale, lang != null);
+    }
+
+    /**
+     * Sets the locale of the Checkstyle messages, which is global state shared by all checkers.
+     * Checkers are checked out concurrently, so the change is serialized and only made if the
+     * locale actually changes.
+     *
+     * @param locale
+     *            the locale
+     * @param platform
+     *            <code>true</code> if the locale also becomes the platform locale
+     */
+    private static synchronized void setMessageLocale(final Locale locale,
+        final boolean platform) {
+        if (!locale.equals(sMessageLocale)) {
+            sMessageLocale = locale;
             LocalizedMessage.setLocale(locale);
-            CheckstylePlugin.setPlatformLocale(locale);
         }
-        else {
-            // set the eclipse platform locale
-            final Locale platformLocale = CheckstylePlugin.getPlatformLocale();
-            lastLocale = platformLocale.getLanguage();
-            checker.setLocaleLanguage(lastLocale);
-            checker.setLocaleCountry(platformLocale.getCountry());
-            LocalizedMessage.setLocale(platformLocale);
+        if (platform && !locale.equals(CheckstylePlugin.getPlatformLocale())) {
+            CheckstylePlugin.setPlatformLocale(locale);
         }
     }
 
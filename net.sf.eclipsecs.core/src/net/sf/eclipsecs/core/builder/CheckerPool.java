@@ -0,0 +1,333 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+
+package net.sf.eclipsecs.core.builder;
+
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import net.sf.eclipsecs.core.CheckstylePluginPrefs;
+import net.sf.eclipsecs.core.util.CheckstylePluginException;
+
+/**
+ * Bounded pool of checkers, grouped by cache key. A checker is checked out for the exclusive use
+ * of one audit and returned afterwards, so several audits of the same configuration can run at
+ * the same time. Checkouts beyond the maximum pool size of a key wait for a checker to be
+ * returned. Idle checkers exceeding the minimum idle count are destroyed once they have been idle
+ * for longer than the idle timeout. Keys without checked out checkers which have not been used for
+ * longer than the idle timeout are dropped entirely, since a content based cache key is never
+ * invalidated explicitly.
+ */
+public final class CheckerPool {
+
+    /** The interval in which a waiting checkout checks its progress monitor for cancellation. */
+    private static final long CANCEL_POLL_MILLIS = 100;
+
+    /** The pools by cache key. */
+    private final Map<String, KeyedPool> mPools = new ConcurrentHashMap<>();
+
+    /** The checked out checkers and the pools they belong to. */
+    private final Map<Checker, KeyedPool> mLeases =
+        Collections.synchronizedMap(new IdentityHashMap<>());
+
+    /** The number of checkouts served by an idle checker. */
+    private final AtomicLong mHits = new AtomicLong();
+
+    /** The number of checkouts which had to create a checker. */
+    private final AtomicLong mMisses = new AtomicLong();
+
+    /** The number of idle checkers destroyed by the idle eviction. */
+    private final AtomicLong mEvictions = new AtomicLong();
+
+    /** The accumulated time spent creating checkers, in nanoseconds. */
+    private final AtomicLong mCreationNanos = new AtomicLong();
+
+    /**
+     * Checks out a checker for the given cache key. An idle checker is reused if there is one,
+     * otherwise a new one is created. The checker must be given back with
+     * {@link #checkin(Checker)} once the audit is done.
+     *
+     * @param cacheKey
+     *            the cache key, identifying the effective configuration of the checker
+     * @param creator
+     *            creates a new checker in case of a pool miss
+     * @param monitor
+     *            the progress monitor of the audit, cancelling it aborts waiting for a checker
+     * @return the checked out checker
+     * @throws CheckstyleException
+     *             the configuration file had errors
+     * @throws CheckstylePluginException
+     *             the configuration could not be read
+     * @throws OperationCanceledException
+     *             the audit has been cancelled while waiting for a checker
+     */
+    Checker checkout(String cacheKey, CheckerCreator creator, IProgressMonitor monitor)
+            throws CheckstyleException, CheckstylePluginException {
+
+        KeyedPool pool = mPools.computeIfAbsent(cacheKey, key -> new KeyedPool(
+            CheckstylePluginPrefs.getInt(CheckstylePluginPrefs.PREF_CHECKER_POOL_MAX_SIZE)));
+        pool.mLastUsed = System.nanoTime();
+
+        pool.acquire(monitor);
+        Checker checker = null;
+        try {
+            pool.mLeaseCount.incrementAndGet();
+            IdleChecker idle = pool.mIdleCheckers.pollFirst();
+            if (idle != null) {
+                mHits.incrementAndGet();
+                checker = idle.checker();
+            }
+            else {
+                mMisses.incrementAndGet();
+                long start = System.nanoTime();
+                checker = creator.create();
+                mCreationNanos.addAndGet(System.nanoTime() - start);
+            }
+            mLeases.put(checker, pool);
+        }
+        finally {
+            if (checker == null) {
+                pool.mLeaseCount.decrementAndGet();
+                pool.mPermits.release();
+            }
+        }
+
+        evictIdle();
+        return checker;
+    }
+
+    /**
+     * Returns a checked out checker to the pool. Checkers which have been checked out before their
+     * key was cleared or dropped are destroyed.
+     *
+     * @param checker
+     *            the checker to return
+     */
+    void checkin(Checker checker) {
+        KeyedPool pool = mLeases.remove(checker);
+        if (pool != null) {
+            pool.mLastUsed = System.nanoTime();
+            if (pool.mRetired) {
+                checker.destroy();
+            }
+            else {
+                pool.mIdleCheckers.offerFirst(new IdleChecker(checker, System.nanoTime()));
+
+                // the pool may have been retired in the meantime
+                if (pool.mRetired) {
+                    pool.retire();
+                }
+            }
+            pool.mLeaseCount.decrementAndGet();
+            pool.mPermits.release();
+        }
+        evictIdle();
+    }
+
+    /**
+     * Destroys all idle checkers. Checked out checkers are destroyed when they are returned.
+     */
+    void clear() {
+        for (String cacheKey : mPools.keySet()) {
+            KeyedPool pool = mPools.remove(cacheKey);
+            if (pool != null) {
+                pool.retire();
+            }
+        }
+    }
+
+    /**
+     * Returns the pool statistics collected since the plugin was started.
+     *
+     * @return the statistics
+     */
+    public Statistics getStatistics() {
+        int idle = 0;
+        for (KeyedPool pool : mPools.values()) {
+            idle += pool.mIdleCheckers.size();
+        }
+        return new Statistics(mHits.get(), mMisses.get(), mEvictions.get(),
+            TimeUnit.NANOSECONDS.toMillis(mCreationNanos.get()), idle, mLeases.size());
+    }
+
+    /**
+     * Destroys the checkers which have been idle for longer than the idle timeout, keeping the
+     * configured minimum of idle checkers per key. Keys without checked out checkers and unused
+     * for longer than the idle timeout are dropped.
+     */
+    private void evictIdle() {
+        int minIdle =
+            CheckstylePluginPrefs.getInt(CheckstylePluginPrefs.PREF_CHECKER_POOL_MIN_IDLE);
+        long timeout = TimeUnit.SECONDS.toNanos(
+            CheckstylePluginPrefs.getInt(CheckstylePluginPrefs.PREF_CHECKER_POOL_IDLE_TIMEOUT));
+        long now = System.nanoTime();
+
+        for (Map.Entry<String, KeyedPool> entry : mPools.entrySet()) {
+            KeyedPool pool = entry.getValue();
+            if (pool.mLeaseCount.get() == 0 && now - pool.mLastUsed > timeout
+                && mPools.remove(entry.getKey(), pool)) {
+                mEvictions.addAndGet(pool.mIdleCheckers.size());
+                pool.retire();
+                continue;
+            }
+            Deque<IdleChecker> idleCheckers = pool.mIdleCheckers;
+
+            // the least recently returned checkers are at the end of the deque
+            IdleChecker oldest = idleCheckers.peekLast();
+            while (oldest != null && idleCheckers.size() > minIdle
+                && now - oldest.idleSince() > timeout) {
+                if (idleCheckers.removeLastOccurrence(oldest)) {
+                    oldest.checker().destroy();
+                    mEvictions.incrementAndGet();
+                }
+                oldest = idleCheckers.peekLast();
+            }
+        }
+    }
+
+    /**
+     * Creates a checker on a pool miss.
+     */
+    @FunctionalInterface
+    interface CheckerCreator {
+
+        /**
+         * Creates a new checker.
+         *
+         * @return the checker
+         * @throws CheckstyleException
+         *             the configuration file had errors
+         * @throws CheckstylePluginException
+         *             the configuration could not be read
+         */
+        Checker create() throws CheckstyleException, CheckstylePluginException;
+    }
+
+    /**
+     * Statistics of the checker pool.
+     *
+     * @param hits
+     *            the number of checkouts served by an idle checker
+     * @param misses
+     *            the number of checkouts which had to create a checker
+     * @param evictions
+     *            the number of idle checkers destroyed by the idle eviction
+     * @param creationMillis
+     *            the accumulated time spent creating checkers, in milliseconds
+     * @param idle
+     *            the number of idle checkers
+     * @param checkedOut
+     *            the number of checked out checkers
+     */
+    public record Statistics(long hits, long misses, long evictions, long creationMillis,
+        int idle, int checkedOut) {
+    }
+
+    /**
+     * An idle checker and the time it was returned to the pool.
+     *
+     * @param checker
+     *            the checker
+     * @param idleSince
+     *            the {@link System#nanoTime()} the checker was returned
+     */
+    private record IdleChecker(Checker checker, long idleSince) {
+    }
+
+    /**
+     * The checkers of one cache key.
+     */
+    private static final class KeyedPool {
+
+        /** Permits limiting the number of checked out checkers. */
+        private final Semaphore mPermits;
+
+        /** The idle checkers, the most recently returned first. */
+        private final Deque<IdleChecker> mIdleCheckers = new ConcurrentLinkedDeque<>();
+
+        /** Flags if the pool has been dropped and its checkers are to be destroyed. */
+        private volatile boolean mRetired;
+
+        /** The number of checked out checkers. */
+        private final AtomicInteger mLeaseCount = new AtomicInteger();
+
+        /** The {@link System#nanoTime()} of the last checkout or checkin. */
+        private volatile long mLastUsed;
+
+        /**
+         * Creates the pool of a cache key.
+         *
+         * @param maxSize
+         *            the maximum number of checked out checkers, at least <code>1</code>
+         */
+        KeyedPool(int maxSize) {
+            mPermits = new Semaphore(Math.max(1, maxSize), true);
+        }
+
+        /**
+         * Waits until a checker may be checked out, checking the progress monitor for
+         * cancellation in between.
+         *
+         * @param monitor
+         *            the progress monitor of the waiting audit
+         * @throws OperationCanceledException
+         *             the audit has been cancelled or the thread has been interrupted while
+         *             waiting
+         */
+        void acquire(IProgressMonitor monitor) {
+            try {
+                while (!mPermits.tryAcquire(CANCEL_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (monitor.isCanceled()) {
+                        throw new OperationCanceledException();
+                    }
+                }
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new OperationCanceledException();
+            }
+        }
+
+        /**
+         * Retires the pool and destroys its idle checkers.
+         */
+        void retire() {
+            mRetired = true;
+            IdleChecker idle = mIdleCheckers.pollFirst();
+            while (idle != null) {
+                idle.checker().destroy();
+                idle = mIdleCheckers.pollFirst();
+            }
+        }
+    }
+}
@@ -23,9 +23,14 @@ package net.sf.eclipsecs.core.builder;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
@@ -55,6 +60,7 @@ import net.sf.eclipsecs.core.nature.CheckstyleNature;
 import net.sf.eclipsecs.core.projectconfig.FileSet;
 import net.sf.eclipsecs.core.projectconfig.IProjectConfiguration;
 import net.sf.eclipsecs.core.projectconfig.ProjectConfigurationFactory;
+import net.sf.eclipsecs.core.projectconfig.filters.FilterChain;
 import net.sf.eclipsecs.core.projectconfig.filters.IFilter;
 import net.sf.eclipsecs.core.util.CheckstylePluginException;
 
@@ -115,6 +121,19 @@ public class CheckstyleBuilder extends IncrementalProjectBuilder {
         buildJob.schedule();
     }
 
+    /**
+     * Notifies the builder that Checkstyle has been removed from a project. Its build index is
+     * deleted, so that all files get audited once Checkstyle is added again. Markers removed from
+     * single files need no notification, since files whose markers are gone are never considered
+     * up to date.
+     *
+     * @param project
+     *            the project
+     */
+    public static void checkstyleRemoved(IProject project) {
+        BuildIndex.delete(project);
+    }
+
     @Override
     protected final IProject[] build(final int kind, @SuppressWarnings("rawtypes") final Map args,
         final IProgressMonitor monitor) throws CoreException {
@@ -155,7 +174,12 @@ public class CheckstyleBuilder extends IncrementalProjectBuilder {
                 resources = getResources(project, config.getFilters());
             }
 
-            handleBuildSelection(resources, config, monitor, project, kind);
+            BuildIndex index = null;
+            if (CheckstylePluginPrefs.getBoolean(CheckstylePluginPrefs.PREF_BUILD_INDEX)) {
+                index = BuildIndex.open(project);
+            }
+
+            handleBuildSelection(resources, config, monitor, project, kind, index);
 
         }
         else {
@@ -165,6 +189,7 @@ public class CheckstyleBuilder extends IncrementalProjectBuilder {
 
             // remove all existing Checkstyle markers
             project.deleteMarkers(CheckstyleMarker.MARKER_ID, false, IResource.DEPTH_INFINITE);
+            BuildIndex.delete(project);
 
             Map<String, Object> markerAttributes = new HashMap<>();
             markerAttributes.put(IMarker.PRIORITY, Integer.valueOf(IMarker.PRIORITY_HIGH));
@@ -189,6 +214,9 @@ public class CheckstyleBuilder extends IncrementalProjectBuilder {
     @Override
     protected void clean(IProgressMonitor monitor) throws CoreException {
         getProject().deleteMarkers(CheckstyleMarker.MARKER_ID, false, IResource.DEPTH_INFINITE);
+
+        // without markers no file is up to date anymore
+        BuildIndex.delete(getProject());
     }
 
     /**
@@ -212,16 +240,55 @@ public class CheckstyleBuilder extends IncrementalProjectBuilder {
     public final <T extends IResource> void handleBuildSelection(final Collection<T> resources,
         final IProjectConfiguration configuration, final IProgressMonitor monitor,
         final IProject project, final int kind) throws CoreException {
-        // on full build remove all previous checkstyle markers
-        if (kind == IncrementalProjectBuilder.FULL_BUILD) {
+        handleBuildSelection(resources, configuration, monitor, project, kind, null);
+    }
+
+    /**
+     * Builds the selected resources, skipping the files the build index knows to be up to date.
+     *
+     * @param resources
+     *            the resources to build
+     * @param configuration
+     *            the project configuration
+     * @param monitor
+     *            the progress monitor
+     * @param project
+     *            the built project
+     * @param kind
+     *            the kind of build
+     * @param index
+     *            the build index of the project, <code>null</code> to audit all selected files
+     * @param <T>
+     *            the resource type parameter
+     * @throws CoreException
+     *             if the build fails
+     */
+    private <T extends IResource> void handleBuildSelection(final Collection<T> resources,
+        final IProjectConfiguration configuration, final IProgressMonitor monitor,
+        final IProject project, final int kind, final BuildIndex index) throws CoreException {
+        boolean reconcileMarkers =
+            CheckstylePluginPrefs.getBoolean(CheckstylePluginPrefs.PREF_RECONCILE_MARKERS);
+
+        // on full build remove all previous checkstyle markers, unless they are reconciled or
+        // kept for up to date files
+        if (kind == IncrementalProjectBuilder.FULL_BUILD && !reconcileMarkers && index == null) {
             project.deleteMarkers(CheckstyleMarker.MARKER_ID, false, IResource.DEPTH_INFINITE);
         }
 
         boolean backgroundFullBuild =
             CheckstylePluginPrefs.getBoolean(CheckstylePluginPrefs.PREF_BACKGROUND_FULL_BUILD);
 
-        Map<ICheckConfiguration, Auditor> audits = resolveAudits(resources, configuration, project);
+        Set<IFile> upToDateFiles = new HashSet<>();
+        Map<ICheckConfiguration, Auditor> audits = resolveAudits(resources, configuration,
+            project, reconcileMarkers, index, upToDateFiles);
 
+        // on full build remove the markers of files which are not audited anymore
+        if (kind == IncrementalProjectBuilder.FULL_BUILD && (reconcileMarkers || index != null)) {
+            deleteUnauditedMarkers(project, audits.values(), upToDateFiles);
+        }
+
+        // audits running in the background are not tracked by the build index
+        boolean completed = !(backgroundFullBuild && kind == FULL_BUILD);
         try {
             // run all auditors
             for (Auditor audit : audits.values()) {
@@ -237,6 +304,7 @@ public class CheckstyleBuilder extends IncrementalProjectBuilder {
                 }
                 else {
                     audit.runAudit(project, monitor);
+                    completed &= audit.isCompleted();
                 }
             }
         }
@@ -245,6 +313,10 @@ public class CheckstyleBuilder extends IncrementalProjectBuilder {
                 ex.getLocalizedMessage(), ex);
             throw new CoreException(status);
         }
+
+        if (index != null) {
+            updateIndex(index, completed, kind, audits.values(), upToDateFiles);
+        }
     }
 
     /**
@@ -259,19 +331,87 @@ public class CheckstyleBuilder extends IncrementalProjectBuilder {
      *            the project configuration
      * @param project
      *            the project
+     * @param reconcileMarkers
+     *            <code>true</code> if the markers of the audited files are reconciled after the
+     *            audit instead of being deleted up front
+     * @param index
+     *            the build index, <code>null</code> to audit all files
+     * @param upToDateFiles
+     *            receives the files which are skipped because the build index knows them to be
+     *            up to date
      * @return the map of check configurations to auditors
      * @throws CoreException
      *             if an error occurs
      */
     private <T extends IResource> Map<ICheckConfiguration, Auditor> resolveAudits(
-        Collection<T> resources, IProjectConfiguration configuration, IProject project)
+        Collection<T> resources, IProjectConfiguration configuration, IProject project,
+        boolean reconcileMarkers, BuildIndex index, Set<IFile> upToDateFiles)
+            throws CoreException {
+
+        Map<ICheckConfiguration, Auditor> audits = new HashMap<>();
+        Map<IFile, Set<Auditor>> fileAudits = new LinkedHashMap<>();
+        assignFileSets(resources, configuration, project, audits, fileAudits);
+
+        Map<Auditor, String> auditKeys = new HashMap<>();
+        for (Map.Entry<IFile, Set<Auditor>> entry : fileAudits.entrySet()) {
+            IFile file = entry.getKey();
+            boolean hasCompileErrors = IMarker.SEVERITY_ERROR == file.findMaxProblemSeverity(
+                IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER, true, IResource.DEPTH_ZERO);
+            String auditKey =
+                index != null ? getAuditKey(entry.getValue(), project, auditKeys) : null;
+
+            // avoid checkstyle parser errors being shown
+            if (hasCompileErrors) {
+                file.deleteMarkers(CheckstyleMarker.MARKER_ID, false, IResource.DEPTH_ZERO);
+                if (index != null) {
+                    index.remove(file);
+                }
+            }
+            else if (index != null && index.isUpToDate(file, auditKey)) {
+                upToDateFiles.add(file);
+            }
+            else {
+                // remove markers on this file, unless they get reconciled after the audit
+                if (!reconcileMarkers) {
+                    file.deleteMarkers(CheckstyleMarker.MARKER_ID, false, IResource.DEPTH_ZERO);
+                }
+                addFile(file, entry.getValue(), index, auditKey);
+            }
+        }
+
+        if (reconcileMarkers) {
+            excludeSharedFilesFromReconciliation(audits.values());
+        }
+        return audits;
+    }
+
+    /**
+     * Assigns the files to the auditors of the file sets including them.
+     *
+     * @param <T>
+     *            the resource type
+     * @param resources
+     *            the resources to audit
+     * @param configuration
+     *            the project configuration
+     * @param project
+     *            the project
+     * @param audits
+     *            receives the auditor of each check configuration
+     * @param fileAudits
+     *            receives the auditors of each file
+     * @throws CoreException
+     *             a file set has no check configuration
+     */
+    private static <T extends IResource> void assignFileSets(Collection<T> resources,
+        IProjectConfiguration configuration, IProject project,
+        Map<ICheckConfiguration, Auditor> audits, Map<IFile, Set<Auditor>> fileAudits)
             throws CoreException {
         List<FileSet> enabledFileSets =
             configuration.getFileSets().stream().filter(FileSet::isEnabled).toList();
 
         List<IFile> files = resources.stream().filter(resource -> resource instanceof IFile)
             .map(resource -> (IFile) resource).toList();
-        Map<ICheckConfiguration, Auditor> audits = new HashMap<>();
         for (FileSet fileSet : enabledFileSets) {
             ICheckConfiguration checkConfig = fileSet.getCheckConfig();
             if (checkConfig == null) {
@@ -282,29 +422,160 @@ public class CheckstyleBuilder extends IncrementalProjectBuilder {
             Auditor audit = audits.computeIfAbsent(checkConfig, Auditor::new);
 
             // check which files belong to the file set
-            List<IFile> filesInFileset = files.stream().filter(fileSet::includesFile).toList();
+            for (IFile file : files) {
+                if (fileSet.includesFile(file)) {
+                    fileAudits.computeIfAbsent(file, key -> new LinkedHashSet<>()).add(audit);
+                }
+            }
+        }
+    }
 
-            for (IFile file : filesInFileset) {
-                boolean hasCompileErrors = IMarker.SEVERITY_ERROR == file.findMaxProblemSeverity(
-                    IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER, true, IResource.DEPTH_ZERO);
+    /**
+     * Adds a file to its auditors.
+     *
+     * @param file
+     *            the file
+     * @param fileAudits
+     *            the auditors of the file
+     * @param index
+     *            the build index, may be <code>null</code>
+     * @param auditKey
+     *            the audit key of the file
+     * @throws CoreException
+     *             error deleting the package markers
+     */
+    private static void addFile(IFile file, Set<Auditor> fileAudits, BuildIndex index,
+        String auditKey) throws CoreException {
+        for (Auditor audit : fileAudits) {
+            audit.addFile(file);
+        }
+        if (index != null) {
+            index.prepare(file, auditKey);
+        }
 
-                // remove markers on this file
-                file.deleteMarkers(CheckstyleMarker.MARKER_ID, false, IResource.DEPTH_ZERO);
+        // remove markers from package to prevent
+        // packagehtml messages from accumulatin
+        file.getParent().deleteMarkers(CheckstyleMarker.MARKER_ID, false, IResource.DEPTH_ZERO);
+    }
 
-                // avoid checkstyle parser errors being shown
-                if (hasCompileErrors) {
-                    continue;
+    /**
+     * Returns the combined audit key of the auditors of a file.
+     *
+     * @param fileAudits
+     *            the auditors of the file
+     * @param project
+     *            the project
+     * @param auditKeys
+     *            the audit keys already determined during this build
+     * @return the audit key, <code>null</code> if it cannot be determined for any auditor
+     */
+    private static String getAuditKey(Set<Auditor> fileAudits, IProject project,
+        Map<Auditor, String> auditKeys) {
+        List<String> keys = new ArrayList<>();
+        for (Auditor audit : fileAudits) {
+            if (!auditKeys.containsKey(audit)) {
+                auditKeys.put(audit, audit.getAuditKey(project));
+            }
+            keys.add(auditKeys.get(audit));
+        }
+
+        String auditKey = null;
+        if (!keys.contains(null)) {
+            Collections.sort(keys);
+            auditKey = String.join("|", keys); //$NON-NLS-1$
+        }
+        return auditKey;
+    }
+
+    /**
+     * Updates and stores the build index after the audits.
+     *
+     * @param index
+     *            the build index
+     * @param completed
+     *            <code>true</code> if all audits have completed
+     * @param kind
+     *            the kind of build
+     * @param audits
+     *            the auditors
+     * @param upToDateFiles
+     *            the files skipped because they are up to date
+     */
+    private static void updateIndex(BuildIndex index, boolean completed, int kind,
+        Collection<Auditor> audits, Set<IFile> upToDateFiles) {
+        if (completed) {
+            index.commitPending();
+        }
+        if (kind == IncrementalProjectBuilder.FULL_BUILD) {
+            Set<IFile> builtFiles = new HashSet<>(upToDateFiles);
+            for (Auditor audit : audits) {
+                builtFiles.addAll(audit.getFiles());
+            }
+            index.retainOnly(builtFiles);
+        }
+        index.store();
+    }
+
+    /**
+     * Deletes the markers of files audited by more than one check configuration and excludes them
+     * from the marker reconciliation. Each auditor only knows the results of its own configuration
+     * and would otherwise remove the markers created by the others.
+     *
+     * @param audits
+     *            the auditors
+     * @throws CoreException
+     *             error deleting the markers
+     */
+    private static void excludeSharedFilesFromReconciliation(Collection<Auditor> audits)
+            throws CoreException {
+        Set<IFile> auditedFiles = new HashSet<>();
+        Set<IFile> sharedFiles = new HashSet<>();
+        for (Auditor audit : audits) {
+            for (IFile file : audit.getFiles()) {
+                if (!auditedFiles.add(file)) {
+                    sharedFiles.add(file);
                 }
+            }
+        }
 
-                audit.addFile(file);
+        for (IFile file : sharedFiles) {
+            file.deleteMarkers(CheckstyleMarker.MARKER_ID, false, IResource.DEPTH_ZERO);
+            for (Auditor audit : audits) {
+                audit.excludeFromReconciliation(file);
+            }
+        }
+    }
 
-                // remove markers from package to prevent
-                // packagehtml messages from accumulatin
-                file.getParent().deleteMarkers(CheckstyleMarker.MARKER_ID, false,
-                    IResource.DEPTH_ZERO);
+    /**
+     * Deletes the Checkstyle markers of all project resources which are neither audited by any of
+     * the auditors nor up to date.
+     *
+     * @param project
+     *            the project
+     * @param audits
+     *            the auditors
+     * @param upToDateFiles
+     *            the files whose markers are kept because they are up to date
+     * @throws CoreException
+     *             error accessing the markers
+     */
+    private static void deleteUnauditedMarkers(IProject project, Collection<Auditor> audits,
+        Set<IFile> upToDateFiles) throws CoreException {
+        Set<IResource> auditedFiles = new HashSet<>(upToDateFiles);
+        for (Auditor audit : audits) {
+            auditedFiles.addAll(audit.getFiles());
+        }
+
+        List<IMarker> staleMarkers = new ArrayList<>();
+        for (IMarker marker : project.findMarkers(CheckstyleMarker.MARKER_ID, false,
+            IResource.DEPTH_INFINITE)) {
+            if (!auditedFiles.contains(marker.getResource())) {
+                staleMarkers.add(marker);
             }
         }
-        return audits;
+        if (!staleMarkers.isEmpty()) {
+            project.getWorkspace().deleteMarkers(staleMarkers.toArray(new IMarker[0]));
+        }
     }
 
     /**
@@ -321,41 +592,54 @@ public class CheckstyleBuilder extends IncrementalProjectBuilder {
     private Collection<IResource> getResources(final IResourceDelta delta,
         final List<IFilter> filters) throws CoreException {
 
-        List<IResource> resources = new ArrayList<>();
-
-        for (IResourceDelta childDelta : delta.getAffectedChildren()) {
-            // check if a resource has changed
-            int deltaKind = childDelta.getKind();
-            if (deltaKind == IResourceDelta.ADDED || deltaKind == IResourceDelta.CHANGED) {
+        List<IResource> changedResources = new ArrayList<>();
+        collectResources(delta, filters, changedResources);
 
-                IResource child = childDelta.getResource();
+        // filter all changed resources at once
+        List<IResource> resources = FilterChain.filter(filters, changedResources);
 
-                // filter resources
-                boolean goesThrough = true;
-                for (IFilter filter : filters) {
-                    if (filter.isEnabled() && !filter.accept(child)) {
-                        goesThrough = false;
-                        break;
-                    }
-                }
-
-                // the child has made it through the filters
-                if (goesThrough) {
+        Set<IResource> goesThrough = new HashSet<>(resources);
+        for (IResource changedResource : changedResources) {
+            if (!goesThrough.contains(changedResource)) {
+                changedResource.deleteMarkers(CheckstyleMarker.MARKER_ID, true,
+                    IResource.DEPTH_ZERO);
+            }
+        }
+        return resources;
+    }
 
-                    // add to the resources to check
-                    resources.add(child);
-                }
-                else {
-                    child.deleteMarkers(CheckstyleMarker.MARKER_ID, true, IResource.DEPTH_ZERO);
-                }
+    /**
+     * Collects the added and changed resources of a resource delta.
+     *
+     * @param delta
+     *            the delta of changes
+     * @param filters
+     *            filters to exclude whole subtrees from the check
+     * @param resources
+     *            receives the added and changed resources
+     * @throws CoreException
+     *             an unexpected error occurred
+     */
+    private static void collectResources(final IResourceDelta delta,
+        final List<IFilter> filters, final List<IResource> resources) throws CoreException {
+        for (IResourceDelta childDelta : delta
+            .getAffectedChildren(IResourceDelta.ADDED | IResourceDelta.CHANGED)) {
+            IResource child = childDelta.getResource();
+
+            // skip containers rejected together with their whole subtree
+            if (child instanceof IContainer childContainer
+                && FilterChain.excludesSubtree(filters, childContainer)) {
+                child.deleteMarkers(CheckstyleMarker.MARKER_ID, true, IResource.DEPTH_INFINITE);
+            }
+            else {
+                resources.add(child);
 
                 // recurse over containers
                 if (child instanceof IContainer) {
-                    resources.addAll(getResources(childDelta, filters));
+                    collectResources(childDelta, filters, resources);
                 }
             }
         }
-        return resources;
     }
 
     /**
@@ -372,32 +656,25 @@ public class CheckstyleBuilder extends IncrementalProjectBuilder {
     private Collection<IResource> getResources(final IContainer container,
         final List<IFilter> filters) throws CoreException {
 
-        List<IResource> resources = new ArrayList<>();
-
-        // loop over children resources
-        for (IResource child : container.members()) {
-            // filter resources
-            boolean goesThrough = true;
-            for (IFilter filter : filters) {
-                if (filter.isEnabled() && !filter.accept(child)) {
-                    goesThrough = false;
-                    break;
-                }
+        // collect the files, skipping containers rejected together with their whole subtree;
+        // containers are only resolved if a filter can reject them
+        boolean testContainers = FilterChain.canExcludeSubtrees(filters);
+        List<IResource> files = new ArrayList<>();
+        container.accept(proxy -> {
+            boolean visitChildren = true;
+            if (proxy.getType() == IResource.FILE) {
+                files.add(proxy.requestResource());
+                visitChildren = false;
             }
-
-            // the child has made it through the filters
-            if (goesThrough) {
-
-                // add to the resources to check
-                resources.add(child);
+            else if (testContainers) {
+                visitChildren =
+                    !FilterChain.excludesSubtree(filters, (IContainer) proxy.requestResource());
             }
+            return visitChildren;
+        }, IResource.NONE);
 
-            // recurse over containers
-            if (child instanceof IContainer) {
-                resources.addAll(getResources((IContainer) child, filters));
-            }
-        }
-        return resources;
+        // filter all files at once
+        return FilterChain.filter(filters, files);
     }
 
     @Override
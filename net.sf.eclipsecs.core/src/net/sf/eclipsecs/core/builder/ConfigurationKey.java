@@ -0,0 +1,345 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+
+package net.sf.eclipsecs.core.builder;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.core.resources.IProject;
+
+import com.puppycrawl.tools.checkstyle.PropertyResolver;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import net.sf.eclipsecs.core.CheckstylePlugin;
+import net.sf.eclipsecs.core.config.CheckstyleConfigurationFile;
+import net.sf.eclipsecs.core.util.HashUtil;
+
+/**
+ * The content addressed key of an effective check configuration. The key is a hash over the
+ * configuration file contents and location, the additional property bundle, the values of all
+ * properties referenced by the configuration, the contents of the files referenced by its modules
+ * and the charset. Projects with the same effective configuration therefore share their checkers,
+ * and any change of the effective configuration leads to a new key.
+ *
+ * <p>
+ * Computing the key means parsing the configuration, so the keys are cached per project and
+ * configuration file. A cached key is reused as long as the configuration fingerprint, the charset,
+ * the values of the referenced properties and the modification stamps of the referenced files are
+ * unchanged.
+ * </p>
+ */
+final class ConfigurationKey {
+
+    /** Module properties naming files the modules read, like suppressions or headers. */
+    private static final Set<String> FILE_PROPERTIES =
+        Set.of("file", "headerFile"); //$NON-NLS-1$ //$NON-NLS-2$
+
+    /** Protocols of referenced files which can be read without network access. */
+    private static final Set<String> LOCAL_PROTOCOLS = Set.of("file", //$NON-NLS-1$
+        "jar", //$NON-NLS-1$
+        "bundleentry", //$NON-NLS-1$
+        "bundleresource"); //$NON-NLS-1$
+
+    /** Stamp of a referenced file whose changes cannot be detected, it never matches. */
+    private static final long UNKNOWN_STAMP = -1;
+
+    /** The cached keys, by project and configuration file. */
+    private static final Map<String, ConfigurationKey> KEYS = new ConcurrentHashMap<>();
+
+    /** The hash of the effective configuration. */
+    private final String mKey;
+
+    /** <code>false</code> if the contents of a referenced file are missing from the key. */
+    private final boolean mComplete;
+
+    /** The fingerprint of the configuration file the key was computed from. */
+    private final String mFingerprint;
+
+    /** The charset the key was computed for. */
+    private final String mCharset;
+
+    /** The properties referenced by the configuration and their values, sorted by name. */
+    private final Map<String, String> mProperties;
+
+    /** The modification stamps of the referenced files, by location. */
+    private final Map<String, Long> mFileStamps;
+
+    private ConfigurationKey(String key, boolean complete, String fingerprint, String charset,
+        Map<String, String> properties, Map<String, Long> fileStamps) {
+        mKey = key;
+        mComplete = complete;
+        mFingerprint = fingerprint;
+        mCharset = charset;
+        mProperties = properties;
+        mFileStamps = fileStamps;
+    }
+
+    /**
+     * Returns the key of an effective configuration, parsing the configuration only if there is
+     * no valid cached key.
+     *
+     * @param configFileData
+     *            the configuration file data
+     * @param project
+     *            the project the configuration is used for
+     * @param resolver
+     *            the property resolver of the configuration, may be <code>null</code>
+     * @param charset
+     *            the charset the checker reads the files with
+     * @return the configuration key
+     * @throws CheckstyleException
+     *             the configuration file had errors
+     */
+    static ConfigurationKey get(CheckstyleConfigurationFile configFileData, IProject project,
+        PropertyResolver resolver, String charset) throws CheckstyleException {
+        String cacheName = project.getName() + '#' + configFileData.getResolvedConfigFileURL();
+        ConfigurationKey key = KEYS.get(cacheName);
+        if (key == null || !key.isValid(configFileData.getFingerprint(), charset, resolver)) {
+            // record the property values the configuration actually uses, they are part of the key
+            RecordingPropertyResolver recorder = new RecordingPropertyResolver(resolver);
+            Configuration configuration =
+                CheckerFactory.loadConfiguration(configFileData, recorder);
+            key = create(configFileData, configuration, recorder.getResolvedProperties(), charset);
+            KEYS.put(cacheName, key);
+        }
+        return key;
+    }
+
+    /**
+     * Forgets all cached keys.
+     */
+    static void clearCache() {
+        KEYS.clear();
+    }
+
+    /**
+     * Returns the hash of the effective configuration.
+     *
+     * @return the key
+     */
+    String getKey() {
+        return mKey;
+    }
+
+    /**
+     * Returns if the contents of all referenced files are part of the key.
+     *
+     * @return <code>false</code> if the contents of a referenced file could not be determined
+     */
+    boolean isComplete() {
+        return mComplete;
+    }
+
+    private boolean isValid(String fingerprint, String charset, PropertyResolver resolver) {
+        boolean valid = mFingerprint.equals(fingerprint) && Objects.equals(mCharset, charset);
+        for (Map.Entry<String, String> property : mProperties.entrySet()) {
+            if (!valid) {
+                break;
+            }
+            String value = resolver != null ? resolver.resolve(property.getKey()) : null;
+            valid = Objects.equals(property.getValue(), value);
+        }
+        for (Map.Entry<String, Long> fileStamp : mFileStamps.entrySet()) {
+            if (!valid) {
+                break;
+            }
+            long stamp = getStamp(fileStamp.getKey());
+            valid = stamp != UNKNOWN_STAMP && stamp == fileStamp.getValue();
+        }
+        return valid;
+    }
+
+    private static ConfigurationKey create(CheckstyleConfigurationFile configFileData,
+        Configuration configuration, Map<String, String> resolvedProperties, String charset)
+            throws CheckstyleException {
+        MessageDigest digest = HashUtil.newDigest();
+        HashUtil.update(digest, configFileData.getFingerprint());
+        HashUtil.update(digest, String.valueOf(configFileData.getResolvedConfigFileURL()));
+        HashUtil.update(digest, charset);
+        for (Map.Entry<String, String> property : resolvedProperties.entrySet()) {
+            HashUtil.update(digest, property.getKey());
+            HashUtil.update(digest, property.getValue());
+        }
+
+        boolean complete = true;
+        Set<String> referencedFiles = new TreeSet<>();
+        collectReferencedFiles(configuration, referencedFiles);
+        Map<String, Long> fileStamps = new TreeMap<>();
+        for (String location : referencedFiles) {
+            // take the stamp first, so a concurrent change invalidates the key
+            fileStamps.put(location, getStamp(location));
+            HashUtil.update(digest, location);
+            complete &= updateDigest(digest, location);
+        }
+        return new ConfigurationKey(HashUtil.toHex(digest), complete,
+            configFileData.getFingerprint(), charset,
+            Collections.unmodifiableMap(new TreeMap<>(resolvedProperties)),
+            Collections.unmodifiableMap(fileStamps));
+    }
+
+    private static void collectReferencedFiles(Configuration configuration, Set<String> files)
+            throws CheckstyleException {
+        for (String name : configuration.getPropertyNames()) {
+            if (FILE_PROPERTIES.contains(name)) {
+                files.add(configuration.getProperty(name));
+            }
+        }
+        for (Configuration child : configuration.getChildren()) {
+            collectReferencedFiles(child, files);
+        }
+    }
+
+    /**
+     * Adds the contents of a file referenced by the configuration to a digest. The file is looked
+     * up like Checkstyle does: as file, as URL and as class path resource. A file which does not
+     * exist is recorded as missing, since modules may treat their file as optional.
+     *
+     * @param digest
+     *            the digest
+     * @param location
+     *            the location of the file
+     * @return <code>false</code> if the contents cannot be determined without network access
+     */
+    private static boolean updateDigest(MessageDigest digest, String location) {
+        boolean determined = true;
+        URL url = resolveReferencedFile(location);
+        if (url == null) {
+            HashUtil.update(digest, null);
+        }
+        else if (LOCAL_PROTOCOLS.contains(url.getProtocol())) {
+            try (InputStream in = url.openStream()) {
+                digest.update(in.readAllBytes());
+            }
+            catch (FileNotFoundException ex) {
+                HashUtil.update(digest, null);
+            }
+            catch (IOException ex) {
+                determined = false;
+            }
+        }
+        else {
+            determined = false;
+        }
+        return determined;
+    }
+
+    /**
+     * Returns a stamp which changes when a referenced file changes. Missing files and resources
+     * of the installed plugins have a constant stamp, a file appearing at their location changes
+     * it.
+     *
+     * @param location
+     *            the location of the file
+     * @return the stamp, {@link #UNKNOWN_STAMP} if changes of the file cannot be detected
+     */
+    private static long getStamp(String location) {
+        long stamp = UNKNOWN_STAMP;
+        URL url = resolveReferencedFile(location);
+        if (url == null) {
+            stamp = 0;
+        }
+        else if ("file".equals(url.getProtocol())) { //$NON-NLS-1$
+            try {
+                File file = new File(url.toURI());
+                stamp = file.lastModified() * 31 + file.length();
+            }
+            catch (URISyntaxException | IllegalArgumentException ex) {
+                // not a plain file, its changes cannot be detected
+            }
+        }
+        else if (LOCAL_PROTOCOLS.contains(url.getProtocol())) {
+            stamp = 0;
+        }
+        return stamp;
+    }
+
+    private static URL resolveReferencedFile(String location) {
+        URL url = null;
+        try {
+            File file = new File(location);
+            if (file.exists()) {
+                url = file.toURI().toURL();
+            }
+            else {
+                url = new URI(location).toURL();
+            }
+        }
+        catch (URISyntaxException | MalformedURLException | IllegalArgumentException ex) {
+            // not a URL, look for a class path resource
+            url = CheckstylePlugin.getDefault().getAddonExtensionClassLoader()
+                .getResource(StringUtils.removeStart(location, "/")); //$NON-NLS-1$
+        }
+        return url;
+    }
+
+    /**
+     * Property resolver recording the properties resolved while loading a configuration.
+     */
+    private static final class RecordingPropertyResolver implements PropertyResolver {
+
+        /** The resolver doing the actual work, may be <code>null</code>. */
+        private final PropertyResolver mDelegate;
+
+        /** The resolved properties, sorted by name. */
+        private final Map<String, String> mResolvedProperties = new TreeMap<>();
+
+        /**
+         * Creates the recording resolver.
+         *
+         * @param delegate
+         *            the resolver doing the actual work, may be <code>null</code>
+         */
+        RecordingPropertyResolver(PropertyResolver delegate) {
+            mDelegate = delegate;
+        }
+
+        @Override
+        public String resolve(String name) {
+            String value = mDelegate != null ? mDelegate.resolve(name) : null;
+            mResolvedProperties.put(name, value);
+            return value;
+        }
+
+        /**
+         * Returns the properties resolved so far.
+         *
+         * @return the property names and values, sorted by name
+         */
+        Map<String, String> getResolvedProperties() {
+            return mResolvedProperties;
+        }
+    }
+}
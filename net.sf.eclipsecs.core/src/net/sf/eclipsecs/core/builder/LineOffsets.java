@@ -0,0 +1,181 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+package net.sf.eclipsecs.core.builder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+
+/**
+ * Table of the character offsets of the lines of a text, used to turn the line of a violation
+ * into the character range of its marker. Building the table only takes a scan for line
+ * delimiters, which is much cheaper than connecting a file buffer and creating a document.
+ * Lines are separated by <code>\n</code>, <code>\r</code> or <code>\r\n</code> like in a
+ * document.
+ */
+final class LineOffsets {
+
+    /** Initial capacity of the offset arrays. */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /** The byte order mark, not counted as character when it starts the contents. */
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    /** The offset of the first character of each line. */
+    private int[] mLineStarts = new int[INITIAL_CAPACITY];
+
+    /** The offset after the last character of each line, excluding the delimiter. */
+    private int[] mLineEnds = new int[INITIAL_CAPACITY];
+
+    /** The number of lines. */
+    private int mLineCount;
+
+    private LineOffsets() {
+    }
+
+    /**
+     * Builds the line offset table of a text.
+     *
+     * @param text
+     *            the text
+     * @return the line offset table
+     */
+    static LineOffsets scan(CharSequence text) {
+        LineOffsets offsets = new LineOffsets();
+        int lineStart = 0;
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char character = text.charAt(i);
+            int next = i + 1;
+            if (character == '\r' && next < length && text.charAt(next) == '\n') {
+                next++;
+            }
+            if (character == '\r' || character == '\n') {
+                offsets.addLine(lineStart, i);
+                lineStart = next;
+            }
+            i = next;
+        }
+        offsets.addLine(lineStart, length);
+        return offsets;
+    }
+
+    /**
+     * Builds the line offset table of encoded contents. A leading byte order mark is skipped like
+     * file buffers do, so that the offsets match the document of the file.
+     *
+     * @param bytes
+     *            the encoded contents
+     * @param charset
+     *            the charset of the contents
+     * @return the line offset table
+     * @throws CharacterCodingException
+     *             if the contents cannot be decoded
+     */
+    static LineOffsets decode(byte[] bytes, Charset charset) throws CharacterCodingException {
+        CharBuffer text = charset.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE)
+            .decode(ByteBuffer.wrap(bytes));
+        if (text.hasRemaining() && text.charAt(0) == BYTE_ORDER_MARK) {
+            text.position(text.position() + 1);
+        }
+        return scan(text);
+    }
+
+    /**
+     * Builds the line offset table of a workspace file from its contents on disk, decoded with
+     * the charset of the file.
+     *
+     * @param file
+     *            the file
+     * @return the line offset table, empty if the file cannot be read
+     */
+    static Optional<LineOffsets> read(IFile file) {
+        LineOffsets offsets = null;
+        IPath location = file.getLocation();
+        if (location != null) {
+            try {
+                // read instead of mapping the file, a mapping would keep the file locked on Windows
+                byte[] bytes = Files.readAllBytes(location.toFile().toPath());
+                offsets = decode(bytes, Charset.forName(file.getCharset()));
+            }
+            catch (IOException | CoreException | IllegalArgumentException ex) {
+                // no offsets, the markers are created without character range
+                offsets = null;
+            }
+        }
+        return Optional.ofNullable(offsets);
+    }
+
+    /**
+     * Determines whether the text has a line.
+     *
+     * @param line
+     *            the zero based line number
+     * @return <code>true</code> if the line exists
+     */
+    boolean hasLine(int line) {
+        return line >= 0 && line < mLineCount;
+    }
+
+    /**
+     * Returns the offset of the first character of a line.
+     *
+     * @param line
+     *            the zero based line number
+     * @return the line offset
+     */
+    int getLineOffset(int line) {
+        return mLineStarts[line];
+    }
+
+    /**
+     * Returns the length of a line without its delimiter.
+     *
+     * @param line
+     *            the zero based line number
+     * @return the line length
+     */
+    int getLineLength(int line) {
+        return mLineEnds[line] - mLineStarts[line];
+    }
+
+    private void addLine(int start, int end) {
+        if (mLineCount == mLineStarts.length) {
+            mLineStarts = Arrays.copyOf(mLineStarts, mLineCount * 2);
+            mLineEnds = Arrays.copyOf(mLineEnds, mLineCount * 2);
+        }
+        mLineStarts[mLineCount] = start;
+        mLineEnds[mLineCount] = end;
+        mLineCount++;
+    }
+}
@@ -0,0 +1,241 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+
+package net.sf.eclipsecs.core.builder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+
+import net.sf.eclipsecs.core.util.CheckstyleLog;
+
+/**
+ * Buffers Checkstyle markers and creates them in batches. Each batch is created inside a single
+ * workspace runnable, so that listeners get one resource change notification per batch instead of
+ * one per marker.
+ *
+ * <p>
+ * For resources finished in reconciliation mode the buffered markers are compared with the
+ * existing Checkstyle markers of the resource. Only missing markers are created, changed ones are
+ * updated and stale ones are deleted, unchanged markers are left alone.
+ * </p>
+ */
+final class MarkerBatch {
+
+    /** The number of finished files after which the buffered markers are created. */
+    private final int mFlushInterval;
+
+    /** The buffered markers. */
+    private final List<PendingMarker> mPendingMarkers = new ArrayList<>();
+
+    /** The finished resources whose existing markers are to be reconciled. */
+    private final Set<IResource> mReconciledResources = new LinkedHashSet<>();
+
+    /** The number of files finished since the last flush. */
+    private int mFinishedFiles;
+
+    /**
+     * Creates a marker batch.
+     *
+     * @param flushInterval
+     *            the number of finished files after which the buffered markers are created
+     */
+    MarkerBatch(int flushInterval) {
+        mFlushInterval = Math.max(1, flushInterval);
+    }
+
+    /**
+     * Buffers a marker for creation.
+     *
+     * @param resource
+     *            the resource to create the marker on
+     * @param markerAttributes
+     *            the marker attributes, copied so the caller may reuse the map
+     */
+    void add(IResource resource, Map<String, Object> markerAttributes) {
+        mPendingMarkers.add(new PendingMarker(resource, new HashMap<>(markerAttributes)));
+    }
+
+    /**
+     * Notifies the batch that all markers of a file have been added. Creates the buffered markers
+     * once the flush interval is reached.
+     *
+     * @param resource
+     *            the finished resource
+     * @param reconcile
+     *            <code>true</code> if the existing markers of the resource are to be reconciled
+     *            with the buffered ones, <code>false</code> if they have already been deleted
+     */
+    void fileFinished(IResource resource, boolean reconcile) {
+        if (reconcile) {
+            mReconciledResources.add(resource);
+        }
+        mFinishedFiles++;
+        if (mFinishedFiles >= mFlushInterval) {
+            flush();
+        }
+    }
+
+    /**
+     * Creates all buffered markers within one workspace operation.
+     */
+    void flush() {
+        mFinishedFiles = 0;
+        if (!mPendingMarkers.isEmpty() || !mReconciledResources.isEmpty()) {
+
+            // group the markers by resource, keeping the reporting order
+            Map<IResource, List<Map<String, Object>>> markers = new LinkedHashMap<>();
+            for (IResource resource : mReconciledResources) {
+                markers.put(resource, new ArrayList<>());
+            }
+            for (PendingMarker pending : mPendingMarkers) {
+                markers.computeIfAbsent(pending.resource(), key -> new ArrayList<>())
+                    .add(pending.attributes());
+            }
+            Set<IResource> reconciled = new LinkedHashSet<>(mReconciledResources);
+            mPendingMarkers.clear();
+            mReconciledResources.clear();
+
+            IWorkspaceRunnable runnable = monitor -> {
+                for (Map.Entry<IResource, List<Map<String, Object>>> entry : markers.entrySet()) {
+                    if (reconciled.contains(entry.getKey())) {
+                        reconcileMarkers(entry.getKey(), entry.getValue());
+                    }
+                    else {
+                        createMarkers(entry.getKey(), entry.getValue());
+                    }
+                }
+            };
+            try {
+                // markers need no scheduling rule, so none is requested
+                ResourcesPlugin.getWorkspace().run(runnable, null, IWorkspace.AVOID_UPDATE, null);
+            }
+            catch (CoreException ex) {
+                CheckstyleLog.log(ex);
+            }
+        }
+    }
+
+    private static void createMarkers(IResource resource, List<Map<String, Object>> markers)
+            throws CoreException {
+        for (Map<String, Object> markerAttributes : markers) {
+            IMarker marker = resource.createMarker(CheckstyleMarker.MARKER_ID);
+            marker.setAttributes(markerAttributes);
+        }
+    }
+
+    /**
+     * Reconciles the existing Checkstyle markers of a resource with the new ones. Markers are
+     * matched by module, message key, line, start character and message. A matched marker is only
+     * updated if any other attribute, e.g. the severity or the end character, differs.
+     *
+     * @param resource
+     *            the resource
+     * @param markers
+     *            the attributes of the new markers
+     * @throws CoreException
+     *             error accessing the markers
+     */
+    static void reconcileMarkers(IResource resource, List<Map<String, Object>> markers)
+            throws CoreException {
+
+        Map<MarkerKey, Deque<IMarker>> existingMarkers = new HashMap<>();
+        for (IMarker marker : resource.findMarkers(CheckstyleMarker.MARKER_ID, false,
+            IResource.DEPTH_ZERO)) {
+            existingMarkers.computeIfAbsent(MarkerKey.of(marker.getAttributes()),
+                key -> new ArrayDeque<>()).add(marker);
+        }
+
+        for (Map<String, Object> markerAttributes : markers) {
+            Deque<IMarker> candidates = existingMarkers.get(MarkerKey.of(markerAttributes));
+            IMarker marker = candidates != null ? candidates.poll() : null;
+            if (marker == null) {
+                marker = resource.createMarker(CheckstyleMarker.MARKER_ID);
+                marker.setAttributes(markerAttributes);
+            }
+            else if (!markerAttributes.equals(marker.getAttributes())) {
+                marker.setAttributes(markerAttributes);
+            }
+        }
+
+        // whatever has not been matched is gone
+        List<IMarker> staleMarkers = new ArrayList<>();
+        existingMarkers.values().forEach(staleMarkers::addAll);
+        if (!staleMarkers.isEmpty()) {
+            resource.getWorkspace().deleteMarkers(staleMarkers.toArray(new IMarker[0]));
+        }
+    }
+
+    /**
+     * The identity of a Checkstyle violation, used to match existing markers with new ones.
+     *
+     * @param moduleName
+     *            the module name
+     * @param messageKey
+     *            the message key
+     * @param line
+     *            the line number
+     * @param charStart
+     *            the start character, which tells apart violations on different columns of a line
+     * @param message
+     *            the message
+     */
+    private record MarkerKey(Object moduleName, Object messageKey, Object line, Object charStart,
+        Object message) {
+
+        /**
+         * Creates the key of a marker.
+         *
+         * @param markerAttributes
+         *            the marker attributes
+         * @return the marker key
+         */
+        static MarkerKey of(Map<String, Object> markerAttributes) {
+            return new MarkerKey(markerAttributes.get(CheckstyleMarker.MODULE_NAME),
+                markerAttributes.get(CheckstyleMarker.MESSAGE_KEY),
+                markerAttributes.get(IMarker.LINE_NUMBER), markerAttributes.get(IMarker.CHAR_START),
+                markerAttributes.get(IMarker.MESSAGE));
+        }
+    }
+
+    /**
+     * A marker waiting for creation.
+     *
+     * @param resource
+     *            the resource to create the marker on
+     * @param attributes
+     *            the marker attributes
+     */
+    private record PendingMarker(IResource resource, Map<String, Object> attributes) {
+    }
+}
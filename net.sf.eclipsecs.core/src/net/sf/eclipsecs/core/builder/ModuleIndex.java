@@ -0,0 +1,227 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+package net.sf.eclipsecs.core.builder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.ModuleFactory;
+import com.puppycrawl.tools.checkstyle.PackageNamesLoader;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import net.sf.eclipsecs.core.CheckstylePlugin;
+import net.sf.eclipsecs.core.util.CheckstyleLog;
+import net.sf.eclipsecs.core.util.ExtensionClassLoader;
+
+/**
+ * Persistent index of the Checkstyle package names and the module classes resolved for the module
+ * names of configurations. Checkstyle's module factory resolves a short module name by trying it in
+ * every registered package, so the fully qualified class name found for a module name is recorded
+ * and used directly when the next checker is created. The index is kept in the plugin state
+ * location and is valid for one set of addon bundles and one Checkstyle version.
+ */
+final class ModuleIndex {
+
+    /** Name of the index file inside the plugin state location. */
+    private static final String INDEX_FILE = "module-index.ser"; //$NON-NLS-1$
+
+    /** Separator of the parts of composed keys. */
+    private static final String SEPARATOR = "#"; //$NON-NLS-1$
+
+    /** The index of the current addon bundles. */
+    private static volatile ModuleIndex sIndex;
+
+    /** The key the index is valid for. */
+    private final String mValidityKey;
+
+    /** The Checkstyle package names provided by the addon bundles. */
+    private final Set<String> mPackageNames;
+
+    /** The fully qualified module class names by module name. */
+    private final Map<String, String> mModules;
+
+    /** Flags if the index has changed since it has been read or stored. */
+    private volatile boolean mDirty;
+
+    private ModuleIndex(String validityKey, Set<String> packageNames, Map<String, String> modules) {
+        mValidityKey = validityKey;
+        mPackageNames = Collections.unmodifiableSet(packageNames);
+        mModules = new ConcurrentHashMap<>(modules);
+    }
+
+    /**
+     * Returns the module index for the given module classloader, reading it from the plugin state
+     * location or building it if no valid index exists.
+     *
+     * @param moduleClassLoader
+     *            the classloader the modules are loaded with
+     * @return the module index
+     * @throws CheckstyleException
+     *             the package names could not be loaded
+     */
+    static ModuleIndex get(ClassLoader moduleClassLoader) throws CheckstyleException {
+        String validityKey = getValidityKey(moduleClassLoader);
+
+        ModuleIndex index = sIndex;
+        if (index == null || !index.mValidityKey.equals(validityKey)) {
+            synchronized (ModuleIndex.class) {
+                index = sIndex;
+                if (index == null || !index.mValidityKey.equals(validityKey)) {
+                    index = read(validityKey);
+                    if (index == null) {
+                        index = new ModuleIndex(validityKey,
+                            PackageNamesLoader.getPackageNames(moduleClassLoader),
+                            Collections.emptyMap());
+                        index.mDirty = true;
+                    }
+                    sIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the Checkstyle package names provided by the addon bundles.
+     *
+     * @return the package names
+     */
+    Set<String> getPackageNames() {
+        return mPackageNames;
+    }
+
+    /**
+     * Wraps a module factory, so that module names already in the index are created from their
+     * recorded class and newly resolved module names are added to the index.
+     *
+     * @param delegate
+     *            the module factory resolving module names
+     * @return the indexing module factory
+     */
+    ModuleFactory wrap(ModuleFactory delegate) {
+        return new IndexedModuleFactory(delegate);
+    }
+
+    /**
+     * Writes the index to the plugin state location, if it has changed.
+     */
+    void store() {
+        if (mDirty) {
+            mDirty = false;
+
+            File indexFile = getIndexFile();
+            indexFile.getParentFile().mkdirs();
+            try (OutputStream out =
+                new BufferedOutputStream(Files.newOutputStream(indexFile.toPath()));
+                ObjectOutputStream objectOut = new ObjectOutputStream(out)) {
+                objectOut.writeUTF(mValidityKey);
+                objectOut.writeObject(new HashSet<>(mPackageNames));
+                objectOut.writeObject(new HashMap<>(mModules));
+            }
+            catch (IOException ex) {
+                CheckstyleLog.log(ex);
+                indexFile.delete();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ModuleIndex read(String validityKey) {
+        ModuleIndex index = null;
+        File indexFile = getIndexFile();
+        if (indexFile.exists()) {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(indexFile.toPath()));
+                ObjectInputStream objectIn = AuditResultCache.newObjectInputStream(in,
+                    HashSet.class, HashMap.class, String.class)) {
+                if (validityKey.equals(objectIn.readUTF())) {
+                    index = new ModuleIndex(validityKey, (Set<String>) objectIn.readObject(),
+                        (Map<String, String>) objectIn.readObject());
+                }
+            }
+            catch (IOException | ClassNotFoundException | ClassCastException ex) {
+                // corrupt or incompatible index, build a new one
+                index = null;
+            }
+        }
+        return index;
+    }
+
+    private static String getValidityKey(ClassLoader moduleClassLoader) {
+        String contributionKey = moduleClassLoader instanceof ExtensionClassLoader extensionLoader
+            ? extensionLoader.getContributionKey()
+            : moduleClassLoader.getClass().getName();
+        return String.join(SEPARATOR, AuditResultCache.getVersion(Checker.class), contributionKey);
+    }
+
+    private static File getIndexFile() {
+        return CheckstylePlugin.getDefault().getStateLocation().append(INDEX_FILE).toFile();
+    }
+
+    /**
+     * Module factory creating indexed module names from their recorded class.
+     */
+    private final class IndexedModuleFactory implements ModuleFactory {
+
+        /** The module factory resolving module names. */
+        private final ModuleFactory mDelegate;
+
+        IndexedModuleFactory(ModuleFactory delegate) {
+            mDelegate = delegate;
+        }
+
+        @Override
+        public Object createModule(String name) throws CheckstyleException {
+            Object module = null;
+
+            String className = mModules.get(name);
+            if (className != null) {
+                try {
+                    module = mDelegate.createModule(className);
+                }
+                catch (CheckstyleException ex) {
+                    // the recorded class is gone, resolve the module name again
+                    mModules.remove(name);
+                }
+            }
+
+            if (module == null) {
+                module = mDelegate.createModule(name);
+                if (!name.equals(module.getClass().getName())) {
+                    mModules.put(name, module.getClass().getName());
+                    mDirty = true;
+                }
+            }
+            return module;
+        }
+    }
+}
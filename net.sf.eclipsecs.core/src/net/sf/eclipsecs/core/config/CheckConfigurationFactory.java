@@ -50,6 +50,7 @@ import net.sf.eclipsecs.core.Messages;
 import net.sf.eclipsecs.core.config.configtypes.BuiltInConfigurationType;
 import net.sf.eclipsecs.core.config.configtypes.ConfigurationTypes;
 import net.sf.eclipsecs.core.config.configtypes.IConfigurationType;
+import net.sf.eclipsecs.core.projectconfig.ProjectConfigurationFactory;
 import net.sf.eclipsecs.core.util.CheckstyleLog;
 import net.sf.eclipsecs.core.util.CheckstylePluginException;
 
@@ -162,6 +163,9 @@ public final class CheckConfigurationFactory {
             loadBuiltinConfigurations();
             loadFromPersistence();
 
+            // project configurations refer to the replaced check configurations
+            ProjectConfigurationFactory.clearCache();
+
         }
         catch (CheckstylePluginException ex) {
             CheckstyleLog.log(ex);
@@ -22,10 +22,12 @@ package net.sf.eclipsecs.core.config;
 
 import java.io.ByteArrayInputStream;
 import java.net.URL;
+import java.security.MessageDigest;
 
 import org.xml.sax.InputSource;
 
 import com.puppycrawl.tools.checkstyle.PropertyResolver;
+import net.sf.eclipsecs.core.util.HashUtil;
 
 /**
  * Simple object containing all sort of data of a Checkstyle configuration. This is done to not
@@ -49,6 +51,9 @@ public class CheckstyleConfigurationFile {
     /** The property resolver. */
     private PropertyResolver mPropertyResolver;
 
+    /** The lazily computed fingerprint of the configuration contents. */
+    private String mFingerprint;
+
     /**
      * Returns an input stream containing the contents of the Checkstyle configuration file.
      *
@@ -81,6 +86,7 @@ public class CheckstyleConfigurationFile {
      */
     public void setCheckConfigFileBytes(byte[] checkConfigFileBytes) {
         mCheckConfigFileBytes = checkConfigFileBytes;
+        mFingerprint = null;
     }
 
     /**
@@ -105,6 +111,31 @@ public class CheckstyleConfigurationFile {
      */
     public void setAdditionalPropertyBundleBytes(byte[] additionalPropertyBundleBytes) {
         mAdditionalPropertyBundleBytes = additionalPropertyBundleBytes;
+        mFingerprint = null;
+    }
+
+    /**
+     * Returns a fingerprint of the configuration contents, computed as SHA-256 hash over the
+     * Checkstyle configuration file and the additional property bundle. Two configuration files
+     * with equal fingerprints have the same contents, regardless of their location or
+     * modification timestamp.
+     *
+     * @return the hex encoded fingerprint
+     */
+    public String getFingerprint() {
+        if (mFingerprint == null) {
+            MessageDigest digest = HashUtil.newDigest();
+            if (mCheckConfigFileBytes != null) {
+                digest.update(mCheckConfigFileBytes);
+            }
+            // separate the two parts, so that bytes cannot shift between them
+            digest.update((byte) 0);
+            if (mAdditionalPropertyBundleBytes != null) {
+                digest.update(mAdditionalPropertyBundleBytes);
+            }
+            mFingerprint = HashUtil.toHex(digest);
+        }
+        return mFingerprint;
     }
 
     /**
@@ -186,9 +186,7 @@ public abstract class AbstractConfigurationType implements IConfigurationType {
         Optional<byte[]> bytes = Optional.empty();
         try {
             URL propertyFileURL = URI.create(propsLocation).toURL();
-            URLConnection connection = propertyFileURL.openConnection();
-
-            bytes = Optional.of(getBytesFromURLConnection(connection));
+            bytes = Optional.of(getBytesFromURL(propertyFileURL));
         }
         catch (IOException ex) {
             // we won't load the bundle then
@@ -217,6 +215,19 @@ public abstract class AbstractConfigurationType implements IConfigurationType {
         return PropertyResolverFactory.getPropertyResolver(config, configFile);
     }
 
+    /**
+     * Reads and returns all bytes from the provided <code>URL</code>.
+     *
+     * @param url
+     *            the URL to read from
+     * @return the byte array containing the data from the URL
+     * @throws IOException
+     *             if an I/O error occurs while reading from the URL
+     */
+    protected byte[] getBytesFromURL(URL url) throws IOException {
+        return getBytesFromURLConnection(url.openConnection());
+    }
+
     /**
      * Reads and returns all bytes from the provided <code>URLConnection</code>.
      *
@@ -35,8 +35,11 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.equinox.security.storage.EncodingUtils;
@@ -47,6 +50,7 @@ import org.eclipse.osgi.util.NLS;
 
 import com.google.common.io.ByteStreams;
 import net.sf.eclipsecs.core.CheckstylePlugin;
+import net.sf.eclipsecs.core.CheckstylePluginPrefs;
 import net.sf.eclipsecs.core.Messages;
 import net.sf.eclipsecs.core.config.CheckstyleConfigurationFile;
 import net.sf.eclipsecs.core.config.ICheckConfiguration;
@@ -83,6 +87,17 @@ public class RemoteConfigurationType extends AbstractConfigurationType {
     /** URLs that have failed with HTTP 401. */
     private static Set<String> sFailedWith401URLs = new HashSet<>();
 
+    /** The downloaded contents by URL, revalidated once the revalidation interval has passed. */
+    private static Map<String, RemoteContent> sRemoteContents = new ConcurrentHashMap<>();
+
+    /**
+     * Forgets all downloaded configuration contents, so that they are downloaded again on next
+     * access.
+     */
+    public static void clearCachedContents() {
+        sRemoteContents.clear();
+    }
+
     @Override
     public CheckstyleConfigurationFile getCheckstyleConfiguration(
         ICheckConfiguration checkConfiguration) throws CheckstylePluginException {
@@ -92,34 +107,29 @@ public class RemoteConfigurationType extends AbstractConfigurationType {
 
         CheckstyleConfigurationFile data = new CheckstyleConfigurationFile();
 
-        final String currentRedirects = System.getProperty(KEY_MAX_REDIRECTS);
-
         try {
 
             // resolve the true configuration file URL
             data.setResolvedConfigFileURL(resolveLocation(checkConfiguration));
 
             boolean originalFileSuccess = false;
+            boolean downloaded = false;
             byte[] configurationFileData = null;
 
             try {
-                System.setProperty(KEY_MAX_REDIRECTS, "3");
-
-                final URLConnection connection = data.getResolvedConfigFileURL().openConnection();
-
-                final RemoteConfigAuthenticator auth =
-                    RemoteConfigAuthenticator.create(data.getResolvedConfigFileURL());
-                if (auth != null) {
-                    connection.setRequestProperty("Authorization", auth.basicAuthHeaderValue);
-                }
+                final String location = data.getResolvedConfigFileURL().toString();
+                final RemoteContent previous = sRemoteContents.get(location);
+                final RemoteContent content = download(data.getResolvedConfigFileURL(),
+                    RemoteConfigAuthenticator.create(data.getResolvedConfigFileURL()));
 
                 // get the configuration file data
-                configurationFileData = getBytesFromURLConnection(connection);
+                configurationFileData = content.bytes();
 
                 // get last modification timestamp
-                data.setModificationStamp(connection.getLastModified());
+                data.setModificationStamp(content.lastModified());
 
                 originalFileSuccess = true;
+                downloaded = previous == null || previous.bytes() != content.bytes();
             }
             catch (IOException exception) {
                 if (useCacheFile) {
@@ -139,8 +149,8 @@ public class RemoteConfigurationType extends AbstractConfigurationType {
             // get the property resolver
             data.setPropertyResolver(getPropertyResolver(checkConfiguration, data));
 
-            // write to cache file
-            if (originalFileSuccess && useCacheFile) {
+            // write to cache file, unless the content is known to be unchanged
+            if (downloaded && useCacheFile) {
                 writeToCacheFile(checkConfiguration, configurationFileData,
                     additionalPropertiesBytes.orElse(null));
             }
@@ -157,14 +167,6 @@ public class RemoteConfigurationType extends AbstractConfigurationType {
         catch (IOException | URISyntaxException exception) {
             CheckstylePluginException.rethrow(exception);
         }
-        finally {
-            if (currentRedirects != null) {
-                System.setProperty(KEY_MAX_REDIRECTS, currentRedirects);
-            }
-            else {
-                System.getProperties().remove(KEY_MAX_REDIRECTS);
-            }
-        }
 
         return data;
     }
@@ -302,6 +304,90 @@ public class RemoteConfigurationType extends AbstractConfigurationType {
         }
     }
 
+    @Override
+    protected byte[] getBytesFromURL(URL url) throws IOException {
+        return download(url, null).bytes();
+    }
+
+    /**
+     * Returns the content of a remote URL. Content downloaded before is used as is within the
+     * revalidation interval. Afterwards it is revalidated with a conditional request, so that
+     * unchanged content is not transferred again.
+     *
+     * @param url
+     *            the URL
+     * @param auth
+     *            the authentication to use, may be <code>null</code>
+     * @return the content
+     * @throws IOException
+     *             error downloading the content, {@link FileNotFoundException} if the content does
+     *             not exist
+     */
+    private RemoteContent download(URL url, RemoteConfigAuthenticator auth) throws IOException {
+        final String location = url.toString();
+        final long now = System.currentTimeMillis();
+        final long revalidationInterval = TimeUnit.SECONDS.toMillis(CheckstylePluginPrefs
+            .getInt(CheckstylePluginPrefs.PREF_REMOTE_CONFIG_REVALIDATION_INTERVAL));
+
+        RemoteContent content = sRemoteContents.get(location);
+        if (content == null || now - content.validatedAt() >= revalidationInterval) {
+            content = fetch(url, auth, content, now);
+            sRemoteContents.put(location, content);
+        }
+
+        // missing content is remembered as well, the properties bundle usually does not exist
+        if (content.bytes() == null) {
+            throw new FileNotFoundException(location);
+        }
+        return content;
+    }
+
+    private RemoteContent fetch(URL url, RemoteConfigAuthenticator auth, RemoteContent previous,
+        long now) throws IOException {
+
+        final String currentRedirects = System.getProperty(KEY_MAX_REDIRECTS);
+        RemoteContent content = null;
+        try {
+            System.setProperty(KEY_MAX_REDIRECTS, "3");
+
+            final URLConnection connection = url.openConnection();
+            if (auth != null) {
+                connection.setRequestProperty("Authorization", auth.basicAuthHeaderValue);
+            }
+
+            final boolean revalidate = previous != null && previous.bytes() != null;
+            if (revalidate) {
+                if (previous.etag() != null) {
+                    connection.setRequestProperty("If-None-Match", previous.etag());
+                }
+                connection.setIfModifiedSince(previous.lastModified());
+            }
+
+            final byte[] bytes = getBytesFromURLConnection(connection);
+            if (revalidate && connection instanceof HttpURLConnection httpConn
+                && httpConn.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                content = new RemoteContent(previous.bytes(), previous.etag(),
+                    previous.lastModified(), now);
+            }
+            else {
+                content = new RemoteContent(bytes, connection.getHeaderField("ETag"),
+                    connection.getLastModified(), now);
+            }
+        }
+        catch (FileNotFoundException ex) {
+            content = new RemoteContent(null, null, 0, now);
+        }
+        finally {
+            if (currentRedirects != null) {
+                System.setProperty(KEY_MAX_REDIRECTS, currentRedirects);
+            }
+            else {
+                System.getProperties().remove(KEY_MAX_REDIRECTS);
+            }
+        }
+        return content;
+    }
+
     @Override
     protected byte[] getBytesFromURLConnection(URLConnection connection) throws IOException {
         // set timeouts - bug 2941010
@@ -339,6 +425,21 @@ public class RemoteConfigurationType extends AbstractConfigurationType {
         }
     }
 
+    /**
+     * Content downloaded from a remote URL.
+     *
+     * @param bytes
+     *            the content, <code>null</code> if it does not exist
+     * @param etag
+     *            the entity tag sent by the server, may be <code>null</code>
+     * @param lastModified
+     *            the last modification timestamp sent by the server, <code>0</code> if unknown
+     * @param validatedAt
+     *            the time the content was last downloaded or revalidated
+     */
+    private record RemoteContent(byte[] bytes, String etag, long lastModified, long validatedAt) {
+    }
+
     /**
      * Support for http authentication.
      *
@@ -118,10 +118,9 @@ public class CheckstyleMetadataAdapter {
     private RuleMetadata createRuleMetadata(RuleGroupMetadata group, ModuleDetails moduleDetails) {
         final String[] packageTokens = moduleDetails.getParent().split(DOT_PATTERN);
         List<String> alternativeNames = List.of(moduleDetails.getFullQualifiedName());
-        List<ConfigPropertyMetadata> properties = moduleDetails.getProperties().stream()
-            .map(
-                modulePropertyDetails -> createPropertyConfig(moduleDetails, modulePropertyDetails))
-            .toList();
+        // the property metadata loads enum and token classes, so it is only built on first use
+        List<ConfigPropertyMetadata> properties =
+            new LazyList<>(() -> createPropertyMetadata(moduleDetails));
         RuleMetadata ruleMeta = new RuleMetadata(
             new RuleIdentity(moduleDetails.getName(), moduleDetails.getName(),
                 packageTokens[packageTokens.length - 1], group, moduleDetails.getDescription(),
@@ -131,6 +130,19 @@ public class CheckstyleMetadataAdapter {
         return ruleMeta;
     }
 
+    /**
+     * Creates the property metadata of a module.
+     *
+     * @param moduleDetails
+     *            module details fetched from checkstyle metadata
+     * @return the property metadata of the module
+     */
+    List<ConfigPropertyMetadata> createPropertyMetadata(ModuleDetails moduleDetails) {
+        return moduleDetails.getProperties().stream().map(
+            modulePropertyDetails -> createPropertyConfig(moduleDetails, modulePropertyDetails))
+            .toList();
+    }
+
     /**
      * Create module property config data based on current/default data, which are overridden
      * partially with all the metadata fetched from checkstyle.
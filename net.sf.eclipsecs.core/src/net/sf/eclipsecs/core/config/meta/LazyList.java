@@ -0,0 +1,85 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+package net.sf.eclipsecs.core.config.meta;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Unmodifiable list whose elements are only loaded on first access. Used for the property
+ * metadata of rules, which is expensive to build and only needed for the few rules actually
+ * configured or reporting violations.
+ *
+ * @param <E>
+ *            the element type
+ */
+final class LazyList<E> extends AbstractList<E> {
+
+    /** Loads the elements, <code>null</code> once they have been loaded. */
+    private Supplier<List<E>> mLoader;
+
+    /** The loaded elements. */
+    private volatile List<E> mElements;
+
+    /**
+     * Creates the lazy list.
+     *
+     * @param loader
+     *            loads the elements on first access
+     */
+    LazyList(Supplier<List<E>> loader) {
+        mLoader = loader;
+    }
+
+    @Override
+    public E get(int index) {
+        return getElements().get(index);
+    }
+
+    @Override
+    public int size() {
+        return getElements().size();
+    }
+
+    /**
+     * Returns if the elements have been loaded.
+     *
+     * @return <code>true</code> if the elements are available without loading them
+     */
+    boolean isLoaded() {
+        return mElements != null;
+    }
+
+    private List<E> getElements() {
+        List<E> elements = mElements;
+        if (elements == null) {
+            synchronized (this) {
+                elements = mElements;
+                if (elements == null) {
+                    elements = List.copyOf(mLoader.get());
+                    mElements = elements;
+                    mLoader = null;
+                }
+            }
+        }
+        return elements;
+    }
+}
@@ -37,11 +37,13 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.MissingResourceException;
+import java.util.Optional;
 import java.util.PropertyResourceBundle;
 import java.util.ResourceBundle;
 import java.util.ResourceBundle.Control;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.StringUtils;
 import org.dom4j.DocumentException;
@@ -74,10 +76,19 @@ public final class MetadataFactory {
     /** Name of the rules metadata XML file. */
     private static final String METADATA_FILENAME = "checkstyle-metadata.xml"; //$NON-NLS-1$
 
+    /**
+     * Cache of the standard messages, including the modules and keys without a standard message.
+     */
+    private static final Map<StandardMessageKey, Optional<String>> STANDARD_MESSAGES =
+        new ConcurrentHashMap<>();
+
     /** Metadata for the rule groups. */
     private static Map<String, RuleGroupMetadata> sRuleGroupMetadata;
 
-    /** Metadata for all rules, keyed by internal rule name. */
+    /**
+     * Metadata for all rules, keyed by internal rule name. Concurrent, as generic metadata is
+     * registered by the workers of a parallel audit.
+     */
     private static Map<String, RuleMetadata> sRuleMetadata;
 
     /**
@@ -100,6 +111,9 @@ public final class MetadataFactory {
      */
     private static Map<String, Map<String, String>> sThirdPartyRuleGroupMap;
 
+    /** The locale the cached standard messages have been resolved for. */
+    private static volatile Locale sStandardMessageLocale;
+
     /**
      * Private constructor to prevent instantiation.
      */
@@ -292,8 +306,18 @@ public final class MetadataFactory {
      */
     public static String getStandardMessage(String messageKey, String moduleInternalName) {
 
-        RuleMetadata rule = getRuleMetadata(moduleInternalName);
-        return getStandardMessage(messageKey, rule);
+        Locale locale = CheckstylePlugin.getPlatformLocale();
+        if (!locale.equals(sStandardMessageLocale)) {
+            // the locale preference has changed, the cached messages are of no use anymore
+            STANDARD_MESSAGES.clear();
+            sStandardMessageLocale = locale;
+        }
+
+        return STANDARD_MESSAGES.computeIfAbsent(
+            new StandardMessageKey(moduleInternalName, messageKey, locale),
+            key -> Optional.ofNullable(
+                getStandardMessage(messageKey, getRuleMetadata(moduleInternalName))))
+            .orElse(null);
     }
 
     /**
@@ -339,16 +363,28 @@ public final class MetadataFactory {
      * Refreshes the metadata.
      */
     private static synchronized void refresh() {
-        sRuleGroupMetadata = new TreeMap<>();
-        sRuleMetadata = new HashMap<>();
-        sAlternativeNamesMap = new HashMap<>();
         sModuleDetailsRepo = new HashMap<>();
         sThirdPartyRuleGroupMap = new HashMap<>();
         sPackageNameSet = new HashSet<>();
-        try {
-            doInitialization();
-        } catch (CheckstylePluginException ex) {
-            CheckstyleLog.log(ex);
+
+        String snapshotKey = MetadataSnapshot.getKey();
+        Optional<MetadataSnapshot.Contents> snapshot = MetadataSnapshot.read(snapshotKey);
+        if (snapshot.isPresent()) {
+            sRuleGroupMetadata = snapshot.get().ruleGroups();
+            sRuleMetadata = new ConcurrentHashMap<>(snapshot.get().rules());
+            sAlternativeNamesMap = snapshot.get().alternativeNames();
+        } else {
+            sRuleGroupMetadata = new TreeMap<>();
+            sRuleMetadata = new ConcurrentHashMap<>();
+            sAlternativeNamesMap = new HashMap<>();
+            try {
+                doInitialization();
+                MetadataSnapshot.storeInBackground(snapshotKey,
+                    new MetadataSnapshot.Contents(new TreeMap<>(sRuleGroupMetadata),
+                        new HashMap<>(sRuleMetadata), new HashMap<>(sAlternativeNamesMap)));
+            } catch (CheckstylePluginException ex) {
+                CheckstyleLog.log(ex);
+            }
         }
     }
 
@@ -477,6 +513,20 @@ public final class MetadataFactory {
         }
     }
 
+    /**
+     * Key of a cached standard message.
+     *
+     * @param moduleInternalName
+     *            the module name
+     * @param messageKey
+     *            the message key
+     * @param locale
+     *            the locale the message has been resolved for
+     */
+    private record StandardMessageKey(String moduleInternalName, String messageKey,
+        Locale locale) {
+    }
+
     /**
      * Custom ResourceBundle.Control implementation which allows explicitly read the properties
      * files as UTF-8.
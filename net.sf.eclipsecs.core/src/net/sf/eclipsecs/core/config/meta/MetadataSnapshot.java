@@ -0,0 +1,521 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+package net.sf.eclipsecs.core.config.meta;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.meta.ModuleDetails;
+import com.puppycrawl.tools.checkstyle.meta.XmlMetaReader;
+import net.sf.eclipsecs.core.CheckstylePlugin;
+import net.sf.eclipsecs.core.config.Severity;
+import net.sf.eclipsecs.core.util.CheckstyleLog;
+import net.sf.eclipsecs.core.util.ExtensionClassLoader;
+
+/**
+ * Binary snapshot of the rule group and rule metadata, kept in the plugin state location. Reading
+ * the snapshot avoids scanning the addon bundles and parsing all metadata files when the plugin
+ * is activated. The property metadata of a rule is only decoded when it is first accessed. A
+ * snapshot is valid for one set of addon bundles, one Checkstyle version and one locale, and is
+ * written again in the background whenever the metadata had to be loaded from scratch.
+ *
+ * <p>
+ * Property metadata which was not loaded yet when the snapshot was written is not part of it, so
+ * writing the snapshot does not load the classes of all modules. It is built from the Checkstyle
+ * metadata of the module on first access instead.
+ * </p>
+ */
+final class MetadataSnapshot {
+
+    /** Name of the snapshot file inside the plugin state location. */
+    private static final String SNAPSHOT_FILE = "metadata.snapshot"; //$NON-NLS-1$
+
+    /** Version of the snapshot format, to be increased on every format change. */
+    private static final int FORMAT_VERSION = 3;
+
+    /** Separator of the parts of composed keys. */
+    private static final String SEPARATOR = "#"; //$NON-NLS-1$
+
+    /** Length marker of a <code>null</code> string or of properties missing from the snapshot. */
+    private static final int NULL_LENGTH = -1;
+
+    /** Package of the Checkstyle modules. */
+    private static final String CHECKSTYLE_PACKAGE =
+        "com.puppycrawl.tools.checkstyle"; //$NON-NLS-1$
+
+    /**
+     * The Checkstyle metadata of the modules by class name, keyed by the third party package
+     * read with the Checkstyle modules. Only read for properties missing from the snapshot.
+     */
+    private static final Map<String, Map<String, ModuleDetails>> MODULE_DETAILS =
+        new ConcurrentHashMap<>();
+
+    private MetadataSnapshot() {
+    }
+
+    /**
+     * Returns the key the metadata of the current addon bundles, Checkstyle version and locale is
+     * valid for.
+     *
+     * @return the snapshot key
+     */
+    static String getKey() {
+        ClassLoader classLoader = CheckstylePlugin.getDefault().getAddonExtensionClassLoader();
+        String contributionKey = classLoader instanceof ExtensionClassLoader extensionLoader
+            ? extensionLoader.getContributionKey()
+            : classLoader.getClass().getName();
+        Bundle checkstyleBundle = FrameworkUtil.getBundle(Checker.class);
+        String checkstyleVersion = checkstyleBundle != null
+            ? checkstyleBundle.getVersion().toString()
+            : "unknown"; //$NON-NLS-1$
+        return String.join(SEPARATOR, Integer.toString(FORMAT_VERSION), checkstyleVersion,
+            contributionKey, CheckstylePlugin.getPlatformLocale().toString());
+    }
+
+    /**
+     * Reads the snapshot, if there is one valid for the given key.
+     *
+     * @param key
+     *            the snapshot key
+     * @return the metadata of the snapshot, empty if there is no valid snapshot
+     */
+    static Optional<Contents> read(String key) {
+        return read(getSnapshotFile().toPath(), key);
+    }
+
+    /**
+     * Reads a snapshot file, if it is valid for the given key.
+     *
+     * @param snapshotFile
+     *            the snapshot file
+     * @param key
+     *            the snapshot key
+     * @return the metadata of the snapshot, empty if the snapshot is missing or not valid
+     */
+    static Optional<Contents> read(Path snapshotFile, String key) {
+        Contents contents = null;
+        if (Files.exists(snapshotFile)) {
+            try {
+                // the file is read rather than mapped, a mapping would stay alive as long as the
+                // metadata and keep the file from being replaced
+                SnapshotReader reader =
+                    new SnapshotReader(ByteBuffer.wrap(Files.readAllBytes(snapshotFile)));
+                if (key.equals(reader.readString())) {
+                    contents = reader.readContents();
+                }
+            }
+            catch (IOException | BufferUnderflowException | NegativeArraySizeException
+                | IllegalArgumentException | IndexOutOfBoundsException ex) {
+                // corrupt snapshot, the metadata gets loaded from scratch
+                contents = null;
+            }
+        }
+        return Optional.ofNullable(contents);
+    }
+
+    /**
+     * Writes a snapshot of the given metadata in the background.
+     *
+     * @param key
+     *            the snapshot key
+     * @param contents
+     *            the metadata
+     */
+    static void storeInBackground(String key, Contents contents) {
+        Job job = Job.create("Store Checkstyle metadata snapshot", monitor -> { //$NON-NLS-1$
+            store(getSnapshotFile().toPath(), key, contents);
+            return Status.OK_STATUS;
+        });
+        job.setSystem(true);
+        job.setPriority(Job.DECORATE);
+        job.schedule();
+    }
+
+    /**
+     * Writes a snapshot file of the given metadata, replacing any previous snapshot.
+     *
+     * @param snapshotFile
+     *            the snapshot file
+     * @param key
+     *            the snapshot key
+     * @param contents
+     *            the metadata
+     */
+    static void store(Path snapshotFile, String key, Contents contents) {
+        Path tempFile = null;
+        try {
+            // write a temporary file and move it into place, so that a snapshot being read is
+            // never seen half written
+            Files.createDirectories(snapshotFile.getParent());
+            tempFile = Files.createTempFile(snapshotFile.getParent(), SNAPSHOT_FILE,
+                ".tmp"); //$NON-NLS-1$
+            try (DataOutputStream out =
+                new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                writeString(out, key);
+                writeContents(out, contents);
+            }
+            move(tempFile, snapshotFile);
+        }
+        catch (IOException ex) {
+            CheckstyleLog.log(ex);
+            deleteQuietly(tempFile);
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException ex) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            }
+            catch (IOException ex) {
+                // the temporary file is left behind, the next snapshot is written to a new one
+            }
+        }
+    }
+
+    private static void writeContents(DataOutputStream out, Contents contents)
+            throws IOException {
+
+        // rules and groups are written once and referenced by their index, since the same
+        // objects are reachable from several maps
+        Map<RuleGroupMetadata, Integer> groups = new IdentityHashMap<>();
+        Map<RuleMetadata, Integer> rules = new IdentityHashMap<>();
+        List<RuleMetadata> ruleList = new ArrayList<>();
+        for (RuleGroupMetadata group : contents.ruleGroups().values()) {
+            groups.putIfAbsent(group, groups.size());
+            collectRules(group.getRuleMetadata(), rules, ruleList);
+        }
+        collectRules(contents.rules().values(), rules, ruleList);
+        collectRules(contents.alternativeNames().values(), rules, ruleList);
+        for (RuleMetadata rule : ruleList) {
+            groups.putIfAbsent(rule.identity().group(), groups.size());
+        }
+
+        List<RuleGroupMetadata> groupList = new ArrayList<>(groups.keySet());
+        groupList.sort((group1, group2) -> groups.get(group1) - groups.get(group2));
+        out.writeInt(groupList.size());
+        for (RuleGroupMetadata group : groupList) {
+            writeString(out, group.getGroupId());
+            writeString(out, group.getGroupName());
+            writeString(out, group.getDescription());
+            out.writeBoolean(group.isHidden());
+            out.writeInt(group.getPriority());
+        }
+
+        out.writeInt(ruleList.size());
+        for (RuleMetadata rule : ruleList) {
+            writeRule(out, rule, groups);
+        }
+
+        for (RuleGroupMetadata group : groupList) {
+            out.writeInt(group.getRuleMetadata().size());
+            for (RuleMetadata rule : group.getRuleMetadata()) {
+                out.writeInt(rules.get(rule));
+            }
+        }
+        writeRuleMap(out, contents.ruleGroups().keySet(), contents.ruleGroups(), groups);
+        writeRuleMap(out, contents.rules().keySet(), contents.rules(), rules);
+        writeRuleMap(out, contents.alternativeNames().keySet(), contents.alternativeNames(),
+            rules);
+    }
+
+    private static void collectRules(Collection<RuleMetadata> source,
+        Map<RuleMetadata, Integer> rules, List<RuleMetadata> ruleList) {
+        for (RuleMetadata rule : source) {
+            if (!rules.containsKey(rule)) {
+                rules.put(rule, ruleList.size());
+                ruleList.add(rule);
+            }
+        }
+    }
+
+    private static <T> void writeRuleMap(DataOutputStream out, Collection<String> names,
+        Map<String, T> map, Map<T, Integer> indexes) throws IOException {
+        out.writeInt(names.size());
+        for (String name : names) {
+            writeString(out, name);
+            out.writeInt(indexes.get(map.get(name)));
+        }
+    }
+
+    private static void writeRule(DataOutputStream out, RuleMetadata rule,
+        Map<RuleGroupMetadata, Integer> groups) throws IOException {
+        RuleIdentity identity = rule.identity();
+        writeString(out, identity.ruleName());
+        writeString(out, identity.internalName());
+        writeString(out, identity.parent());
+        out.writeInt(groups.get(identity.group()));
+        writeString(out, identity.description());
+        writeStrings(out, identity.alternativeNames());
+
+        writeString(out, rule.defaultSeverity().name());
+        out.writeBoolean(rule.hidden());
+        out.writeBoolean(rule.hasSeverity());
+        out.writeBoolean(rule.deletable());
+        out.writeBoolean(rule.isSingleton());
+        writeStrings(out, rule.messageKeys());
+
+        // properties which have not been loaded yet are left out, instead of loading them now
+        List<ConfigPropertyMetadata> properties = rule.configPropMetadata();
+        if (properties instanceof LazyList<?> lazyProperties && !lazyProperties.isLoaded()) {
+            out.writeInt(NULL_LENGTH);
+        }
+        else {
+            // the properties are prefixed with their length, so that reading them can be deferred
+            ByteArrayOutputStream propertyBytes = new ByteArrayOutputStream();
+            DataOutputStream propertyOut = new DataOutputStream(propertyBytes);
+            propertyOut.writeInt(properties.size());
+            for (ConfigPropertyMetadata property : properties) {
+                writeString(propertyOut, property.getDatatype().name());
+                writeString(propertyOut, property.getName());
+                writeString(propertyOut, property.getDefaultValue());
+                writeString(propertyOut, property.getOverrideDefault());
+                writeString(propertyOut, property.getDescription());
+                writeStrings(propertyOut, property.getPropertyEnumeration());
+            }
+            propertyOut.flush();
+            out.writeInt(propertyBytes.size());
+            propertyBytes.writeTo(out);
+        }
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> strings)
+            throws IOException {
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            writeString(out, string);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        if (string == null) {
+            out.writeInt(NULL_LENGTH);
+        }
+        else {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Builds the property metadata of a rule which was not part of the snapshot from the
+     * Checkstyle metadata of its module. The module is looked up by the names of the rule.
+     *
+     * @param identity
+     *            the identity of the rule
+     * @return the property metadata, empty if there is no Checkstyle metadata for the rule
+     */
+    private static List<ConfigPropertyMetadata> loadModuleProperties(RuleIdentity identity) {
+        List<String> names = new ArrayList<>(identity.alternativeNames());
+        names.add(identity.internalName());
+        ModuleDetails moduleDetails = null;
+        for (String name : names) {
+            int packageEnd = name.lastIndexOf('.');
+            if (moduleDetails == null && packageEnd > 0) {
+                String packageName = name.substring(0, packageEnd);
+                String thirdPartyPackage =
+                    packageName.startsWith(CHECKSTYLE_PACKAGE) ? "" : packageName; //$NON-NLS-1$
+                moduleDetails = MODULE_DETAILS
+                    .computeIfAbsent(thirdPartyPackage, MetadataSnapshot::readModuleDetails)
+                    .get(name);
+            }
+        }
+        return moduleDetails != null
+            ? new CheckstyleMetadataAdapter().createPropertyMetadata(moduleDetails)
+            : List.of();
+    }
+
+    private static Map<String, ModuleDetails> readModuleDetails(String thirdPartyPackage) {
+        String[] packages = thirdPartyPackage.isEmpty()
+            ? new String[0]
+            : new String[] {thirdPartyPackage};
+        Map<String, ModuleDetails> moduleDetails = new HashMap<>();
+        for (ModuleDetails module : XmlMetaReader
+            .readAllModulesIncludingThirdPartyIfAny(packages)) {
+            moduleDetails.put(module.getFullQualifiedName(), module);
+        }
+        return moduleDetails;
+    }
+
+    private static File getSnapshotFile() {
+        return CheckstylePlugin.getDefault().getStateLocation().append(SNAPSHOT_FILE).toFile();
+    }
+
+    /**
+     * The metadata kept in a snapshot.
+     *
+     * @param ruleGroups
+     *            the rule groups by group name
+     * @param rules
+     *            the rules by internal name
+     * @param alternativeNames
+     *            the rules by alternative name
+     */
+    record Contents(Map<String, RuleGroupMetadata> ruleGroups, Map<String, RuleMetadata> rules,
+        Map<String, RuleMetadata> alternativeNames) {
+    }
+
+    /**
+     * Reads the metadata from the contents of the snapshot file.
+     */
+    private static final class SnapshotReader {
+
+        /** The snapshot file contents. */
+        private final ByteBuffer mBuffer;
+
+        SnapshotReader(ByteBuffer buffer) {
+            mBuffer = buffer;
+        }
+
+        Contents readContents() {
+            List<RuleGroupMetadata> groups = new ArrayList<>();
+            int groupCount = mBuffer.getInt();
+            for (int i = 0; i < groupCount; i++) {
+                groups.add(new RuleGroupMetadata(readString(), readString(), readString(),
+                    readBoolean(), mBuffer.getInt()));
+            }
+
+            List<RuleMetadata> rules = new ArrayList<>();
+            int ruleCount = mBuffer.getInt();
+            for (int i = 0; i < ruleCount; i++) {
+                rules.add(readRule(groups));
+            }
+
+            for (RuleGroupMetadata group : groups) {
+                int groupRuleCount = mBuffer.getInt();
+                for (int i = 0; i < groupRuleCount; i++) {
+                    group.getRuleMetadata().add(rules.get(mBuffer.getInt()));
+                }
+            }
+            return new Contents(readMap(new TreeMap<>(), groups), readMap(new HashMap<>(), rules),
+                readMap(new HashMap<>(), rules));
+        }
+
+        private RuleMetadata readRule(List<RuleGroupMetadata> groups) {
+            RuleIdentity identity = new RuleIdentity(readString(), readString(), readString(),
+                groups.get(mBuffer.getInt()), readString(), readStrings());
+            Severity severity = Severity.valueOf(readString());
+            boolean hidden = readBoolean();
+            boolean hasSeverity = readBoolean();
+            boolean deletable = readBoolean();
+            boolean singleton = readBoolean();
+            List<String> messageKeys = readStrings();
+
+            // the properties are only decoded on first access, their bytes are copied so that
+            // the contents of the whole file are not kept
+            int propertyLength = mBuffer.getInt();
+            List<ConfigPropertyMetadata> properties;
+            if (propertyLength == NULL_LENGTH) {
+                properties = new LazyList<>(() -> loadModuleProperties(identity));
+            }
+            else {
+                byte[] propertyBytes = new byte[propertyLength];
+                mBuffer.get(propertyBytes);
+                properties = new LazyList<>(
+                    () -> new SnapshotReader(ByteBuffer.wrap(propertyBytes)).readProperties());
+            }
+
+            return new RuleMetadata(identity, severity, hidden, hasSeverity, deletable,
+                singleton, messageKeys, properties);
+        }
+
+        private List<ConfigPropertyMetadata> readProperties() {
+            List<ConfigPropertyMetadata> properties = new ArrayList<>();
+            int propertyCount = mBuffer.getInt();
+            for (int i = 0; i < propertyCount; i++) {
+                ConfigPropertyMetadata property = new ConfigPropertyMetadata(
+                    ConfigPropertyType.valueOf(readString()), readString(), readString(),
+                    readString());
+                property.setDescription(readString());
+                property.getPropertyEnumeration().addAll(readStrings());
+                properties.add(property);
+            }
+            return properties;
+        }
+
+        private <T> Map<String, T> readMap(Map<String, T> map, List<T> values) {
+            int size = mBuffer.getInt();
+            for (int i = 0; i < size; i++) {
+                map.put(readString(), values.get(mBuffer.getInt()));
+            }
+            return map;
+        }
+
+        private List<String> readStrings() {
+            int size = mBuffer.getInt();
+            List<String> strings = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                strings.add(readString());
+            }
+            return strings;
+        }
+
+        private boolean readBoolean() {
+            return mBuffer.get() != 0;
+        }
+
+        private String readString() {
+            String string = null;
+            int length = mBuffer.getInt();
+            if (length != NULL_LENGTH) {
+                byte[] bytes = new byte[length];
+                mBuffer.get(bytes);
+                string = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return string;
+        }
+    }
+}
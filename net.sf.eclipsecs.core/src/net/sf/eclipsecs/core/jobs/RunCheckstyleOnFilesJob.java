@@ -23,7 +23,6 @@ package net.sf.eclipsecs.core.jobs;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -41,7 +40,7 @@ import net.sf.eclipsecs.core.Messages;
 import net.sf.eclipsecs.core.builder.CheckstyleBuilder;
 import net.sf.eclipsecs.core.projectconfig.IProjectConfiguration;
 import net.sf.eclipsecs.core.projectconfig.ProjectConfigurationFactory;
-import net.sf.eclipsecs.core.projectconfig.filters.IFilter;
+import net.sf.eclipsecs.core.projectconfig.filters.FilterChain;
 import net.sf.eclipsecs.core.util.CheckstylePluginException;
 
 /**
@@ -91,12 +90,10 @@ public class RunCheckstyleOnFilesJob extends AbstractCheckJob {
             for (Map.Entry<IProject, List<IFile>> entry : projectFilesMap.entrySet()) {
 
                 IProject project = entry.getKey();
-                List<IFile> files = entry.getValue();
-
                 IProjectConfiguration checkConfig =
                     ProjectConfigurationFactory.getConfiguration(project);
 
-                filter(files, checkConfig);
+                List<IFile> files = FilterChain.filter(checkConfig.getFilters(), entry.getValue());
 
                 CheckstyleBuilder builder = new CheckstyleBuilder();
                 builder.handleBuildSelection(files, checkConfig, monitor, project,
@@ -132,21 +129,4 @@ public class RunCheckstyleOnFilesJob extends AbstractCheckJob {
 
         return projectFilesMap;
     }
-
-    private static void filter(final List<IFile> files, final IProjectConfiguration projectConfig) {
-
-        List<IFilter> filters = projectConfig.getFilters();
-        for (IFilter filter : filters) {
-
-            Iterator<IFile> filesIt = files.iterator();
-            while (filesIt.hasNext()) {
-
-                IFile file = filesIt.next();
-
-                if (filter.isEnabled() && !filter.accept(file)) {
-                    filesIt.remove();
-                }
-            }
-        }
-    }
 }
@@ -118,6 +118,7 @@ public class CheckstyleNature implements IProjectNature {
 
         // remove checkstyle markers from the project
         getProject().deleteMarkers(CheckstyleMarker.MARKER_ID, true, IResource.DEPTH_INFINITE);
+        CheckstyleBuilder.checkstyleRemoved(getProject());
 
     }
 
@@ -46,6 +46,9 @@ public class FileSet implements Cloneable {
     /** The file match patterns. */
     private List<FileMatchPattern> fileMatchPatterns = new LinkedList<>();
 
+    /** The file match patterns compiled for matching, recompiled once the patterns change. */
+    private volatile FileSetMatcher matcher;
+
     /**
      * Default constructor.
      */
@@ -152,22 +155,12 @@ public class FileSet implements Cloneable {
      *         is not included in the file set.
      */
     public boolean includesFile(IFile file) {
-        boolean result = false;
-        String filePath = file.getProjectRelativePath().toString();
-
-        for (FileMatchPattern pattern : fileMatchPatterns) {
-            boolean matches = pattern.isMatch(filePath);
-            if (matches) {
-                if (pattern.isIncludePattern()) {
-                    result = true;
-                }
-                else {
-                    result = false;
-                }
-            }
+        FileSetMatcher currentMatcher = matcher;
+        if (currentMatcher == null || !currentMatcher.isCompiledFrom(fileMatchPatterns)) {
+            currentMatcher = new FileSetMatcher(fileMatchPatterns);
+            matcher = currentMatcher;
         }
-
-        return result;
+        return currentMatcher.includes(file.getProjectRelativePath().toString());
     }
 
     @Override
@@ -0,0 +1,200 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+
+package net.sf.eclipsecs.core.projectconfig;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * The file match patterns of a file set, compiled for fast repeated matching. The patterns are
+ * evaluated from last to first, since the last matching pattern decides whether a file is
+ * included, and evaluation stops at the first match. Patterns which are plain literals, optionally
+ * anchored at the start or end, are matched with string operations instead of a regular
+ * expression. Results are memoized per project relative path.
+ */
+final class FileSetMatcher {
+
+    /** The number of memoized paths after which the memo is started anew. */
+    private static final int MAX_MEMO_SIZE = 20000;
+
+    /** The characters with a special meaning in regular expressions. */
+    private static final String META_CHARACTERS = "[](){}.*+?^$|"; //$NON-NLS-1$
+
+    /** Copy of the patterns this matcher has been compiled from. */
+    private final List<FileMatchPattern> mPatterns;
+
+    /** The compiled patterns, last pattern first. */
+    private final List<Predicate<String>> mMatchers;
+
+    /** Flags for the compiled patterns if they are include patterns, last pattern first. */
+    private final boolean[] mIncludes;
+
+    /** The memoized results by project relative path. */
+    private final Map<String, Boolean> mResults = new ConcurrentHashMap<>();
+
+    /**
+     * Compiles the given file match patterns.
+     *
+     * @param patterns
+     *            the file match patterns, in the order of their definition
+     */
+    FileSetMatcher(List<FileMatchPattern> patterns) {
+        mPatterns = patterns.stream().map(FileMatchPattern::clone).toList();
+        mMatchers = mPatterns.reversed().stream().map(FileSetMatcher::compile).toList();
+        mIncludes = new boolean[mPatterns.size()];
+        for (int i = 0; i < mIncludes.length; i++) {
+            mIncludes[i] = mPatterns.get(mPatterns.size() - 1 - i).isIncludePattern();
+        }
+    }
+
+    /**
+     * Checks if the matcher has been compiled from patterns equal to the given ones.
+     *
+     * @param patterns
+     *            the current patterns of the file set
+     * @return <code>true</code> if the matcher is still valid for the patterns
+     */
+    boolean isCompiledFrom(List<FileMatchPattern> patterns) {
+        return mPatterns.equals(patterns);
+    }
+
+    /**
+     * Checks if a path is included by the patterns.
+     *
+     * @param path
+     *            the project relative path
+     * @return <code>true</code> if the last matching pattern is an include pattern,
+     *         <code>false</code> if it is an exclude pattern or no pattern matches
+     */
+    boolean includes(String path) {
+        Boolean result = mResults.get(path);
+        if (result == null) {
+            result = Boolean.FALSE;
+            for (int i = 0; i < mIncludes.length; i++) {
+                if (mMatchers.get(i).test(path)) {
+                    result = Boolean.valueOf(mIncludes[i]);
+                    break;
+                }
+            }
+
+            if (mResults.size() >= MAX_MEMO_SIZE) {
+                mResults.clear();
+            }
+            mResults.put(path, result);
+        }
+        return result.booleanValue();
+    }
+
+    /**
+     * Compiles a single pattern. Patterns made of literal characters, optionally with a leading
+     * <code>^</code> or <code>.*</code> and a trailing <code>$</code> or <code>.*</code>, become
+     * string comparisons. All others are matched with their regular expression.
+     *
+     * @param pattern
+     *            the file match pattern
+     * @return the predicate testing a path against the pattern
+     */
+    private static Predicate<String> compile(FileMatchPattern pattern) {
+        String body = pattern.getMatchPattern();
+
+        boolean anchoredStart = body.startsWith("^"); //$NON-NLS-1$
+        if (anchoredStart) {
+            body = body.substring(1);
+        }
+        while (body.startsWith(".*")) { //$NON-NLS-1$
+            body = body.substring(2);
+            anchoredStart = false;
+        }
+
+        boolean anchoredEnd = body.endsWith("$"); //$NON-NLS-1$
+        if (anchoredEnd) {
+            body = body.substring(0, body.length() - 1);
+        }
+        while (body.endsWith(".*")) { //$NON-NLS-1$
+            body = body.substring(0, body.length() - 2);
+            anchoredEnd = false;
+        }
+
+        Optional<String> literal = unescapeLiteral(body);
+        Predicate<String> matcher;
+        if (literal.isEmpty()) {
+            Pattern regex = Pattern.compile(pattern.getMatchPattern());
+            matcher = path -> regex.matcher(path).find();
+        }
+        else if (anchoredStart && anchoredEnd) {
+            matcher = literal.get()::equals;
+        }
+        else if (anchoredStart) {
+            String prefix = literal.get();
+            matcher = path -> path.startsWith(prefix);
+        }
+        else if (anchoredEnd) {
+            String suffix = literal.get();
+            matcher = path -> path.endsWith(suffix);
+        }
+        else {
+            String part = literal.get();
+            matcher = path -> path.contains(part);
+        }
+        return matcher;
+    }
+
+    /**
+     * Converts a regular expression into the literal string it matches, if it consists of literal
+     * characters and escaped non alphanumeric characters only.
+     *
+     * @param regex
+     *            the regular expression
+     * @return the literal, empty if the expression is no plain literal
+     */
+    private static Optional<String> unescapeLiteral(String regex) {
+        StringBuilder literal = new StringBuilder(regex.length());
+        boolean isLiteral = true;
+        boolean escaped = false;
+        for (int i = 0; isLiteral && i < regex.length(); i++) {
+            char character = regex.charAt(i);
+            if (escaped) {
+                // escaped letters and digits are character classes, back references and the like
+                isLiteral = !Character.isLetterOrDigit(character);
+                escaped = false;
+                literal.append(character);
+            }
+            else if (character == '\\') {
+                escaped = true;
+            }
+            else {
+                isLiteral = META_CHARACTERS.indexOf(character) < 0;
+                literal.append(character);
+            }
+        }
+        isLiteral &= !escaped;
+
+        Optional<String> result = Optional.empty();
+        if (isLiteral) {
+            result = Optional.of(literal.toString());
+        }
+        return result;
+    }
+}
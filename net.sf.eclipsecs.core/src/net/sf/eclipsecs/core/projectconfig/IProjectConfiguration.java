@@ -57,7 +57,10 @@ public interface IProjectConfiguration {
     List<FileSet> getFileSets();
 
     /**
-     * Gets the filters of this file set.
+     * Gets the filters of this file set. The configurations handed out by the
+     * {@link ProjectConfigurationFactory} are cached and used by concurrent builds, so their
+     * filters must not be modified. Changes are made on a {@link ProjectConfigurationWorkingCopy},
+     * which works on copies of the filters.
      *
      * @return the filters
      */
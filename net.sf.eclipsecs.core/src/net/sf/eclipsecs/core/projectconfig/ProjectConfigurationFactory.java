@@ -27,6 +27,9 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.dom4j.Document;
 import org.dom4j.DocumentException;
@@ -34,10 +37,14 @@ import org.dom4j.Element;
 import org.dom4j.io.SAXReader;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.Path;
 import org.eclipse.osgi.util.NLS;
 
 import net.sf.eclipsecs.core.Messages;
@@ -66,6 +73,22 @@ public final class ProjectConfigurationFactory {
     private static final List<String> SUPPORTED_VERSIONS = Arrays.asList("1.0.0", //$NON-NLS-1$
         "1.1.0", CURRENT_FILE_FORMAT_VERSION);
 
+    /** The project configuration files the cached configurations depend on. */
+    private static final List<String> OBSERVED_FILES = Arrays.asList(PROJECT_CONFIGURATION_FILE);
+
+    /** The cached project configurations. */
+    private static final Map<IProject, IProjectConfiguration> CONFIGURATIONS =
+        new ConcurrentHashMap<>();
+
+    /** Incremented on each invalidation, to discard configurations loaded concurrently. */
+    private static final AtomicLong CACHE_GENERATION = new AtomicLong();
+
+    /** Flags if the listener invalidating the cache has been registered. */
+    private static final AtomicBoolean LISTENER_REGISTERED = new AtomicBoolean();
+
+    /** The listener invalidating the cache when a project configuration file changes. */
+    private static final IResourceChangeListener LISTENER = new ConfigurationFileListener();
+
     private ProjectConfigurationFactory() {
     }
 
@@ -114,7 +137,50 @@ public final class ProjectConfigurationFactory {
      */
     public static IProjectConfiguration getConfiguration(IProject project)
             throws CheckstylePluginException {
-        return loadFromPersistence(project);
+        IProjectConfiguration configuration = CONFIGURATIONS.get(project);
+        if (configuration == null) {
+            registerListener();
+
+            long generation = CACHE_GENERATION.get();
+            configuration = loadFromPersistence(project);
+
+            // don't cache a configuration which may have been invalidated while loading
+            if (generation == CACHE_GENERATION.get()) {
+                CONFIGURATIONS.putIfAbsent(project, configuration);
+            }
+        }
+        return configuration;
+    }
+
+    /**
+     * Discards all cached project configurations, e.g. because the global check configurations
+     * they refer to have changed.
+     */
+    public static void clearCache() {
+        CACHE_GENERATION.incrementAndGet();
+        CONFIGURATIONS.clear();
+    }
+
+    /**
+     * Removes the listener invalidating the cache and discards all cached project configurations.
+     * Called when the plugin is stopped.
+     */
+    public static void dispose() {
+        if (LISTENER_REGISTERED.compareAndSet(true, false)) {
+            ResourcesPlugin.getWorkspace().removeResourceChangeListener(LISTENER);
+        }
+        clearCache();
+    }
+
+    /**
+     * Discards the cached configuration of a project.
+     *
+     * @param project
+     *            the project
+     */
+    static void invalidate(IProject project) {
+        CACHE_GENERATION.incrementAndGet();
+        CONFIGURATIONS.remove(project);
     }
 
     /**
@@ -157,6 +223,18 @@ public final class ProjectConfigurationFactory {
         return result;
     }
 
+    /**
+     * Registers the listener invalidating the cache with the workspace, once the first
+     * configuration gets cached.
+     */
+    private static void registerListener() {
+        if (LISTENER_REGISTERED.compareAndSet(false, true)) {
+            ResourcesPlugin.getWorkspace().addResourceChangeListener(LISTENER,
+                IResourceChangeEvent.POST_CHANGE | IResourceChangeEvent.PRE_CLOSE
+                    | IResourceChangeEvent.PRE_DELETE);
+        }
+    }
+
     /**
      * Load the audit configurations from the persistent state storage.
      *
@@ -346,4 +424,34 @@ public final class ProjectConfigurationFactory {
 
         return filters;
     }
+
+    /**
+     * Invalidates cached project configurations when the files they are read from change, or when
+     * their project is closed or deleted.
+     */
+    private static final class ConfigurationFileListener implements IResourceChangeListener {
+
+        @Override
+        public void resourceChanged(IResourceChangeEvent event) {
+            if (event.getType() == IResourceChangeEvent.POST_CHANGE) {
+                for (IResourceDelta projectDelta : event.getDelta().getAffectedChildren()) {
+                    if (isConfigurationAffected(projectDelta)) {
+                        invalidate((IProject) projectDelta.getResource());
+                    }
+                }
+            }
+            else if (event.getResource() instanceof IProject project) {
+                invalidate(project);
+            }
+        }
+
+        private static boolean isConfigurationAffected(IResourceDelta projectDelta) {
+            boolean affected = projectDelta.getKind() != IResourceDelta.CHANGED
+                || (projectDelta.getFlags() & IResourceDelta.OPEN) != 0;
+            for (String fileName : OBSERVED_FILES) {
+                affected |= projectDelta.findMember(new Path(fileName)) != null;
+            }
+            return affected;
+        }
+    }
 }
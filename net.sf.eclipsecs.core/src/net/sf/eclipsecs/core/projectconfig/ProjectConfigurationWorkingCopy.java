@@ -372,6 +372,9 @@ public class ProjectConfigurationWorkingCopy implements Cloneable, IProjectConfi
             }
 
             config.getLocalCheckConfigWorkingSet().store();
+
+            // don't wait for the resource change notification to drop the cached configuration
+            ProjectConfigurationFactory.invalidate(project);
         }
         catch (Exception ex) {
             CheckstylePluginException.rethrow(ex,
@@ -20,17 +20,21 @@
 
 package net.sf.eclipsecs.core.projectconfig.filters;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
+import org.eclipse.core.resources.IContainer;
+
 import com.google.common.base.MoreObjects;
 
 /**
  * Base implementation of a filter.
  *
  */
-public abstract class AbstractFilter implements IFilter {
+public abstract class AbstractFilter implements IBatchFilter {
 
     /** name of the filter. */
     private String mFilterName;
@@ -101,6 +105,42 @@ public abstract class AbstractFilter implements IFilter {
         return mReadonly;
     }
 
+    /**
+     * Determines which of the given elements pass this filter by checking them one by one.
+     * Subclasses may override this to evaluate all elements at once.
+     *
+     * @param <T>
+     *            the element type
+     * @param elements
+     *            the elements to check
+     * @return the elements passing the filter, in their original order
+     */
+    @Override
+    public <T> List<T> acceptAll(Collection<T> elements) {
+        List<T> accepted = new ArrayList<>();
+        for (T element : elements) {
+            if (accept(element)) {
+                accepted.add(element);
+            }
+        }
+        return accepted;
+    }
+
+    @Override
+    public boolean excludesSubtree(IContainer container) {
+        return false;
+    }
+
+    @Override
+    public boolean canExcludeSubtrees() {
+        return false;
+    }
+
+    @Override
+    public int getCost() {
+        return COST_RESOURCE;
+    }
+
     @Override
     public List<String> getFilterData() {
         // NOOP
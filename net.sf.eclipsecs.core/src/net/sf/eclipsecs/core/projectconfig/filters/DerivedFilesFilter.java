@@ -20,6 +20,7 @@
 
 package net.sf.eclipsecs.core.projectconfig.filters;
 
+import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IResource;
 
 /**
@@ -38,4 +39,15 @@ public class DerivedFilesFilter extends AbstractFilter {
         }
         return goesThrough;
     }
+
+    @Override
+    public boolean excludesSubtree(IContainer container) {
+        // everything below a derived container is derived as well
+        return container.isDerived(IResource.CHECK_ANCESTORS);
+    }
+
+    @Override
+    public boolean canExcludeSubtrees() {
+        return true;
+    }
 }
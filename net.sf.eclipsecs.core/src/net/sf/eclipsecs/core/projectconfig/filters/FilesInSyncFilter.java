@@ -20,6 +20,12 @@
 
 package net.sf.eclipsecs.core.projectconfig.filters;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
@@ -34,6 +40,10 @@ import net.sf.eclipsecs.core.util.CheckstyleLog;
 /**
  * Filters all files that are in sync with the source repository.
  *
+ * <p>
+ * Refreshing the sync state of a single file usually means a call to the repository, so
+ * {@link #acceptAll(Collection)} refreshes the sync state of all files with one call per project.
+ * </p>
  */
 public class FilesInSyncFilter extends AbstractFilter {
 
@@ -41,18 +51,80 @@ public class FilesInSyncFilter extends AbstractFilter {
     public boolean accept(Object element) {
         boolean accept = true;
         if (element instanceof IFile file) {
-            IProject project = file.getProject();
-            if (RepositoryProvider.isShared(project)) {
-                RepositoryProvider provider = RepositoryProvider.getProvider(project);
-                if (provider != null) {
-                    Subscriber subscriber = provider.getSubscriber();
-                    if (subscriber != null) {
-                        accept = hasChanges(file, subscriber);
+            Subscriber subscriber = getSubscriber(file.getProject());
+            if (subscriber != null) {
+                accept = hasChanges(file, subscriber);
+            }
+        }
+        return accept;
+    }
+
+    @Override
+    public <T> List<T> acceptAll(Collection<T> elements) {
+        Map<IResource, Boolean> changes = getChanges(elements);
+
+        // files without sync state are not shared and pass the filter
+        List<T> accepted = new ArrayList<>();
+        for (T element : elements) {
+            if (!Boolean.FALSE.equals(changes.get(element))) {
+                accepted.add(element);
+            }
+        }
+        return accepted;
+    }
+
+    @Override
+    public int getCost() {
+        return COST_EXTERNAL;
+    }
+
+    /**
+     * Refreshes the sync state of the files among the given elements with one call per project
+     * and determines which of them have outgoing changes.
+     *
+     * @param elements
+     *            the elements about to be filtered
+     * @return the outgoing change state of the files in shared projects
+     */
+    private static Map<IResource, Boolean> getChanges(Collection<?> elements) {
+        Map<IProject, List<IResource>> filesByProject = new HashMap<>();
+        for (Object element : elements) {
+            if (element instanceof IFile file) {
+                filesByProject.computeIfAbsent(file.getProject(), key -> new ArrayList<>())
+                    .add(file);
+            }
+        }
+
+        Map<IResource, Boolean> changes = new HashMap<>();
+        for (Map.Entry<IProject, List<IResource>> entry : filesByProject.entrySet()) {
+            Subscriber subscriber = getSubscriber(entry.getKey());
+            if (subscriber != null) {
+                for (IResource file : entry.getValue()) {
+                    changes.put(file, Boolean.FALSE);
+                }
+                try {
+                    subscriber.refresh(entry.getValue().toArray(new IResource[0]),
+                        IResource.DEPTH_ZERO, new NullProgressMonitor());
+                    for (IResource file : entry.getValue()) {
+                        changes.put(file, isOutgoing(subscriber.getSyncInfo(file)));
                     }
+                } catch (TeamException ex) {
+                    CheckstyleLog.log(ex);
                 }
             }
         }
-        return accept;
+        return changes;
+    }
+
+    private static Subscriber getSubscriber(IProject project) {
+        Subscriber subscriber = null;
+        if (RepositoryProvider.isShared(project)) {
+            RepositoryProvider provider = RepositoryProvider.getProvider(project);
+            if (provider != null) {
+                subscriber = provider.getSubscriber();
+            }
+        }
+        return subscriber;
     }
 
     private boolean hasChanges(IFile file, Subscriber subscriber) {
@@ -61,16 +133,20 @@ public class FilesInSyncFilter extends AbstractFilter {
             subscriber.refresh(new IResource[] {
                 file,
             }, IResource.DEPTH_ZERO, new NullProgressMonitor());
-            SyncInfo synchInfo = subscriber.getSyncInfo(file);
-
-            if (synchInfo != null) {
-                int kind = synchInfo.getKind();
-                int flags = SyncInfo.getDirection(kind) & SyncInfo.OUTGOING;
-                hasChanges = flags == SyncInfo.OUTGOING;
-            }
+            hasChanges = isOutgoing(subscriber.getSyncInfo(file));
         } catch (TeamException ex) {
             CheckstyleLog.log(ex);
         }
         return hasChanges;
     }
+
+    private static boolean isOutgoing(SyncInfo synchInfo) {
+        boolean outgoing = false;
+        if (synchInfo != null) {
+            int kind = synchInfo.getKind();
+            int flags = SyncInfo.getDirection(kind) & SyncInfo.OUTGOING;
+            outgoing = flags == SyncInfo.OUTGOING;
+        }
+        return outgoing;
+    }
 }
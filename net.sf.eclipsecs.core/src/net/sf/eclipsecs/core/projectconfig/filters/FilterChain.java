@@ -0,0 +1,133 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+package net.sf.eclipsecs.core.projectconfig.filters;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.core.resources.IContainer;
+
+/**
+ * Applies a list of filters to a set of elements, evaluating each filter once for all elements
+ * that passed the filters before it. Enabled filters are ordered by their cost, filters not
+ * implementing {@link IBatchFilter} are adapted and evaluated element by element.
+ *
+ */
+public final class FilterChain {
+
+    private FilterChain() {
+    }
+
+    /**
+     * Determines which of the given elements pass all enabled filters.
+     *
+     * @param <T>
+     *            the element type
+     * @param filters
+     *            the filters, disabled filters are skipped
+     * @param elements
+     *            the elements to check
+     * @return the elements passing all filters, in their original order
+     */
+    public static <T> List<T> filter(Collection<? extends IFilter> filters,
+        Collection<T> elements) {
+
+        List<IBatchFilter> batchFilters = new ArrayList<>();
+        for (IFilter filter : filters) {
+            if (filter.isEnabled()) {
+                batchFilters.add(filter instanceof IBatchFilter batchFilter ? batchFilter
+                    : new FilterAdapter(filter));
+            }
+        }
+        batchFilters.sort(Comparator.comparingInt(IBatchFilter::getCost));
+
+        List<T> accepted = new ArrayList<>(elements);
+        for (IBatchFilter filter : batchFilters) {
+            if (accepted.isEmpty()) {
+                break;
+            }
+            accepted = filter.acceptAll(accepted);
+        }
+        return accepted;
+    }
+
+    /**
+     * Determines whether any of the enabled filters can reject whole subtrees. If none can,
+     * containers need not be tested with {@link #excludesSubtree(Collection, IContainer)}.
+     *
+     * @param filters
+     *            the filters, disabled filters are skipped
+     * @return <code>true</code> if a filter can exclude subtrees
+     */
+    public static boolean canExcludeSubtrees(Collection<? extends IFilter> filters) {
+        boolean canExclude = false;
+        for (IFilter filter : filters) {
+            if (filter.isEnabled() && filter instanceof IBatchFilter batchFilter
+                && batchFilter.canExcludeSubtrees()) {
+                canExclude = true;
+                break;
+            }
+        }
+        return canExclude;
+    }
+
+    /**
+     * Determines whether any of the enabled filters rejects a container together with every
+     * resource below it.
+     *
+     * @param filters
+     *            the filters, disabled filters are skipped
+     * @param container
+     *            the container
+     * @return <code>true</code> if no resource within the container can pass the filters
+     */
+    public static boolean excludesSubtree(Collection<? extends IFilter> filters,
+        IContainer container) {
+        boolean excluded = false;
+        for (IFilter filter : filters) {
+            if (filter.isEnabled() && filter instanceof IBatchFilter batchFilter
+                && batchFilter.excludesSubtree(container)) {
+                excluded = true;
+                break;
+            }
+        }
+        return excluded;
+    }
+
+    /**
+     * Adapts a plain filter to the batch interface.
+     */
+    private static final class FilterAdapter extends AbstractFilter {
+
+        /** The adapted filter. */
+        private final IFilter mFilter;
+
+        FilterAdapter(IFilter filter) {
+            mFilter = filter;
+        }
+
+        @Override
+        public boolean accept(Object element) {
+            return mFilter.accept(element);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+package net.sf.eclipsecs.core.projectconfig.filters;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.eclipse.core.resources.IContainer;
+
+/**
+ * Filter which evaluates a whole set of elements at once, so that setup work like reading the
+ * classpath or querying a repository is done once per set instead of once per element.
+ *
+ */
+public interface IBatchFilter extends IFilter {
+
+    /** Cost of filters deciding from in-memory data only. */
+    int COST_CHEAP = 0;
+
+    /** Cost of filters reading resource information of the workspace. */
+    int COST_RESOURCE = 10;
+
+    /** Cost of filters reading project information like the Java classpath. */
+    int COST_PROJECT = 20;
+
+    /** Cost of filters querying external systems like a source repository. */
+    int COST_EXTERNAL = 30;
+
+    /**
+     * Determines which of the given elements pass this filter.
+     *
+     * @param <T>
+     *            the element type
+     * @param elements
+     *            the elements to check
+     * @return the elements passing the filter, in their original order
+     */
+    <T> List<T> acceptAll(Collection<T> elements);
+
+    /**
+     * Determines whether this filter rejects a container together with every resource below it,
+     * so that the container does not need to be traversed at all.
+     *
+     * @param container
+     *            the container
+     * @return <code>true</code> if no resource within the container can pass the filter
+     */
+    boolean excludesSubtree(IContainer container);
+
+    /**
+     * Determines whether this filter rejects whole subtrees at all, i.e. whether
+     * {@link #excludesSubtree(IContainer)} can return <code>true</code>. Containers only need to be
+     * tested if any filter can exclude subtrees.
+     *
+     * @return <code>true</code> if the filter can exclude subtrees
+     */
+    boolean canExcludeSubtrees();
+
+    /**
+     * Returns the relative cost of evaluating this filter. Cheaper filters are evaluated first, so
+     * that the expensive ones only see the elements that passed all others.
+     *
+     * @return the cost, one of the <code>COST_*</code> constants
+     */
+    int getCost();
+}
@@ -20,18 +20,8 @@
 
 package net.sf.eclipsecs.core.projectconfig.filters;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IResource;
-import org.eclipse.core.runtime.CoreException;
-import org.eclipse.core.runtime.IPath;
-import org.eclipse.jdt.core.IClasspathEntry;
-import org.eclipse.jdt.core.IJavaProject;
-import org.eclipse.jdt.core.JavaCore;
-
-import net.sf.eclipsecs.core.util.CheckstyleLog;
 
 /**
  * Implementation of a filter that filters all ressources that are not within a source directory.
@@ -39,61 +29,29 @@ import net.sf.eclipsecs.core.util.CheckstyleLog;
  */
 public class NonSrcDirsFilter extends AbstractFilter {
 
-    /** the current project. */
-    private IProject mCurrentProject;
-
-    /** the list of source paths of the current project. */
-    private List<IPath> mCurrentSourcePaths;
-
     @Override
     public boolean accept(Object element) {
-
         boolean goesThrough = false;
-
-        if (element instanceof IResource) {
-            IResource resource = (IResource) element;
-
-            IProject project = resource.getProject();
-            if (mCurrentProject != project) {
-                mCurrentSourcePaths = getSourceDirPaths(project);
-                mCurrentProject = project;
-            }
-
-            for (IPath sourcePath : mCurrentSourcePaths) {
-                if (sourcePath.isPrefixOf(resource.getFullPath())) {
-                    goesThrough = true;
-                    break;
-                }
-            }
+        if (element instanceof IResource resource) {
+            goesThrough = SourceFolderIndex.INSTANCE.isInSourceFolder(resource.getProject(),
+                resource.getFullPath());
         }
         return goesThrough;
     }
 
-    /**
-     * Gets all source paths of a project.
-     *
-     * @param project
-     *            the project
-     * @return the list of source paths
-     */
-    private List<IPath> getSourceDirPaths(IProject project) {
-
-        List<IPath> sourceDirs = new ArrayList<>();
+    @Override
+    public boolean excludesSubtree(IContainer container) {
+        return !SourceFolderIndex.INSTANCE.mayContainSourceFolder(container.getProject(),
+            container.getFullPath());
+    }
 
-        try {
-            if (project.hasNature(JavaCore.NATURE_ID)) {
-                IJavaProject javaProject = JavaCore.create(project);
-                IClasspathEntry[] entry = javaProject.getResolvedClasspath(true);
-                for (int i = 0; i < entry.length; i++) {
-                    if (entry[i].getEntryKind() == IClasspathEntry.CPE_SOURCE) {
-                        sourceDirs.add(entry[i].getPath());
-                    }
-                }
-            }
-        } catch (CoreException ex) {
-            CheckstyleLog.log(ex);
-        }
+    @Override
+    public boolean canExcludeSubtrees() {
+        return true;
+    }
 
-        return sourceDirs;
+    @Override
+    public int getCost() {
+        return COST_PROJECT;
     }
 }
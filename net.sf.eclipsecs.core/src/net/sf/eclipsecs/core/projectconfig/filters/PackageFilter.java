@@ -21,6 +21,7 @@
 package net.sf.eclipsecs.core.projectconfig.filters;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -79,17 +80,38 @@ public class PackageFilter extends AbstractFilter {
     }
 
     @Override
-    public void setFilterData(List<String> filterData) {
-        mData = filterData;
+    public boolean excludesSubtree(IContainer container) {
+        // with sub packages excluded, a rejected folder rejects everything below it
+        return mExcludeSubPackages && !accept(container);
+    }
 
-        if (mData.contains(RECURSE_OFF_MARKER)) {
-            mExcludeSubPackages = false;
-        }
+    @Override
+    public boolean canExcludeSubtrees() {
+        return mExcludeSubPackages;
+    }
+
+    @Override
+    public int getCost() {
+        return COST_CHEAP;
+    }
+
+    @Override
+    public void setFilterData(List<String> filterData) {
+        // copy the data, the filter may be shared by concurrent builds once it is configured
+        mData = new ArrayList<>(filterData);
+        mExcludeSubPackages = !mData.contains(RECURSE_OFF_MARKER);
     }
 
     @Override
     public List<String> getFilterData() {
-        return mData;
+        return Collections.unmodifiableList(mData);
+    }
+
+    @Override
+    public PackageFilter clone() {
+        PackageFilter clone = (PackageFilter) super.clone();
+        clone.mData = new ArrayList<>(mData);
+        return clone;
     }
 
     @Override
@@ -0,0 +1,195 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+package net.sf.eclipsecs.core.projectconfig.filters;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+
+import net.sf.eclipsecs.core.util.CheckstyleLog;
+
+/**
+ * Workspace wide index of the source folders of all Java projects, kept as a tree of path
+ * segments. Deciding whether a path lies within a source folder walks the segments of the path
+ * and takes time proportional to the path depth. The source folders of a project are read from
+ * the Java model on first use and dropped when the classpath of the project changes.
+ */
+public final class SourceFolderIndex {
+
+    /** The shared index. */
+    static final SourceFolderIndex INSTANCE = new SourceFolderIndex();
+
+    /** Delta flags of Java projects which change the source folders. */
+    private static final int CLASSPATH_FLAGS = IJavaElementDelta.F_CLASSPATH_CHANGED
+        | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED | IJavaElementDelta.F_OPENED
+        | IJavaElementDelta.F_CLOSED;
+
+    /** The source folder tree of each project, keyed by project name. */
+    private final Map<String, Node> mProjects = new ConcurrentHashMap<>();
+
+    /** Flags if the classpath change listener has been registered. */
+    private final AtomicBoolean mListenerRegistered = new AtomicBoolean();
+
+    /** The listener dropping the source folders of projects whose classpath changed. */
+    private final IElementChangedListener mListener = this::elementChanged;
+
+    private SourceFolderIndex() {
+    }
+
+    /**
+     * Determines whether a workspace path lies within a source folder of its project.
+     *
+     * @param project
+     *            the project containing the path
+     * @param fullPath
+     *            the workspace relative path
+     * @return <code>true</code> if the path is a source folder or lies within one
+     */
+    boolean isInSourceFolder(IProject project, IPath fullPath) {
+        Node node = walk(project, fullPath);
+        return node != null && node.mSourceFolder;
+    }
+
+    /**
+     * Determines whether a workspace path lies within a source folder of its project or contains
+     * one.
+     *
+     * @param project
+     *            the project containing the path
+     * @param fullPath
+     *            the workspace relative path
+     * @return <code>false</code> if neither the path nor any path below it is in a source folder
+     */
+    boolean mayContainSourceFolder(IProject project, IPath fullPath) {
+        // nodes only exist on the way to source folders
+        return walk(project, fullPath) != null;
+    }
+
+    /**
+     * Removes the classpath change listener and forgets the indexed source folders. Called when
+     * the plugin is stopped.
+     */
+    public static void dispose() {
+        if (INSTANCE.mListenerRegistered.compareAndSet(true, false)) {
+            JavaCore.removeElementChangedListener(INSTANCE.mListener);
+        }
+        INSTANCE.mProjects.clear();
+    }
+
+    /**
+     * Walks the segments of a path down the source folder tree of its project, stopping at the
+     * first source folder.
+     *
+     * @param project
+     *            the project containing the path
+     * @param fullPath
+     *            the workspace relative path
+     * @return the source folder node containing the path, the node of the path if it lies on the
+     *         way to a source folder, or <code>null</code> if the path leaves the tree
+     */
+    private Node walk(IProject project, IPath fullPath) {
+        Node node = getProjectNode(project);
+
+        // segment 0 is the project itself
+        for (int i = 1, count = fullPath.segmentCount(); i < count && node != null
+            && !node.mSourceFolder; i++) {
+            node = node.mChildren.get(fullPath.segment(i));
+        }
+        return node;
+    }
+
+    private Node getProjectNode(IProject project) {
+        if (mListenerRegistered.compareAndSet(false, true)) {
+            JavaCore.addElementChangedListener(mListener, ElementChangedEvent.POST_CHANGE);
+        }
+
+        Node node = mProjects.get(project.getName());
+        if (node == null) {
+            node = mProjects.computeIfAbsent(project.getName(), key -> readSourceFolders(project));
+        }
+        return node;
+    }
+
+    private static Node readSourceFolders(IProject project) {
+        Node projectNode = new Node();
+        try {
+            if (project.hasNature(JavaCore.NATURE_ID)) {
+                IJavaProject javaProject = JavaCore.create(project);
+                for (IClasspathEntry entry : javaProject.getResolvedClasspath(true)) {
+                    if (entry.getEntryKind() == IClasspathEntry.CPE_SOURCE) {
+                        projectNode.add(entry.getPath());
+                    }
+                }
+            }
+        } catch (CoreException ex) {
+            CheckstyleLog.log(ex);
+        }
+        return projectNode;
+    }
+
+    private void elementChanged(ElementChangedEvent event) {
+        for (IJavaElementDelta delta : event.getDelta().getAffectedChildren()) {
+            IJavaElement element = delta.getElement();
+            if (element.getElementType() == IJavaElement.JAVA_PROJECT
+                && (delta.getKind() != IJavaElementDelta.CHANGED
+                    || (delta.getFlags() & CLASSPATH_FLAGS) != 0)) {
+                mProjects.remove(element.getElementName());
+            }
+        }
+    }
+
+    /**
+     * A path segment of the source folder tree.
+     */
+    private static final class Node {
+
+        /** The child segments. */
+        private final Map<String, Node> mChildren = new HashMap<>();
+
+        /** Flags if the path up to this segment is a source folder. */
+        private boolean mSourceFolder;
+
+        /**
+         * Adds a source folder below this project node.
+         *
+         * @param sourcePath
+         *            the workspace relative path of the source folder
+         */
+        void add(IPath sourcePath) {
+            Node node = this;
+            for (int i = 1; i < sourcePath.segmentCount(); i++) {
+                node = node.mChildren.computeIfAbsent(sourcePath.segment(i), key -> new Node());
+            }
+            node.mSourceFolder = true;
+        }
+    }
+}
@@ -20,8 +20,8 @@
 
 package net.sf.eclipsecs.core.projectconfig.filters;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.eclipse.core.resources.IFile;
 
@@ -31,8 +31,8 @@ import org.eclipse.core.resources.IFile;
  */
 public class UnOpenedFilesFilter extends AbstractFilter {
 
-    /** The list of opened files. */
-    private static List<IFile> sOpenedFiles = new ArrayList<>();
+    /** The list of opened files, registered by the UI and read by concurrent builds. */
+    private static final List<IFile> OPENED_FILES = new CopyOnWriteArrayList<>();
 
     /**
      * Registers a opened file.
@@ -41,7 +41,7 @@ public class UnOpenedFilesFilter extends AbstractFilter {
      *            the file
      */
     public static void addOpenedFile(IFile file) {
-        sOpenedFiles.add(file);
+        OPENED_FILES.add(file);
     }
 
     /**
@@ -51,14 +51,19 @@ public class UnOpenedFilesFilter extends AbstractFilter {
      *            the file
      */
     public static void removeOpenedFile(IFile file) {
-        sOpenedFiles.remove(file);
+        OPENED_FILES.remove(file);
+    }
+
+    @Override
+    public int getCost() {
+        return COST_CHEAP;
     }
 
     @Override
     public boolean accept(Object element) {
         boolean accept = false;
         if (element instanceof IFile) {
-            accept = sOpenedFiles.contains(element);
+            accept = OPENED_FILES.contains(element);
         }
         return accept;
     }
@@ -26,22 +26,60 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 import org.eclipse.core.runtime.IExtension;
 import org.eclipse.core.runtime.IExtensionPoint;
 import org.eclipse.core.runtime.IExtensionRegistry;
+import org.eclipse.core.runtime.IRegistryEventListener;
 import org.eclipse.core.runtime.Platform;
 import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.BundleListener;
 
 /**
  * Classloader implementation which can load classes and resources from bundles implementing a
  * specific extension point.
  *
+ * <p>
+ * Checkstyle's module factory probes every registered package for each module, so most lookups
+ * fail. Both found and missing classes and resources are therefore cached, until an extension
+ * is added or removed or a contributing bundle changes.
+ * </p>
  */
 public class ExtensionClassLoader extends ClassLoader {
 
-    /** The bundles contributing to this classloader. */
-    private List<Bundle> mBundles;
+    /** The bundle defining the extension point. */
+    private final Bundle mSourceBundle;
+
+    /** The extension point id. */
+    private final String mExtensionPointId;
+
+    /** Invalidates the lookup cache when the extensions change. */
+    private final RegistryListener mRegistryListener = new RegistryListener();
+
+    /** Invalidates the lookup cache when a contributing bundle changes. */
+    private final BundleListener mBundleListener = this::bundleChanged;
+
+    /** The number of lookups served by the cache. */
+    private final AtomicLong mHits = new AtomicLong();
+
+    /** The number of lookups which had to search the bundles. */
+    private final AtomicLong mMisses = new AtomicLong();
+
+    /** The accumulated time spent searching the bundles, in nanoseconds. */
+    private final AtomicLong mLookupNanos = new AtomicLong();
+
+    /** The accumulated search time of the lookups served by the cache, in nanoseconds. */
+    private final AtomicLong mSavedNanos = new AtomicLong();
+
+    /** The contributing bundles and the lookups resolved against them. */
+    private volatile LookupCache mCache;
 
     /**
      * Creates the extension classloader.
@@ -53,31 +91,121 @@ public class ExtensionClassLoader extends ClassLoader {
      */
     public ExtensionClassLoader(Bundle sourceBundle, String extensionPointId) {
 
-        mBundles = new ArrayList<>();
+        mSourceBundle = sourceBundle;
+        mExtensionPointId = extensionPointId;
+        mCache = LookupCache.of(resolveBundles());
 
-        mBundles.add(sourceBundle);
+        Platform.getExtensionRegistry().addListener(mRegistryListener, extensionPointId);
+        BundleContext context = sourceBundle.getBundleContext();
+        if (context != null) {
+            context.addBundleListener(mBundleListener);
+        }
+    }
 
-        IExtensionRegistry pluginRegistry = Platform.getExtensionRegistry();
-        IExtensionPoint extPt = pluginRegistry.getExtensionPoint(extensionPointId);
+    @Override
+    public Class<?> loadClass(String name) throws ClassNotFoundException {
 
-        IExtension[] extensions = extPt.getExtensions();
+        LookupCache cache = mCache;
+        Class<?> clazz = lookup(cache.classes(), name, key -> findBundleClass(cache, key));
 
-        for (IExtension ext : extensions) {
-            String contributorId = ext.getContributor().getName();
-            Bundle extensionBundle = Platform.getBundle(contributorId);
+        if (clazz == null) {
+            throw new ClassNotFoundException(name);
+        }
 
-            if (extensionBundle != null) {
-                mBundles.add(extensionBundle);
+        return clazz;
+    }
+
+    @Override
+    public URL getResource(String name) {
+
+        LookupCache cache = mCache;
+        return lookup(cache.resources(), name, key -> findBundleResource(cache, key));
+    }
+
+    @Override
+    public Enumeration<URL> getResources(String name) throws IOException {
+
+        List<URL> resources = new ArrayList<>();
+
+        for (Bundle bundle : mCache.bundles()) {
+            Enumeration<URL> bundleResources = bundle.getResources(name);
+            if (bundleResources != null) {
+                resources.addAll(Collections.list(bundleResources));
             }
         }
+        return Collections.enumeration(resources);
+
     }
 
-    @Override
-    public Class<?> loadClass(String name) throws ClassNotFoundException {
+    /**
+     * Returns a key identifying the contributing bundles in their current versions, which changes
+     * whenever classes loaded through this classloader may change.
+     *
+     * @return the contribution key
+     */
+    public String getContributionKey() {
+        StringBuilder key = new StringBuilder();
+        for (Bundle bundle : mCache.bundles()) {
+            key.append(bundle.getSymbolicName()).append('_').append(bundle.getVersion())
+                .append('_').append(bundle.getLastModified()).append(';');
+        }
+        return key.toString();
+    }
+
+    /**
+     * Drops all cached lookups and determines the contributing bundles again.
+     */
+    public void invalidate() {
+        mCache = LookupCache.of(resolveBundles());
+    }
+
+    /**
+     * Stops listening for extension and bundle changes.
+     */
+    public void dispose() {
+        Platform.getExtensionRegistry().removeListener(mRegistryListener);
+        BundleContext context = mSourceBundle.getBundleContext();
+        if (context != null) {
+            context.removeBundleListener(mBundleListener);
+        }
+    }
+
+    /**
+     * Returns the statistics of the lookup cache.
+     *
+     * @return the statistics
+     */
+    public Statistics getStatistics() {
+        return new Statistics(mHits.get(), mMisses.get(),
+            TimeUnit.NANOSECONDS.toMillis(mLookupNanos.get()),
+            TimeUnit.NANOSECONDS.toMillis(mSavedNanos.get()));
+    }
+
+    private <T> T lookup(Map<String, Lookup<T>> lookups, String name,
+        Function<String, T> finder) {
+
+        Lookup<T> lookup = lookups.get(name);
+        if (lookup != null) {
+            mHits.incrementAndGet();
+            mSavedNanos.addAndGet(lookup.costNanos());
+        } else {
+            long start = System.nanoTime();
+            T value = finder.apply(name);
+            long cost = System.nanoTime() - start;
+
+            mMisses.incrementAndGet();
+            mLookupNanos.addAndGet(cost);
+            lookup = new Lookup<>(value, cost);
+            lookups.put(name, lookup);
+        }
+        return lookup.value();
+    }
+
+    private static Class<?> findBundleClass(LookupCache cache, String name) {
 
         Class<?> clazz = null;
 
-        for (Bundle bundle : mBundles) {
+        for (Bundle bundle : cache.bundles()) {
 
             try {
                 clazz = bundle.loadClass(name);
@@ -88,20 +216,14 @@ public class ExtensionClassLoader extends ClassLoader {
                 // try next
             }
         }
-
-        if (clazz == null) {
-            throw new ClassNotFoundException(name);
-        }
-
         return clazz;
     }
 
-    @Override
-    public URL getResource(String name) {
+    private static URL findBundleResource(LookupCache cache, String name) {
 
         URL resource = null;
 
-        for (Bundle bundle : mBundles) {
+        for (Bundle bundle : cache.bundles()) {
             resource = bundle.getResource(name);
             if (resource != null) {
                 break;
@@ -110,18 +232,104 @@ public class ExtensionClassLoader extends ClassLoader {
         return resource;
     }
 
-    @Override
-    public Enumeration<URL> getResources(String name) throws IOException {
+    private List<Bundle> resolveBundles() {
 
-        List<URL> resources = new ArrayList<>();
+        List<Bundle> bundles = new ArrayList<>();
 
-        for (Bundle bundle : mBundles) {
-            Enumeration<URL> bundleResources = bundle.getResources(name);
-            if (bundleResources != null) {
-                resources.addAll(Collections.list(bundleResources));
+        bundles.add(mSourceBundle);
+
+        IExtensionRegistry pluginRegistry = Platform.getExtensionRegistry();
+        IExtensionPoint extPt = pluginRegistry.getExtensionPoint(mExtensionPointId);
+
+        IExtension[] extensions = extPt.getExtensions();
+
+        for (IExtension ext : extensions) {
+            String contributorId = ext.getContributor().getName();
+            Bundle extensionBundle = Platform.getBundle(contributorId);
+
+            if (extensionBundle != null) {
+                bundles.add(extensionBundle);
             }
         }
-        return Collections.enumeration(resources);
+        return bundles;
+    }
+
+    private void bundleChanged(BundleEvent event) {
+        int type = event.getType();
+        if ((type == BundleEvent.UPDATED || type == BundleEvent.UNRESOLVED
+            || type == BundleEvent.UNINSTALLED) && mCache.bundles().contains(event.getBundle())) {
+            invalidate();
+        }
+    }
+
+    /**
+     * Statistics of the lookup cache.
+     *
+     * @param hits
+     *            the number of class and resource lookups served by the cache
+     * @param misses
+     *            the number of class and resource lookups which had to search the bundles
+     * @param lookupMillis
+     *            the accumulated time spent searching the bundles, in milliseconds
+     * @param savedMillis
+     *            the accumulated search time of the lookups served by the cache, in milliseconds
+     */
+    public record Statistics(long hits, long misses, long lookupMillis, long savedMillis) {
+    }
+
+    /**
+     * The result of a lookup.
+     *
+     * @param <T>
+     *            the type of the looked up value
+     * @param value
+     *            the found value, <code>null</code> if none of the bundles provides it
+     * @param costNanos
+     *            the time it took to search the bundles, in nanoseconds
+     */
+    private record Lookup<T>(T value, long costNanos) {
+    }
+
+    /**
+     * The contributing bundles and the lookups resolved against them.
+     *
+     * @param bundles
+     *            the bundles contributing to this classloader
+     * @param classes
+     *            the class lookups by class name
+     * @param resources
+     *            the resource lookups by resource name
+     */
+    private record LookupCache(List<Bundle> bundles, Map<String, Lookup<Class<?>>> classes,
+        Map<String, Lookup<URL>> resources) {
+
+        static LookupCache of(List<Bundle> bundles) {
+            return new LookupCache(bundles, new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+    }
+    /**
+     * Invalidates the lookup cache when extensions are added or removed.
+     */
+    private final class RegistryListener implements IRegistryEventListener {
 
+        @Override
+        public void added(IExtension[] extensions) {
+            invalidate();
+        }
+
+        @Override
+        public void removed(IExtension[] extensions) {
+            invalidate();
+        }
+
+        @Override
+        public void added(IExtensionPoint[] extensionPoints) {
+            // the extension point itself is defined by the source bundle
+        }
+
+        @Override
+        public void removed(IExtensionPoint[] extensionPoints) {
+            // the extension point itself is defined by the source bundle
+        }
     }
 }
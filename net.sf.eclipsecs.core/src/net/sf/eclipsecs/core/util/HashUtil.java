@@ -0,0 +1,95 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+
+package net.sf.eclipsecs.core.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Provides utility methods for the SHA-256 hashes used to identify contents, like configurations
+ * or audited files.
+ */
+public final class HashUtil {
+
+    /**
+     * Private constructor to prevent instances.
+     */
+    private HashUtil() {
+    }
+
+    /**
+     * Creates a SHA-256 message digest.
+     *
+     * @return the message digest
+     */
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+        }
+        catch (NoSuchAlgorithmException ex) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Computes the hex encoded SHA-256 hash of the given bytes.
+     *
+     * @param bytes
+     *            the bytes
+     * @return the hash
+     */
+    public static String hash(byte[] bytes) {
+        return HexFormat.of().formatHex(newDigest().digest(bytes));
+    }
+
+    /**
+     * Completes the hash computation of a digest.
+     *
+     * @param digest
+     *            the digest
+     * @return the hex encoded hash
+     */
+    public static String toHex(MessageDigest digest) {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Adds a string to a digest. A terminator keeps consecutive values from shifting into each
+     * other, <code>null</code> gets its own marker.
+     *
+     * @param digest
+     *            the digest
+     * @param value
+     *            the value, may be <code>null</code>
+     */
+    public static void update(MessageDigest digest, String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        else {
+            digest.update((byte) 1);
+        }
+    }
+}
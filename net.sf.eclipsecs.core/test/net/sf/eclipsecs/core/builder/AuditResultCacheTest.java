@@ -0,0 +1,194 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+
+package net.sf.eclipsecs.core.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IMarker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AuditResultCacheTest {
+
+    private static final String KEY = "key"; //$NON-NLS-1$
+
+    private static final String HASH = "hash"; //$NON-NLS-1$
+
+    @TempDir
+    Path mFolder;
+
+    private File mCacheFile;
+
+    private String mFileName;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mCacheFile = mFolder.resolve("results.cache").toFile(); //$NON-NLS-1$
+        mFileName = Files.createFile(mFolder.resolve("A.java")).toString(); //$NON-NLS-1$
+    }
+
+    @Test
+    void storedResultsAreReadBack() {
+        AuditResultCache cache = AuditResultCache.open(mCacheFile, KEY);
+        cache.beginFile(mFileName, HASH);
+        cache.addViolation(mFileName, violation("first")); //$NON-NLS-1$
+        cache.addViolation(mFileName, violation("second")); //$NON-NLS-1$
+        cache.store();
+
+        AuditResultCache reopened = AuditResultCache.open(mCacheFile, KEY);
+
+        assertThat(reopened.getViolations(mFileName, HASH).get()).containsExactly(
+            violation("first"), violation("second")); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    @Test
+    void fileWithoutViolationsHasAnEmptyResult() {
+        AuditResultCache cache = AuditResultCache.open(mCacheFile, KEY);
+        cache.beginFile(mFileName, HASH);
+
+        assertThat(cache.getViolations(mFileName, HASH).get()).isEmpty();
+        assertThat(cache.getViolations(mFileName + "x", HASH)).isEmpty(); //$NON-NLS-1$
+    }
+
+    @Test
+    void changedContentsAreNotServed() {
+        AuditResultCache cache = AuditResultCache.open(mCacheFile, KEY);
+        cache.beginFile(mFileName, HASH);
+
+        assertThat(cache.getViolations(mFileName, "changed")).isEmpty(); //$NON-NLS-1$
+    }
+
+    @Test
+    void resultsOfAnotherKeyAreDiscarded() {
+        AuditResultCache cache = AuditResultCache.open(mCacheFile, KEY);
+        cache.beginFile(mFileName, HASH);
+        cache.store();
+
+        AuditResultCache reopened = AuditResultCache.open(mCacheFile, "other"); //$NON-NLS-1$
+
+        assertThat(reopened.getViolations(mFileName, HASH)).isEmpty();
+    }
+
+    @Test
+    void corruptCacheIsDiscarded() throws IOException {
+        Files.write(mCacheFile.toPath(), "corrupt".getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$
+
+        assertThat(AuditResultCache.open(mCacheFile, KEY).getViolations(mFileName, HASH))
+            .isEmpty();
+    }
+
+    @Test
+    void markerAttributeTypesAreReadBack() {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(IMarker.MESSAGE, "first"); //$NON-NLS-1$
+        attributes.put(IMarker.LINE_NUMBER, Integer.valueOf(3));
+        attributes.put(IMarker.TRANSIENT, Boolean.TRUE);
+        AuditResultCache cache = AuditResultCache.open(mCacheFile, KEY);
+        cache.beginFile(mFileName, HASH);
+        cache.addViolation(mFileName, attributes);
+        cache.store();
+
+        AuditResultCache reopened = AuditResultCache.open(mCacheFile, KEY);
+
+        assertThat(reopened.getViolations(mFileName, HASH).get()).containsExactly(attributes);
+    }
+
+    @Test
+    void unexpectedClassesAreNotDeserialized() throws IOException {
+        Map<String, Object> results = new HashMap<>();
+        results.put(mFileName, new Date());
+        try (OutputStream out = Files.newOutputStream(mCacheFile.toPath());
+            ObjectOutputStream objectOut = new ObjectOutputStream(out)) {
+            objectOut.writeUTF(KEY);
+            objectOut.writeObject(results);
+        }
+
+        assertThat(AuditResultCache.open(mCacheFile, KEY).getViolations(mFileName, HASH))
+            .isEmpty();
+    }
+
+    @Test
+    void beginningAFileDropsItsPreviousResult() {
+        AuditResultCache cache = AuditResultCache.open(mCacheFile, KEY);
+        cache.beginFile(mFileName, HASH);
+        cache.addViolation(mFileName, violation("old")); //$NON-NLS-1$
+
+        cache.beginFile(mFileName, HASH);
+
+        assertThat(cache.getViolations(mFileName, HASH).get()).isEmpty();
+    }
+
+    @Test
+    void violationsAreCopied() {
+        AuditResultCache cache = AuditResultCache.open(mCacheFile, KEY);
+        cache.beginFile(mFileName, HASH);
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(IMarker.MESSAGE, "first"); //$NON-NLS-1$
+        cache.addViolation(mFileName, attributes);
+
+        attributes.put(IMarker.MESSAGE, "second"); //$NON-NLS-1$
+
+        List<Map<String, Object>> violations = cache.getViolations(mFileName, HASH).get();
+        assertThat(violations).containsExactly(violation("first")); //$NON-NLS-1$
+    }
+
+    @Test
+    void resultsOfDeletedFilesAreNotStored() throws IOException {
+        AuditResultCache cache = AuditResultCache.open(mCacheFile, KEY);
+        cache.beginFile(mFileName, HASH);
+        Files.delete(Path.of(mFileName));
+
+        cache.store();
+
+        assertThat(AuditResultCache.open(mCacheFile, KEY).getViolations(mFileName, HASH))
+            .isEmpty();
+    }
+
+    @Test
+    void contentHashDependsOnTheContents() throws IOException {
+        Path other = mFolder.resolve("B.java"); //$NON-NLS-1$
+        Files.write(other, "class B {}".getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$
+        String emptyHash = AuditResultCache.hashContent(new File(mFileName));
+
+        assertThat(AuditResultCache.hashContent(other.toFile())).isNotEqualTo(emptyHash);
+        Files.write(other, new byte[0]);
+        assertThat(AuditResultCache.hashContent(other.toFile())).isEqualTo(emptyHash);
+        assertThat(AuditResultCache.hashContent(mFolder.resolve("C.java").toFile())) //$NON-NLS-1$
+            .isNull();
+    }
+
+    private static Map<String, Object> violation(String message) {
+        return Map.of(IMarker.MESSAGE, message);
+    }
+}
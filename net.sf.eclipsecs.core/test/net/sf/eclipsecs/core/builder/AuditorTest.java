@@ -0,0 +1,95 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+
+package net.sf.eclipsecs.core.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.osgi.service.prefs.BackingStoreException;
+
+import net.sf.eclipsecs.core.CheckstylePluginPrefs;
+
+class AuditorTest {
+
+    @AfterEach
+    void tearDown() throws BackingStoreException {
+        setWorkerPreferences(CheckstylePluginPrefs.AUDIT_WORKER_COUNT,
+            CheckstylePluginPrefs.CHECKER_POOL_MAX_SIZE);
+    }
+
+    @Test
+    void singleWorkerByDefault() {
+        assertThat(Auditor.getWorkerCount(10_000)).isEqualTo(1);
+    }
+
+    @Test
+    void workersAreLimitedByTheNumberOfFiles() throws BackingStoreException {
+        setWorkerPreferences(4, 4);
+
+        assertThat(Auditor.getWorkerCount(1_000)).isEqualTo(4);
+        assertThat(Auditor.getWorkerCount(120)).isEqualTo(2);
+        assertThat(Auditor.getWorkerCount(10)).isEqualTo(1);
+        assertThat(Auditor.getWorkerCount(0)).isEqualTo(1);
+    }
+
+    @Test
+    void workersAreLimitedByTheCheckerPool() throws BackingStoreException {
+        setWorkerPreferences(8, 3);
+
+        assertThat(Auditor.getWorkerCount(1_000)).isEqualTo(3);
+    }
+
+    @Test
+    void partitionsCoverAllFilesInOrder() {
+        List<File> files = createFiles(101);
+
+        List<List<File>> partitions = Auditor.partition(files, 4);
+
+        assertThat(partitions.stream().map(List::size).toList()).containsExactly(26, 26, 26, 23);
+        List<File> joined = new ArrayList<>();
+        partitions.forEach(joined::addAll);
+        assertThat(joined).isEqualTo(files);
+    }
+
+    @Test
+    void fewerFilesThanPartitionsGiveSingleFilePartitions() {
+        assertThat(Auditor.partition(createFiles(3), 4)).hasSize(3);
+        assertThat(Auditor.partition(createFiles(0), 4)).isEmpty();
+    }
+
+    private static List<File> createFiles(int count) {
+        return IntStream.range(0, count)
+            .mapToObj(index -> new File("File" + index + ".java")) //$NON-NLS-1$ //$NON-NLS-2$
+            .toList();
+    }
+
+    private static void setWorkerPreferences(int workerCount, int poolSize)
+            throws BackingStoreException {
+        CheckstylePluginPrefs.setInt(CheckstylePluginPrefs.PREF_AUDIT_WORKER_COUNT, workerCount);
+        CheckstylePluginPrefs.setInt(CheckstylePluginPrefs.PREF_CHECKER_POOL_MAX_SIZE, poolSize);
+    }
+}
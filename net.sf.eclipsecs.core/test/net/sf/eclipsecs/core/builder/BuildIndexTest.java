@@ -0,0 +1,221 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+
+package net.sf.eclipsecs.core.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.runtime.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BuildIndexTest {
+
+    private static final String KEY = "key"; //$NON-NLS-1$
+
+    @TempDir
+    File mFolder;
+
+    private File mIndexFile;
+
+    private FileState mFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mIndexFile = new File(mFolder, "project.index"); //$NON-NLS-1$
+        mFile = createFile("A.java", "class A {}"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    @Test
+    void fileIsUpToDateOnceItsAuditIsCommitted() {
+        BuildIndex index = BuildIndex.open(mIndexFile);
+        assertThat(index.isUpToDate(mFile.mFile, KEY)).isFalse();
+
+        index.prepare(mFile.mFile, KEY);
+        assertThat(index.isUpToDate(mFile.mFile, KEY)).isFalse();
+
+        index.commitPending();
+        assertThat(index.isUpToDate(mFile.mFile, KEY)).isTrue();
+        assertThat(index.isUpToDate(mFile.mFile, "other")).isFalse(); //$NON-NLS-1$
+        assertThat(index.isUpToDate(mFile.mFile, null)).isFalse();
+    }
+
+    @Test
+    void fileWithoutAuditKeyIsNotIndexed() {
+        BuildIndex index = BuildIndex.open(mIndexFile);
+
+        index.prepare(mFile.mFile, null);
+        index.commitPending();
+
+        assertThat(index.isUpToDate(mFile.mFile, KEY)).isFalse();
+    }
+
+    @Test
+    void touchedFileIsUpToDateUntilItsContentsChange() throws IOException {
+        BuildIndex index = commit();
+
+        mFile.mModificationStamp++;
+        assertThat(index.isUpToDate(mFile.mFile, KEY)).isTrue();
+
+        mFile.write("class A { }"); //$NON-NLS-1$
+        assertThat(index.isUpToDate(mFile.mFile, KEY)).isFalse();
+    }
+
+    @Test
+    void fileWhoseMarkersHaveBeenRemovedIsNotUpToDate() {
+        mFile.mMarkerCount = 2;
+        BuildIndex index = commit();
+        assertThat(index.isUpToDate(mFile.mFile, KEY)).isTrue();
+
+        mFile.mMarkerCount = 0;
+
+        assertThat(index.isUpToDate(mFile.mFile, KEY)).isFalse();
+    }
+
+    @Test
+    void removedFileIsNotUpToDate() {
+        BuildIndex index = commit();
+
+        index.remove(mFile.mFile);
+
+        assertThat(index.isUpToDate(mFile.mFile, KEY)).isFalse();
+    }
+
+    @Test
+    void onlyRetainedFilesAreKept() throws IOException {
+        FileState other = createFile("B.java", "class B {}"); //$NON-NLS-1$ //$NON-NLS-2$
+        BuildIndex index = BuildIndex.open(mIndexFile);
+        index.prepare(mFile.mFile, KEY);
+        index.prepare(other.mFile, KEY);
+        index.commitPending();
+
+        index.retainOnly(List.of(other.mFile));
+
+        assertThat(index.isUpToDate(mFile.mFile, KEY)).isFalse();
+        assertThat(index.isUpToDate(other.mFile, KEY)).isTrue();
+    }
+
+    @Test
+    void storedIndexIsReadBackWithoutUncommittedFiles() throws IOException {
+        FileState other = createFile("B.java", "class B {}"); //$NON-NLS-1$ //$NON-NLS-2$
+        BuildIndex index = commit();
+        index.prepare(other.mFile, KEY);
+
+        index.store();
+        BuildIndex reopened = BuildIndex.open(mIndexFile);
+
+        assertThat(reopened.isUpToDate(mFile.mFile, KEY)).isTrue();
+        assertThat(reopened.isUpToDate(other.mFile, KEY)).isFalse();
+    }
+
+    @Test
+    void corruptIndexIsDiscarded() throws IOException {
+        Files.write(mIndexFile.toPath(), "corrupt".getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$
+
+        assertThat(BuildIndex.open(mIndexFile).isUpToDate(mFile.mFile, KEY)).isFalse();
+    }
+
+    @Test
+    void unexpectedClassesAreNotDeserialized() throws IOException {
+        commit().store();
+        String validityKey;
+        try (InputStream in = Files.newInputStream(mIndexFile.toPath());
+            ObjectInputStream objectIn = new ObjectInputStream(in)) {
+            validityKey = objectIn.readUTF();
+        }
+
+        Map<String, Object> entries = new HashMap<>();
+        entries.put("src/A.java", new Date()); //$NON-NLS-1$
+        try (OutputStream out = Files.newOutputStream(mIndexFile.toPath());
+            ObjectOutputStream objectOut = new ObjectOutputStream(out)) {
+            objectOut.writeUTF(validityKey);
+            objectOut.writeObject(entries);
+        }
+
+        assertThat(BuildIndex.open(mIndexFile).isUpToDate(mFile.mFile, KEY)).isFalse();
+    }
+
+    private FileState createFile(String name, String contents) throws IOException {
+        FileState file = new FileState("src/" + name, new File(mFolder, name)); //$NON-NLS-1$
+        file.write(contents);
+        return file;
+    }
+
+    private BuildIndex commit() {
+        BuildIndex index = BuildIndex.open(mIndexFile);
+        index.prepare(mFile.mFile, KEY);
+        index.commitPending();
+        return index;
+    }
+
+    /**
+     * The state of a workspace file, backed by a file in the temporary folder.
+     */
+    private static final class FileState {
+
+        /** The workspace file answering from this state. */
+        private final IFile mFile;
+
+        /** The modification stamp of the file. */
+        private long mModificationStamp;
+
+        /** The number of Checkstyle markers on the file. */
+        private int mMarkerCount;
+
+        /** The file holding the contents. */
+        private final File mLocation;
+
+        FileState(String projectRelativePath, File location) {
+            mLocation = location;
+            mFile = (IFile) Proxy.newProxyInstance(IFile.class.getClassLoader(),
+                new Class<?>[] {IFile.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getProjectRelativePath" -> new Path(projectRelativePath); //$NON-NLS-1$
+                    case "getLocation" -> new Path(mLocation.getPath()); //$NON-NLS-1$
+                    case "getModificationStamp" -> mModificationStamp; //$NON-NLS-1$
+                    case "findMarkers" -> new IMarker[mMarkerCount]; //$NON-NLS-1$
+                    case "equals" -> proxy == args[0]; //$NON-NLS-1$
+                    case "hashCode" -> System.identityHashCode(proxy); //$NON-NLS-1$
+                    default -> null;
+                });
+        }
+
+        void write(String contents) throws IOException {
+            Files.write(mLocation.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+            mModificationStamp++;
+        }
+    }
+}
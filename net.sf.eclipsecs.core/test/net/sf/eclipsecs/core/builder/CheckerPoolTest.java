@@ -0,0 +1,237 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+
+package net.sf.eclipsecs.core.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.osgi.service.prefs.BackingStoreException;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import net.sf.eclipsecs.core.CheckstylePluginPrefs;
+
+class CheckerPoolTest {
+
+    /** The pool under test. */
+    private final CheckerPool mPool = new CheckerPool();
+
+    /** The number of checkers created by the pool. */
+    private final AtomicInteger mCreated = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws BackingStoreException {
+        setPoolPreferences(1, 2, 300);
+    }
+
+    @AfterEach
+    void tearDown() throws BackingStoreException {
+        mPool.clear();
+        setPoolPreferences(CheckstylePluginPrefs.CHECKER_POOL_MIN_IDLE,
+            CheckstylePluginPrefs.CHECKER_POOL_MAX_SIZE,
+            CheckstylePluginPrefs.CHECKER_POOL_IDLE_TIMEOUT);
+    }
+
+    @Test
+    void returnedCheckerIsReused() throws Exception {
+        Checker checker = checkout("key");
+        mPool.checkin(checker);
+
+        assertThat(checkout("key")).isSameAs(checker);
+        assertThat(mCreated.get()).isEqualTo(1);
+        CheckerPool.Statistics statistics = mPool.getStatistics();
+        assertThat(statistics.hits()).isEqualTo(1);
+        assertThat(statistics.misses()).isEqualTo(1);
+        assertThat(statistics.checkedOut()).isEqualTo(1);
+    }
+
+    @Test
+    void checkersAreNotSharedBetweenKeys() throws Exception {
+        Checker checker = checkout("key");
+        mPool.checkin(checker);
+
+        assertThat(checkout("other")).isNotSameAs(checker);
+        assertThat(mCreated.get()).isEqualTo(2);
+    }
+
+    @Test
+    void checkedOutCheckerIsNotHandedOutTwice() throws Exception {
+        Checker first = checkout("key");
+
+        assertThat(checkout("key")).isNotSameAs(first);
+    }
+
+    @Test
+    void checkoutBeyondMaximumSizeWaitsForCheckin() throws Exception {
+        Checker first = checkout("key");
+        checkout("key");
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Checker> third = executor.submit(() -> checkout("key"));
+            assertThatThrownBy(() -> third.get(200, TimeUnit.MILLISECONDS))
+                .isInstanceOf(TimeoutException.class);
+
+            mPool.checkin(first);
+
+            assertThat(third.get(10, TimeUnit.SECONDS)).isSameAs(first);
+            assertThat(mCreated.get()).isEqualTo(2);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void waitingCheckoutIsCancelledByItsMonitor() throws Exception {
+        setPoolPreferences(1, 1, 300);
+        checkout("key");
+        IProgressMonitor monitor = new NullProgressMonitor();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Checker> second = executor.submit(() -> checkout("key", monitor));
+            assertThatThrownBy(() -> second.get(200, TimeUnit.MILLISECONDS))
+                .isInstanceOf(TimeoutException.class);
+
+            monitor.setCanceled(true);
+
+            assertThatThrownBy(() -> second.get(10, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(OperationCanceledException.class);
+            assertThat(mPool.getStatistics().checkedOut()).isEqualTo(1);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedCreationDoesNotUseUpThePool() throws Exception {
+        setPoolPreferences(1, 1, 300);
+
+        assertThatThrownBy(() -> mPool.checkout("key", () -> {
+            throw new CheckstyleException("broken configuration"); //$NON-NLS-1$
+        }, new NullProgressMonitor())).isInstanceOf(CheckstyleException.class);
+
+        // would wait forever if the failed checkout kept its permit
+        assertThat(checkout("key")).isNotNull();
+        assertThat(mPool.getStatistics().checkedOut()).isEqualTo(1);
+    }
+
+    @Test
+    void idleCheckersAreDestroyedAfterTimeout() throws Exception {
+        setPoolPreferences(0, 2, 0);
+        TrackingChecker checker = (TrackingChecker) checkout("key");
+
+        mPool.checkin(checker);
+
+        // make sure the timeout has passed on coarse clocks, then run the eviction again
+        Thread.sleep(10);
+        mPool.checkin(checkout("other"));
+
+        assertThat(checker.isDestroyed()).isTrue();
+        assertThat(mPool.getStatistics().idle()).isZero();
+        assertThat(mPool.getStatistics().evictions()).isGreaterThan(0);
+        assertThat(checkout("key")).isNotSameAs(checker);
+    }
+
+    @Test
+    void keyWithCheckedOutCheckerIsNotDropped() throws Exception {
+        setPoolPreferences(1, 2, 1);
+        TrackingChecker checker = (TrackingChecker) checkout("key");
+
+        // let the key become stale while its checker is checked out
+        Thread.sleep(1100);
+        mPool.checkin(checkout("other"));
+        mPool.checkin(checker);
+
+        assertThat(checker.isDestroyed()).isFalse();
+        assertThat(checkout("key")).isSameAs(checker);
+    }
+
+    @Test
+    void clearDestroysIdleAndReturnedCheckers() throws Exception {
+        TrackingChecker idle = (TrackingChecker) checkout("key");
+        TrackingChecker checkedOut = (TrackingChecker) checkout("key");
+        mPool.checkin(idle);
+
+        mPool.clear();
+
+        assertThat(idle.isDestroyed()).isTrue();
+        assertThat(checkedOut.isDestroyed()).isFalse();
+
+        mPool.checkin(checkedOut);
+
+        assertThat(checkedOut.isDestroyed()).isTrue();
+        assertThat(checkout("key")).isNotSameAs(idle).isNotSameAs(checkedOut);
+    }
+
+    private Checker checkout(String key) throws Exception {
+        return checkout(key, new NullProgressMonitor());
+    }
+
+    private Checker checkout(String key, IProgressMonitor monitor) throws Exception {
+        return mPool.checkout(key, () -> {
+            mCreated.incrementAndGet();
+            return new TrackingChecker();
+        }, monitor);
+    }
+
+    private static void setPoolPreferences(int minIdle, int maxSize, int idleTimeout)
+            throws BackingStoreException {
+        CheckstylePluginPrefs.setInt(CheckstylePluginPrefs.PREF_CHECKER_POOL_MIN_IDLE, minIdle);
+        CheckstylePluginPrefs.setInt(CheckstylePluginPrefs.PREF_CHECKER_POOL_MAX_SIZE, maxSize);
+        CheckstylePluginPrefs.setInt(CheckstylePluginPrefs.PREF_CHECKER_POOL_IDLE_TIMEOUT,
+            idleTimeout);
+    }
+
+    /**
+     * Checker recording whether it has been destroyed.
+     */
+    private static final class TrackingChecker extends Checker {
+
+        /** Flags if the checker has been destroyed. */
+        private volatile boolean mDestroyed;
+
+        @Override
+        public void destroy() {
+            mDestroyed = true;
+            super.destroy();
+        }
+
+        boolean isDestroyed() {
+            return mDestroyed;
+        }
+    }
+}
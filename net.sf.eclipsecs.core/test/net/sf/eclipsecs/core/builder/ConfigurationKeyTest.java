@@ -0,0 +1,193 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+package net.sf.eclipsecs.core.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.IProject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.puppycrawl.tools.checkstyle.PropertyResolver;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import net.sf.eclipsecs.core.config.CheckstyleConfigurationFile;
+
+class ConfigurationKeyTest {
+
+    private static final String CHARSET = "UTF-8"; //$NON-NLS-1$
+
+    private static final String CONFIGURATION = """
+        <?xml version="1.0"?>
+        <!DOCTYPE module PUBLIC
+            "-//Checkstyle//DTD Checkstyle Configuration 1.3//EN"
+            "https://checkstyle.org/dtds/configuration_1_3.dtd">
+        <module name="Checker">
+          <module name="SuppressionFilter">
+            <property name="file" value="%s"/>
+          </module>
+          <module name="TreeWalker">
+            <property name="tabWidth" value="${tabWidth}"/>
+          </module>
+        </module>
+        """; //$NON-NLS-1$
+
+    @TempDir
+    File mFolder;
+
+    private File mSuppressions;
+
+    private final Map<String, String> mProperties = new HashMap<>();
+
+    private final PropertyResolver mResolver = mProperties::get;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mSuppressions = new File(mFolder, "suppressions.xml"); //$NON-NLS-1$
+        write(mSuppressions, "<suppressions/>"); //$NON-NLS-1$
+        mProperties.put("tabWidth", "4"); //$NON-NLS-1$ //$NON-NLS-2$
+        ConfigurationKey.clearCache();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ConfigurationKey.clearCache();
+    }
+
+    @Test
+    void unchangedConfigurationKeepsItsKey() throws Exception {
+        CheckstyleConfigurationFile configFile = configFile(mSuppressions.getPath());
+        ConfigurationKey key =
+            ConfigurationKey.get(configFile, project("a"), mResolver, CHARSET); //$NON-NLS-1$
+
+        assertThat(ConfigurationKey.get(configFile, project("a"), mResolver, CHARSET)) //$NON-NLS-1$
+            .isSameAs(key);
+        assertThat(key.isComplete()).isTrue();
+    }
+
+    @Test
+    void projectsWithTheSameEffectiveConfigurationShareTheKey() throws Exception {
+        CheckstyleConfigurationFile configFile = configFile(mSuppressions.getPath());
+
+        assertThat(getKey(configFile, "a", CHARSET)) //$NON-NLS-1$
+            .isEqualTo(getKey(configFile, "b", CHARSET)); //$NON-NLS-1$
+    }
+
+    @Test
+    void changedFingerprintChangesTheKey() throws Exception {
+        CheckstyleConfigurationFile configFile = configFile(mSuppressions.getPath());
+        String key = getKey(configFile, "a", CHARSET); //$NON-NLS-1$
+
+        configFile.setAdditionalPropertyBundleBytes(
+            "tabWidth=4".getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$
+
+        assertThat(getKey(configFile, "a", CHARSET)).isNotEqualTo(key); //$NON-NLS-1$
+    }
+
+    @Test
+    void changedCharsetChangesTheKey() throws Exception {
+        CheckstyleConfigurationFile configFile = configFile(mSuppressions.getPath());
+        String key = getKey(configFile, "a", CHARSET); //$NON-NLS-1$
+
+        assertThat(getKey(configFile, "a", "ISO-8859-1")) //$NON-NLS-1$ //$NON-NLS-2$
+            .isNotEqualTo(key);
+    }
+
+    @Test
+    void changedPropertyValueChangesTheKey() throws Exception {
+        CheckstyleConfigurationFile configFile = configFile(mSuppressions.getPath());
+        String key = getKey(configFile, "a", CHARSET); //$NON-NLS-1$
+
+        mProperties.put("tabWidth", "8"); //$NON-NLS-1$ //$NON-NLS-2$
+
+        assertThat(getKey(configFile, "a", CHARSET)).isNotEqualTo(key); //$NON-NLS-1$
+    }
+
+    @Test
+    void unreferencedPropertyDoesNotChangeTheKey() throws Exception {
+        CheckstyleConfigurationFile configFile = configFile(mSuppressions.getPath());
+        String key = getKey(configFile, "a", CHARSET); //$NON-NLS-1$
+
+        mProperties.put("unused", "value"); //$NON-NLS-1$ //$NON-NLS-2$
+
+        assertThat(getKey(configFile, "a", CHARSET)).isEqualTo(key); //$NON-NLS-1$
+    }
+
+    @Test
+    void changedReferencedFileChangesTheKey() throws Exception {
+        CheckstyleConfigurationFile configFile = configFile(mSuppressions.getPath());
+        String key = getKey(configFile, "a", CHARSET); //$NON-NLS-1$
+
+        write(mSuppressions, "<suppressions>\n</suppressions>"); //$NON-NLS-1$
+
+        assertThat(getKey(configFile, "a", CHARSET)).isNotEqualTo(key); //$NON-NLS-1$
+    }
+
+    @Test
+    void remoteReferencedFileMakesTheKeyIncomplete() throws Exception {
+        CheckstyleConfigurationFile configFile =
+            configFile("https://example.com/suppressions.xml"); //$NON-NLS-1$
+
+        ConfigurationKey key =
+            ConfigurationKey.get(configFile, project("a"), mResolver, CHARSET); //$NON-NLS-1$
+
+        assertThat(key.isComplete()).isFalse();
+        // changes of the remote file cannot be detected, so the key is computed again
+        assertThat(ConfigurationKey.get(configFile, project("a"), mResolver, CHARSET)) //$NON-NLS-1$
+            .isNotSameAs(key);
+    }
+
+    private String getKey(CheckstyleConfigurationFile configFile, String projectName,
+        String charset) throws CheckstyleException {
+        return ConfigurationKey.get(configFile, project(projectName), mResolver, charset).getKey();
+    }
+
+    private CheckstyleConfigurationFile configFile(String referencedFile) throws IOException {
+        CheckstyleConfigurationFile configFile = new CheckstyleConfigurationFile();
+        configFile.setCheckConfigFileBytes(
+            CONFIGURATION.formatted(referencedFile).getBytes(StandardCharsets.UTF_8));
+        configFile.setResolvedConfigFileURL(
+            new File(mFolder, "checkstyle.xml").toURI().toURL()); //$NON-NLS-1$
+        return configFile;
+    }
+
+    private static void write(File file, String contents) throws IOException {
+        Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static IProject project(String name) {
+        return (IProject) Proxy.newProxyInstance(IProject.class.getClassLoader(),
+            new Class<?>[] {IProject.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "getName" -> name; //$NON-NLS-1$
+                case "equals" -> proxy == args[0]; //$NON-NLS-1$
+                case "hashCode" -> System.identityHashCode(proxy); //$NON-NLS-1$
+                default -> null;
+            });
+    }
+}
@@ -0,0 +1,114 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+
+package net.sf.eclipsecs.core.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class LineOffsetsTest {
+
+    @Test
+    void emptyTextHasOneEmptyLine() {
+        LineOffsets offsets = LineOffsets.scan("");
+
+        assertThat(offsets.hasLine(0)).isTrue();
+        assertThat(offsets.hasLine(1)).isFalse();
+        assertThat(offsets.getLineOffset(0)).isZero();
+        assertThat(offsets.getLineLength(0)).isZero();
+    }
+
+    @Test
+    void linesExcludeTheirDelimiters() {
+        LineOffsets offsets = LineOffsets.scan("ab\ncde\r\nf\rgh");
+
+        assertLine(offsets, 0, 0, 2);
+        assertLine(offsets, 1, 3, 3);
+        assertLine(offsets, 2, 8, 1);
+        assertLine(offsets, 3, 10, 2);
+        assertThat(offsets.hasLine(4)).isFalse();
+    }
+
+    @Test
+    void trailingDelimiterStartsAnEmptyLine() {
+        LineOffsets offsets = LineOffsets.scan("a\r\n");
+
+        assertLine(offsets, 0, 0, 1);
+        assertLine(offsets, 1, 3, 0);
+        assertThat(offsets.hasLine(2)).isFalse();
+    }
+
+    @Test
+    void consecutiveDelimitersAreSeparateLines() {
+        LineOffsets offsets = LineOffsets.scan("\n\r\r\n\n");
+
+        assertLine(offsets, 0, 0, 0);
+        assertLine(offsets, 1, 1, 0);
+        assertLine(offsets, 2, 2, 0);
+        assertLine(offsets, 3, 4, 0);
+        assertLine(offsets, 4, 5, 0);
+        assertThat(offsets.hasLine(5)).isFalse();
+    }
+
+    @Test
+    void growsBeyondTheInitialCapacity() {
+        LineOffsets offsets = LineOffsets.scan("x\n".repeat(1000));
+
+        assertThat(offsets.hasLine(1000)).isTrue();
+        assertThat(offsets.hasLine(1001)).isFalse();
+        assertLine(offsets, 999, 1998, 1);
+        assertLine(offsets, 1000, 2000, 0);
+    }
+
+    @Test
+    void byteOrderMarkIsNotCounted() throws CharacterCodingException {
+        byte[] bytes = "\uFEFFab\ncd".getBytes(StandardCharsets.UTF_8); //$NON-NLS-1$
+
+        LineOffsets offsets = LineOffsets.decode(bytes, StandardCharsets.UTF_8);
+
+        assertLine(offsets, 0, 0, 2);
+        assertLine(offsets, 1, 3, 2);
+    }
+
+    @Test
+    void decodedContentsWithoutByteOrderMarkAreScannedAsIs() throws CharacterCodingException {
+        byte[] bytes = "ab\ncd".getBytes(StandardCharsets.UTF_16LE); //$NON-NLS-1$
+
+        LineOffsets offsets = LineOffsets.decode(bytes, StandardCharsets.UTF_16LE);
+
+        assertLine(offsets, 0, 0, 2);
+        assertLine(offsets, 1, 3, 2);
+    }
+
+    @Test
+    void negativeLineDoesNotExist() {
+        assertThat(LineOffsets.scan("a").hasLine(-1)).isFalse();
+    }
+
+    private static void assertLine(LineOffsets offsets, int line, int offset, int length) {
+        assertThat(offsets.hasLine(line)).isTrue();
+        assertThat(offsets.getLineOffset(line)).as("offset of line %d", line).isEqualTo(offset);
+        assertThat(offsets.getLineLength(line)).as("length of line %d", line).isEqualTo(length);
+    }
+}
@@ -0,0 +1,213 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+
+package net.sf.eclipsecs.core.builder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.runtime.CoreException;
+import org.junit.jupiter.api.Test;
+
+class MarkerBatchTest {
+
+    private static final String MESSAGE = "message"; //$NON-NLS-1$
+
+    /** The markers existing on the resource before reconciling. */
+    private final List<IMarker> mExistingMarkers = new ArrayList<>();
+
+    /** The markers created while reconciling. */
+    private final List<IMarker> mCreatedMarkers = new ArrayList<>();
+
+    /** The markers deleted while reconciling. */
+    private final List<IMarker> mDeletedMarkers = new ArrayList<>();
+
+    /** The markers whose attributes have been set while reconciling. */
+    private final List<IMarker> mUpdatedMarkers = new ArrayList<>();
+
+    @Test
+    void unchangedMarkersAreLeftAlone() throws CoreException {
+        IMarker existing = existingMarker(violation(3, 10, MESSAGE, IMarker.SEVERITY_WARNING));
+
+        reconcile(violation(3, 10, MESSAGE, IMarker.SEVERITY_WARNING));
+
+        assertThat(mCreatedMarkers).isEmpty();
+        assertThat(mUpdatedMarkers).isEmpty();
+        assertThat(mDeletedMarkers).isEmpty();
+        assertThat(existing.getAttributes()).isEqualTo(
+            violation(3, 10, MESSAGE, IMarker.SEVERITY_WARNING));
+    }
+
+    @Test
+    void changedAttributesAreUpdated() throws CoreException {
+        IMarker existing = existingMarker(violation(3, 10, MESSAGE, IMarker.SEVERITY_WARNING));
+
+        reconcile(violation(3, 10, MESSAGE, IMarker.SEVERITY_ERROR));
+
+        assertThat(mCreatedMarkers).isEmpty();
+        assertThat(mUpdatedMarkers).containsExactly(existing);
+        assertThat(existing.getAttributes().get(IMarker.SEVERITY))
+            .isEqualTo(IMarker.SEVERITY_ERROR);
+        assertThat(mDeletedMarkers).isEmpty();
+    }
+
+    @Test
+    void newViolationsAreCreatedAndStaleMarkersDeleted() throws CoreException {
+        IMarker stale =
+            existingMarker(violation(1, 0, "fixed", IMarker.SEVERITY_WARNING)); //$NON-NLS-1$
+
+        reconcile(violation(2, 5, "new", IMarker.SEVERITY_WARNING)); //$NON-NLS-1$
+
+        assertThat(mCreatedMarkers).hasSize(1);
+        assertThat(mCreatedMarkers.get(0).getAttributes())
+            .isEqualTo(violation(2, 5, "new", IMarker.SEVERITY_WARNING)); //$NON-NLS-1$
+        assertThat(mDeletedMarkers).containsExactly(stale);
+    }
+
+    @Test
+    void violationsOnDifferentColumnsAreToldApart() throws CoreException {
+        IMarker first = existingMarker(violation(3, 10, MESSAGE, IMarker.SEVERITY_WARNING));
+        IMarker second = existingMarker(violation(3, 20, MESSAGE, IMarker.SEVERITY_WARNING));
+
+        reconcile(violation(3, 20, MESSAGE, IMarker.SEVERITY_WARNING),
+            violation(3, 30, MESSAGE, IMarker.SEVERITY_WARNING));
+
+        assertThat(mUpdatedMarkers).isEmpty();
+        assertThat(mCreatedMarkers).hasSize(1);
+        assertThat(mCreatedMarkers.get(0).getAttributes().get(IMarker.CHAR_START)).isEqualTo(30);
+        assertThat(mDeletedMarkers).containsExactly(first);
+        assertThat(second.getAttributes().get(IMarker.CHAR_START)).isEqualTo(20);
+    }
+
+    @Test
+    void duplicateViolationsKeepOneMarkerEach() throws CoreException {
+        existingMarker(violation(3, 10, MESSAGE, IMarker.SEVERITY_WARNING));
+
+        reconcile(violation(3, 10, MESSAGE, IMarker.SEVERITY_WARNING),
+            violation(3, 10, MESSAGE, IMarker.SEVERITY_WARNING));
+
+        assertThat(mCreatedMarkers).hasSize(1);
+        assertThat(mDeletedMarkers).isEmpty();
+    }
+
+    @Test
+    void allMarkersAreDeletedForAFileWithoutViolations() throws CoreException {
+        IMarker first =
+            existingMarker(violation(1, 0, "first", IMarker.SEVERITY_WARNING)); //$NON-NLS-1$
+        IMarker second =
+            existingMarker(violation(2, 0, "second", IMarker.SEVERITY_ERROR)); //$NON-NLS-1$
+
+        reconcile();
+
+        assertThat(mCreatedMarkers).isEmpty();
+        assertThat(mDeletedMarkers).containsExactlyInAnyOrder(first, second);
+    }
+
+    @SafeVarargs
+    private void reconcile(Map<String, Object>... violations) throws CoreException {
+        MarkerBatch.reconcileMarkers(createResource(), Arrays.asList(violations));
+    }
+
+    private static Map<String, Object> violation(int line, int charStart, String message,
+        int severity) {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(CheckstyleMarker.MODULE_NAME, "Module"); //$NON-NLS-1$
+        attributes.put(CheckstyleMarker.MESSAGE_KEY, "key"); //$NON-NLS-1$
+        attributes.put(IMarker.LINE_NUMBER, line);
+        attributes.put(IMarker.CHAR_START, charStart);
+        attributes.put(IMarker.MESSAGE, message);
+        attributes.put(IMarker.SEVERITY, severity);
+        return attributes;
+    }
+
+    private IMarker existingMarker(Map<String, Object> attributes) {
+        IMarker marker = createMarker(attributes);
+        mExistingMarkers.add(marker);
+        return marker;
+    }
+
+    private IResource createResource() {
+        IWorkspace workspace = (IWorkspace) Proxy.newProxyInstance(
+            IWorkspace.class.getClassLoader(), new Class<?>[] {IWorkspace.class},
+            (proxy, method, args) -> {
+                if ("deleteMarkers".equals(method.getName())) { //$NON-NLS-1$
+                    mDeletedMarkers.addAll(Arrays.asList((IMarker[]) args[0]));
+                }
+                return null;
+            });
+        return (IResource) Proxy.newProxyInstance(IResource.class.getClassLoader(),
+            new Class<?>[] {IResource.class}, (proxy, method, args) -> {
+                Object result = null;
+                if ("findMarkers".equals(method.getName())) { //$NON-NLS-1$
+                    result = mExistingMarkers.toArray(new IMarker[0]);
+                }
+                else if ("createMarker".equals(method.getName())) { //$NON-NLS-1$
+                    IMarker marker = createMarker(new HashMap<>());
+                    mCreatedMarkers.add(marker);
+                    result = marker;
+                }
+                else if ("getWorkspace".equals(method.getName())) { //$NON-NLS-1$
+                    result = workspace;
+                }
+                return result;
+            });
+    }
+
+    /**
+     * Creates a marker keeping its attributes in the given map. Setting the attributes of a marker
+     * which is not new counts as an update.
+     */
+    private IMarker createMarker(Map<String, Object> attributes) {
+        return (IMarker) Proxy.newProxyInstance(IMarker.class.getClassLoader(),
+            new Class<?>[] {IMarker.class}, (proxy, method, args) -> {
+                Object result = null;
+                switch (method.getName()) {
+                    case "getAttributes" -> result = new HashMap<>(attributes); //$NON-NLS-1$
+                    case "setAttributes" -> { //$NON-NLS-1$
+                        if (!mCreatedMarkers.contains(proxy)) {
+                            mUpdatedMarkers.add((IMarker) proxy);
+                        }
+                        attributes.clear();
+                        attributes.putAll(castAttributes(args[0]));
+                    }
+                    case "equals" -> result = proxy == args[0]; //$NON-NLS-1$
+                    case "hashCode" -> result = System.identityHashCode(proxy); //$NON-NLS-1$
+                    default -> {
+                        // other methods are not used by the reconciliation
+                    }
+                }
+                return result;
+            });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> castAttributes(Object attributes) {
+        return (Map<String, Object>) attributes;
+    }
+}
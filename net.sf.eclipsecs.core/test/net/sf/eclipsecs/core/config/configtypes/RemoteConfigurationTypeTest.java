@@ -0,0 +1,199 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+package net.sf.eclipsecs.core.config.configtypes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.osgi.service.prefs.BackingStoreException;
+
+import net.sf.eclipsecs.core.CheckstylePluginPrefs;
+
+class RemoteConfigurationTypeTest {
+
+    private static final String ETAG = "\"1\""; //$NON-NLS-1$
+
+    /** The configuration type under test. */
+    private final RemoteConfigurationType mType = new RemoteConfigurationType();
+
+    /** The content served by the fake server, <code>null</code> to answer with 404. */
+    private byte[] mContent = bytes("<module name=\"Checker\"/>"); //$NON-NLS-1$
+
+    /** The entity tag of the served content. */
+    private String mEtag = ETAG;
+
+    /** The If-None-Match header of each request, <code>null</code> for plain requests. */
+    private final List<String> mRequests = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        RemoteConfigurationType.clearCachedContents();
+    }
+
+    @AfterEach
+    void tearDown() throws BackingStoreException {
+        RemoteConfigurationType.clearCachedContents();
+        setRevalidationInterval(CheckstylePluginPrefs.REMOTE_CONFIG_REVALIDATION_INTERVAL);
+    }
+
+    @Test
+    void contentIsNotDownloadedAgainWithinTheInterval() throws Exception {
+        setRevalidationInterval(60);
+        URL url = url("config.xml"); //$NON-NLS-1$
+
+        byte[] first = mType.getBytesFromURL(url);
+        byte[] second = mType.getBytesFromURL(url);
+
+        assertThat(second).isEqualTo(first);
+        assertThat(mRequests).hasSize(1);
+    }
+
+    @Test
+    void unchangedContentIsRevalidatedConditionally() throws Exception {
+        setRevalidationInterval(0);
+        URL url = url("config.xml"); //$NON-NLS-1$
+
+        byte[] first = mType.getBytesFromURL(url);
+        byte[] second = mType.getBytesFromURL(url);
+
+        assertThat(second).isSameAs(first);
+        assertThat(mRequests).containsExactly(null, ETAG);
+    }
+
+    @Test
+    void changedContentIsDownloadedOnRevalidation() throws Exception {
+        setRevalidationInterval(0);
+        URL url = url("config.xml"); //$NON-NLS-1$
+        mType.getBytesFromURL(url);
+
+        mContent = bytes("<module name=\"Checker\"></module>"); //$NON-NLS-1$
+        mEtag = "\"2\""; //$NON-NLS-1$
+
+        assertThat(mType.getBytesFromURL(url)).isEqualTo(mContent);
+        assertThat(mRequests).containsExactly(null, ETAG);
+    }
+
+    @Test
+    void missingContentIsRemembered() throws Exception {
+        setRevalidationInterval(60);
+        mContent = null;
+        URL url = url("config.properties"); //$NON-NLS-1$
+
+        assertThatThrownBy(() -> mType.getBytesFromURL(url))
+            .isInstanceOf(FileNotFoundException.class);
+        assertThatThrownBy(() -> mType.getBytesFromURL(url))
+            .isInstanceOf(FileNotFoundException.class);
+        assertThat(mRequests).hasSize(1);
+    }
+
+    private URL url(String path) throws MalformedURLException {
+        return new URL(null, "http://config.example.com/" + path, //$NON-NLS-1$
+            new URLStreamHandler() {
+                @Override
+                protected URLConnection openConnection(URL url) {
+                    return new FakeConnection(url);
+                }
+            });
+    }
+
+    private static byte[] bytes(String contents) {
+        return contents.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void setRevalidationInterval(int seconds) throws BackingStoreException {
+        CheckstylePluginPrefs.setInt(CheckstylePluginPrefs.PREF_REMOTE_CONFIG_REVALIDATION_INTERVAL,
+            seconds);
+    }
+
+    /**
+     * Connection answering from the content of the test, with 304 if the entity tag sent along
+     * matches.
+     */
+    private final class FakeConnection extends HttpURLConnection {
+
+        FakeConnection(URL url) {
+            super(url);
+        }
+
+        @Override
+        public void connect() {
+            if (!connected) {
+                String etag = getRequestProperty("If-None-Match"); //$NON-NLS-1$
+                mRequests.add(etag);
+                connected = true;
+                if (mContent == null) {
+                    responseCode = HTTP_NOT_FOUND;
+                }
+                else if (mEtag.equals(etag)) {
+                    responseCode = HTTP_NOT_MODIFIED;
+                }
+                else {
+                    responseCode = HTTP_OK;
+                }
+            }
+        }
+
+        @Override
+        public int getResponseCode() {
+            connect();
+            return responseCode;
+        }
+
+        @Override
+        public InputStream getInputStream() throws FileNotFoundException {
+            connect();
+            if (responseCode == HTTP_NOT_FOUND) {
+                throw new FileNotFoundException(url.toString());
+            }
+            return new ByteArrayInputStream(
+                responseCode == HTTP_OK ? mContent : new byte[0]);
+        }
+
+        @Override
+        public String getHeaderField(String name) {
+            return "ETag".equalsIgnoreCase(name) ? mEtag : null; //$NON-NLS-1$
+        }
+
+        @Override
+        public void disconnect() {
+            connected = false;
+        }
+
+        @Override
+        public boolean usingProxy() {
+            return false;
+        }
+    }
+}
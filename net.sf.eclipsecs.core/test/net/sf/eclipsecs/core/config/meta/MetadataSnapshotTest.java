@@ -0,0 +1,162 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+
+package net.sf.eclipsecs.core.config.meta;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.sf.eclipsecs.core.config.Severity;
+
+class MetadataSnapshotTest {
+
+    private static final String KEY = "key"; //$NON-NLS-1$
+
+    private static final String RULE = "com.example.RuleCheck"; //$NON-NLS-1$
+
+    @TempDir
+    Path mFolder;
+
+    @Test
+    void contentsSurviveTheRoundTrip() {
+        Path snapshotFile = mFolder.resolve("metadata.snapshot"); //$NON-NLS-1$
+
+        MetadataSnapshot.store(snapshotFile, KEY, createContents(RULE, List.of(createProperty())));
+        MetadataSnapshot.Contents contents = MetadataSnapshot.read(snapshotFile, KEY).get();
+
+        RuleGroupMetadata group = contents.ruleGroups().get("Group"); //$NON-NLS-1$
+        assertThat(group.getGroupId()).isEqualTo("group"); //$NON-NLS-1$
+        assertThat(group.getDescription()).isNull();
+        assertThat(group.isHidden()).isTrue();
+        assertThat(group.getPriority()).isEqualTo(10);
+
+        RuleMetadata rule = contents.rules().get(RULE);
+        assertThat(group.getRuleMetadata()).containsExactly(rule);
+        assertThat(contents.alternativeNames().get("Alternative")).isSameAs(rule); //$NON-NLS-1$
+        assertThat(rule.identity().ruleName()).isEqualTo("Rule"); //$NON-NLS-1$
+        assertThat(rule.identity().parent()).isEqualTo("TreeWalker"); //$NON-NLS-1$
+        assertThat(rule.identity().group()).isSameAs(group);
+        assertThat(rule.identity().alternativeNames())
+            .containsExactly("Alternative"); //$NON-NLS-1$
+        assertThat(rule.defaultSeverity()).isEqualTo(Severity.WARNING);
+        assertThat(rule.hasSeverity()).isTrue();
+        assertThat(rule.deletable()).isFalse();
+        assertThat(rule.messageKeys())
+            .containsExactly("key.one", "key.two"); //$NON-NLS-1$ //$NON-NLS-2$
+
+        ConfigPropertyMetadata property = rule.configPropMetadata().get(0);
+        assertThat(rule.configPropMetadata()).hasSize(1);
+        assertThat(property.getDatatype()).isEqualTo(ConfigPropertyType.SINGLE_SELECT);
+        assertThat(property.getName()).isEqualTo("option"); //$NON-NLS-1$
+        assertThat(property.getDefaultValue()).isEqualTo("first"); //$NON-NLS-1$
+        assertThat(property.getOverrideDefault()).isNull();
+        assertThat(property.getDescription()).isEqualTo("The option."); //$NON-NLS-1$
+        assertThat(property.getPropertyEnumeration())
+            .containsExactly("first", "second"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    @Test
+    void snapshotOfAnotherKeyIsNotRead() {
+        Path snapshotFile = mFolder.resolve("metadata.snapshot"); //$NON-NLS-1$
+        MetadataSnapshot.store(snapshotFile, KEY, createContents(RULE, List.of()));
+
+        assertThat(MetadataSnapshot.read(snapshotFile, "other")).isEmpty(); //$NON-NLS-1$
+    }
+
+    @Test
+    void missingOrCorruptSnapshotIsNotRead() throws IOException {
+        Path snapshotFile = mFolder.resolve("metadata.snapshot"); //$NON-NLS-1$
+        assertThat(MetadataSnapshot.read(snapshotFile, KEY)).isEmpty();
+
+        Files.write(snapshotFile, new byte[] {0, 0, 0, 3, 'k', 'e', 'y', 0, 0});
+        assertThat(MetadataSnapshot.read(snapshotFile, KEY)).isEmpty();
+    }
+
+    @Test
+    void storeReplacesThePreviousSnapshot() throws IOException {
+        Path snapshotFile = mFolder.resolve("metadata.snapshot"); //$NON-NLS-1$
+        MetadataSnapshot.store(snapshotFile, KEY, createContents(RULE, List.of()));
+
+        MetadataSnapshot.store(snapshotFile, "other", //$NON-NLS-1$
+            createContents(RULE, List.of()));
+
+        assertThat(MetadataSnapshot.read(snapshotFile, KEY)).isEmpty();
+        assertThat(MetadataSnapshot.read(snapshotFile, "other")).isPresent(); //$NON-NLS-1$
+        try (Stream<Path> files = Files.list(mFolder)) {
+            assertThat(files.toList()).containsExactly(snapshotFile);
+        }
+    }
+
+    @Test
+    void unloadedPropertiesAreLeftOut() {
+        Path snapshotFile = mFolder.resolve("metadata.snapshot"); //$NON-NLS-1$
+        LazyList<ConfigPropertyMetadata> properties =
+            new LazyList<>(() -> List.of(createProperty()));
+
+        // a rule without package has no Checkstyle metadata to build the properties from
+        MetadataSnapshot.store(snapshotFile, KEY,
+            createContents("RuleCheck", properties)); //$NON-NLS-1$
+
+        assertThat(properties.isLoaded()).isFalse();
+        RuleMetadata rule = MetadataSnapshot.read(snapshotFile, KEY).get().rules()
+            .get("RuleCheck"); //$NON-NLS-1$
+        assertThat(rule.configPropMetadata()).isEmpty();
+    }
+
+    private static MetadataSnapshot.Contents createContents(String internalName,
+        List<ConfigPropertyMetadata> properties) {
+        RuleGroupMetadata group =
+            new RuleGroupMetadata("group", "Group", null, true, 10); //$NON-NLS-1$ //$NON-NLS-2$
+        RuleIdentity identity = new RuleIdentity("Rule", internalName, //$NON-NLS-1$
+            "TreeWalker", group, "Checks.", //$NON-NLS-1$ //$NON-NLS-2$
+            List.of("Alternative")); //$NON-NLS-1$
+        RuleMetadata rule = new RuleMetadata(identity, Severity.WARNING, false, true, false, true,
+            List.of("key.one", "key.two"), properties); //$NON-NLS-1$ //$NON-NLS-2$
+        group.getRuleMetadata().add(rule);
+
+        Map<String, RuleGroupMetadata> groups = new TreeMap<>();
+        groups.put(group.getGroupName(), group);
+        Map<String, RuleMetadata> rules = new HashMap<>();
+        rules.put(identity.internalName(), rule);
+        Map<String, RuleMetadata> alternativeNames = new HashMap<>();
+        alternativeNames.put("Alternative", rule); //$NON-NLS-1$
+        return new MetadataSnapshot.Contents(groups, rules, alternativeNames);
+    }
+
+    private static ConfigPropertyMetadata createProperty() {
+        ConfigPropertyMetadata property = new ConfigPropertyMetadata(
+            ConfigPropertyType.SINGLE_SELECT, "option", "first", null); //$NON-NLS-1$ //$NON-NLS-2$
+        property.setDescription("The option."); //$NON-NLS-1$
+        property.getPropertyEnumeration()
+            .addAll(List.of("first", "second")); //$NON-NLS-1$ //$NON-NLS-2$
+        return property;
+    }
+}
@@ -0,0 +1,109 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+
+package net.sf.eclipsecs.core.projectconfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+import net.sf.eclipsecs.core.util.CheckstylePluginException;
+
+class FileSetMatcherTest {
+
+    /** Patterns covering the literal shortcuts and the regular expression fallback. */
+    private static final List<String> PATTERNS = List.of(".*", "^src/", "\\.java$",
+        "^src/Main\\.java$", "gen", ".*test.*", "^.*$", "^$", "Main\\.*", "a\\\\.*", "b\\$",
+        "[abc]\\.java$", "x|y", "(?i)readme", "\\d", "^src/.*\\.java$");
+
+    /** Paths to match the patterns against. */
+    private static final List<String> PATHS = List.of("", "src/Main.java", "src/Main.javax",
+        "src/gen/Foo.java", "test/FooTest.java", "Main...", "a\\b", "dir/b$", "lib/a.java",
+        "README.md", "readme", "y", "doc/v2/x.txt", "main.java");
+
+    @Test
+    void singlePatternMatchesLikeItsRegularExpression() throws CheckstylePluginException {
+        for (String pattern : PATTERNS) {
+            FileSetMatcher matcher = new FileSetMatcher(List.of(new FileMatchPattern(pattern)));
+            Pattern regex = Pattern.compile(pattern);
+            for (String path : PATHS) {
+                assertThat(matcher.includes(path)).as("%s on '%s'", pattern, path)
+                    .isEqualTo(regex.matcher(path).find());
+            }
+        }
+    }
+
+    @Test
+    void lastMatchingPatternDecides() throws CheckstylePluginException {
+        FileSetMatcher matcher = new FileSetMatcher(
+            List.of(include(".*"), exclude("^src/gen/"), include("Keep\\.java$")));
+
+        assertThat(matcher.includes("src/Main.java")).isTrue();
+        assertThat(matcher.includes("src/gen/Generated.java")).isFalse();
+        assertThat(matcher.includes("src/gen/Keep.java")).isTrue();
+    }
+
+    @Test
+    void pathMatchedByNoPatternIsExcluded() throws CheckstylePluginException {
+        FileSetMatcher matcher = new FileSetMatcher(List.of(include("\\.java$")));
+
+        assertThat(matcher.includes("build.xml")).isFalse();
+        assertThat(new FileSetMatcher(List.of()).includes("Main.java")).isFalse();
+    }
+
+    @Test
+    void matcherIsIndependentOfLaterPatternChanges() throws CheckstylePluginException {
+        List<FileMatchPattern> patterns = new ArrayList<>(List.of(include("\\.java$")));
+        FileSetMatcher matcher = new FileSetMatcher(patterns);
+        assertThat(matcher.isCompiledFrom(patterns)).isTrue();
+
+        patterns.get(0).setIsIncludePattern(false);
+
+        assertThat(matcher.isCompiledFrom(patterns)).isFalse();
+        assertThat(matcher.includes("Main.java")).isTrue();
+    }
+
+    @Test
+    void resultsStayCorrectWhenTheMemoIsStartedAnew() throws CheckstylePluginException {
+        FileSetMatcher matcher =
+            new FileSetMatcher(List.of(include(".*"), exclude("[13579]\\.java$")));
+
+        for (int i = 0; i < 50000; i++) {
+            String path = "src/File" + i + ".java";
+            assertThat(matcher.includes(path)).as(path).isEqualTo(i % 2 == 0);
+        }
+        assertThat(matcher.includes("src/File0.java")).isTrue();
+        assertThat(matcher.includes("src/File1.java")).isFalse();
+    }
+
+    private static FileMatchPattern include(String pattern) throws CheckstylePluginException {
+        return new FileMatchPattern(pattern);
+    }
+
+    private static FileMatchPattern exclude(String pattern) throws CheckstylePluginException {
+        FileMatchPattern fileMatchPattern = new FileMatchPattern(pattern);
+        fileMatchPattern.setIsIncludePattern(false);
+        return fileMatchPattern;
+    }
+}
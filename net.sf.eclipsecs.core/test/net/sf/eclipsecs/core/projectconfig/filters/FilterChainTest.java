@@ -0,0 +1,165 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+package net.sf.eclipsecs.core.projectconfig.filters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFolder;
+import org.junit.jupiter.api.Test;
+
+class FilterChainTest {
+
+    private static final String FIRST = "a1"; //$NON-NLS-1$
+
+    private static final String SECOND = "a2"; //$NON-NLS-1$
+
+    private static final List<String> ELEMENTS =
+        List.of(FIRST, "b1", SECOND, "b2"); //$NON-NLS-1$ //$NON-NLS-2$
+
+    /** The costs of the filters in the order they have been evaluated. */
+    private final List<Integer> mEvaluations = new ArrayList<>();
+
+    @Test
+    void cheaperFiltersAreEvaluatedFirst() {
+        RecordingFilter external = new RecordingFilter(IBatchFilter.COST_EXTERNAL, element -> true);
+        RecordingFilter cheap = new RecordingFilter(IBatchFilter.COST_CHEAP,
+            element -> element.startsWith("a")); //$NON-NLS-1$
+        RecordingFilter project = new RecordingFilter(IBatchFilter.COST_PROJECT, element -> true);
+
+        List<String> accepted = FilterChain.filter(List.of(external, cheap, project), ELEMENTS);
+
+        assertThat(accepted).containsExactly(FIRST, SECOND);
+        assertThat(mEvaluations).containsExactly(IBatchFilter.COST_CHEAP,
+            IBatchFilter.COST_PROJECT, IBatchFilter.COST_EXTERNAL);
+        assertThat(cheap.mSeen).isEqualTo(ELEMENTS);
+        assertThat(external.mSeen).containsExactly(FIRST, SECOND);
+    }
+
+    @Test
+    void remainingFiltersAreSkippedOnceNothingPasses() {
+        RecordingFilter cheap = new RecordingFilter(IBatchFilter.COST_CHEAP, element -> false);
+        RecordingFilter external = new RecordingFilter(IBatchFilter.COST_EXTERNAL, element -> true);
+
+        assertThat(FilterChain.filter(List.of(external, cheap), ELEMENTS)).isEmpty();
+        assertThat(mEvaluations).containsExactly(IBatchFilter.COST_CHEAP);
+    }
+
+    @Test
+    void disabledFiltersAreSkipped() {
+        RecordingFilter disabled = new RecordingFilter(IBatchFilter.COST_CHEAP, element -> false);
+        disabled.setEnabled(false);
+
+        assertThat(FilterChain.filter(List.of(disabled), ELEMENTS)).isEqualTo(ELEMENTS);
+        assertThat(mEvaluations).isEmpty();
+    }
+
+    @Test
+    void plainFiltersAreEvaluatedElementByElement() {
+        IFilter plain = (IFilter) Proxy.newProxyInstance(IFilter.class.getClassLoader(),
+            new Class<?>[] {IFilter.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "isEnabled" -> true; //$NON-NLS-1$
+                case "accept" -> ((String) args[0]).endsWith("2"); //$NON-NLS-1$ //$NON-NLS-2$
+                default -> null;
+            });
+
+        assertThat(FilterChain.filter(List.of(plain), ELEMENTS))
+            .containsExactly(SECOND, "b2"); //$NON-NLS-1$
+    }
+
+    @Test
+    void derivedContainerExcludesItsSubtree() {
+        DerivedFilesFilter derived = new DerivedFilesFilter();
+        derived.setEnabled(true);
+
+        assertThat(FilterChain.canExcludeSubtrees(List.of(derived))).isTrue();
+        assertThat(FilterChain.excludesSubtree(List.of(derived), folder(true))).isTrue();
+        assertThat(FilterChain.excludesSubtree(List.of(derived), folder(false))).isFalse();
+    }
+
+    @Test
+    void disabledFiltersDoNotExcludeSubtrees() {
+        DerivedFilesFilter derived = new DerivedFilesFilter();
+
+        assertThat(FilterChain.canExcludeSubtrees(List.of(derived))).isFalse();
+        assertThat(FilterChain.excludesSubtree(List.of(derived), folder(true))).isFalse();
+    }
+
+    @Test
+    void filtersWithoutPruningDoNotExcludeSubtrees() {
+        RecordingFilter filter = new RecordingFilter(IBatchFilter.COST_CHEAP, element -> false);
+
+        assertThat(FilterChain.canExcludeSubtrees(List.of(filter))).isFalse();
+        assertThat(FilterChain.excludesSubtree(List.of(filter), folder(true))).isFalse();
+        assertThat(filter.mSeen).isEmpty();
+    }
+
+    private static IContainer folder(boolean derived) {
+        return (IContainer) Proxy.newProxyInstance(IFolder.class.getClassLoader(),
+            new Class<?>[] {IFolder.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "isDerived" -> derived; //$NON-NLS-1$
+                default -> null;
+            });
+    }
+
+    /**
+     * Filter with a given cost, recording the elements it has been asked about.
+     */
+    private final class RecordingFilter extends AbstractFilter {
+
+        /** The cost of the filter. */
+        private final int mCost;
+
+        /** Decides which elements pass. */
+        private final Predicate<String> mAccepted;
+
+        /** The elements the filter has been evaluated on. */
+        private final List<Object> mSeen = new ArrayList<>();
+
+        RecordingFilter(int cost, Predicate<String> accepted) {
+            setEnabled(true);
+            mCost = cost;
+            mAccepted = accepted;
+        }
+
+        @Override
+        public <T> List<T> acceptAll(Collection<T> elements) {
+            mEvaluations.add(mCost);
+            return super.acceptAll(elements);
+        }
+
+        @Override
+        public boolean accept(Object element) {
+            mSeen.add(element);
+            return mAccepted.test((String) element);
+        }
+
+        @Override
+        public int getCost() {
+            return mCost;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+package net.sf.eclipsecs.core.projectconfig.filters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.runtime.Path;
+import org.junit.jupiter.api.Test;
+
+class PackageFilterTest {
+
+    private static final String EXCLUDED = "src/gen"; //$NON-NLS-1$
+
+    @Test
+    void excludedPackageExcludesItsSubtree() {
+        PackageFilter filter = filter(EXCLUDED);
+
+        assertThat(filter.canExcludeSubtrees()).isTrue();
+        assertThat(filter.excludesSubtree(folder(EXCLUDED))).isTrue();
+        assertThat(filter.excludesSubtree(folder("src/gen/sub"))).isTrue(); //$NON-NLS-1$
+        assertThat(filter.excludesSubtree(folder("src"))).isFalse(); //$NON-NLS-1$
+        assertThat(filter.excludesSubtree(folder("src/generated"))).isFalse(); //$NON-NLS-1$
+    }
+
+    @Test
+    void filesBelowAnExcludedPackageAreRejected() {
+        PackageFilter filter = filter(EXCLUDED);
+
+        assertThat(filter.accept(file(folder("src/gen/sub")))).isFalse(); //$NON-NLS-1$
+        assertThat(filter.accept(file(folder("src/main")))).isTrue(); //$NON-NLS-1$
+    }
+
+    @Test
+    void packageExcludedWithoutSubPackagesDoesNotExcludeItsSubtree() {
+        PackageFilter filter = filter(EXCLUDED, PackageFilter.RECURSE_OFF_MARKER);
+
+        assertThat(filter.canExcludeSubtrees()).isFalse();
+        assertThat(filter.excludesSubtree(folder(EXCLUDED))).isFalse();
+        assertThat(filter.accept(file(folder(EXCLUDED)))).isFalse();
+        assertThat(filter.accept(file(folder("src/gen/sub")))).isTrue(); //$NON-NLS-1$
+    }
+
+    private static PackageFilter filter(String... filterData) {
+        PackageFilter filter = new PackageFilter();
+        filter.setFilterData(List.of(filterData));
+        filter.setEnabled(true);
+        return filter;
+    }
+
+    private static IContainer folder(String projectRelativePath) {
+        return (IContainer) Proxy.newProxyInstance(IFolder.class.getClassLoader(),
+            new Class<?>[] {IFolder.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "getProjectRelativePath" -> new Path(projectRelativePath); //$NON-NLS-1$
+                default -> null;
+            });
+    }
+
+    private static IFile file(IContainer parent) {
+        return (IFile) Proxy.newProxyInstance(IFile.class.getClassLoader(),
+            new Class<?>[] {IFile.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "getParent" -> parent; //$NON-NLS-1$
+                default -> null;
+            });
+    }
+}
@@ -43,9 +43,11 @@ import org.eclipse.ui.model.WorkbenchLabelProvider;
 import net.sf.eclipsecs.core.config.CheckConfigurationWorkingCopy;
 import net.sf.eclipsecs.core.config.ICheckConfiguration;
 import net.sf.eclipsecs.core.config.ICheckConfigurationWorkingSet;
+import net.sf.eclipsecs.core.projectconfig.FileSet;
 import net.sf.eclipsecs.core.projectconfig.IProjectConfiguration;
 import net.sf.eclipsecs.core.projectconfig.ProjectConfigurationFactory;
 import net.sf.eclipsecs.core.projectconfig.ProjectConfigurationWorkingCopy;
+import net.sf.eclipsecs.core.projectconfig.filters.IFilter;
 import net.sf.eclipsecs.core.util.CheckstylePluginException;
 import net.sf.eclipsecs.ui.CheckstyleUIPlugin;
 import net.sf.eclipsecs.ui.Messages;
@@ -165,8 +167,13 @@ public class ConfigureProjectFromBluePrintAction implements IObjectActionDelegat
 
                     // add filesets and filters
                     workingCopy.setUseSimpleConfig(bluePrintConfig.isUseSimpleConfig());
-                    workingCopy.getFileSets().addAll(bluePrintConfig.getFileSets());
-                    workingCopy.getFilters().addAll(bluePrintConfig.getFilters());
+                    // copy them, the blueprint configuration is shared with its builds
+                    for (FileSet fileSet : bluePrintConfig.getFileSets()) {
+                        workingCopy.getFileSets().add(fileSet.clone());
+                    }
+                    for (IFilter filter : bluePrintConfig.getFilters()) {
+                        workingCopy.getFilters().add(filter.clone());
+                    }
 
                     workingCopy.store();
                 }
@@ -47,6 +47,7 @@ import net.sf.eclipsecs.core.jobs.RunCheckstyleOnFilesJob;
 import net.sf.eclipsecs.core.nature.CheckstyleNature;
 import net.sf.eclipsecs.core.projectconfig.IProjectConfiguration;
 import net.sf.eclipsecs.core.projectconfig.ProjectConfigurationFactory;
+import net.sf.eclipsecs.core.projectconfig.filters.FilterChain;
 import net.sf.eclipsecs.core.projectconfig.filters.IFilter;
 import net.sf.eclipsecs.core.projectconfig.filters.UnOpenedFilesFilter;
 import net.sf.eclipsecs.core.util.CheckstyleLog;
@@ -172,20 +173,18 @@ public class CheckFileOnOpenPartListener implements IPartListener2 {
 
                 // now check if the UnOpenedFilesFilter is active
                 boolean unOpenedFilesFilterActive = false;
-                boolean filtered = false;
-                List<IFilter> filters = config.getFilters();
-                for (IFilter filter : filters) {
-                    if (filter.isEnabled()) {
-                        if (filter instanceof UnOpenedFilesFilter) {
-                            unOpenedFilesFilterActive = true;
-                        }
-                        else {
-                            filtered = filtered || !filter.accept(file);
-                        }
+                List<IFilter> otherFilters = new ArrayList<>();
+                for (IFilter filter : config.getFilters()) {
+                    if (filter instanceof UnOpenedFilesFilter) {
+                        unOpenedFilesFilterActive |= filter.isEnabled();
+                    }
+                    else {
+                        otherFilters.add(filter);
                     }
                 }
 
-                isFileAffected = unOpenedFilesFilterActive && !filtered;
+                isFileAffected = unOpenedFilesFilterActive
+                    && !FilterChain.filter(otherFilters, List.of(file)).isEmpty();
             }
         }
         catch (CoreException | CheckstylePluginException ex) {
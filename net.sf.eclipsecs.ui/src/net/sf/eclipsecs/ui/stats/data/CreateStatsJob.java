@@ -20,9 +20,12 @@
 
 package net.sf.eclipsecs.ui.stats.data;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 import java.util.regex.Pattern;
 
 import org.eclipse.core.resources.IMarker;
@@ -31,12 +34,11 @@ import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 
 import net.sf.eclipsecs.core.builder.CheckstyleMarker;
-import net.sf.eclipsecs.core.config.meta.MetadataFactory;
-import net.sf.eclipsecs.core.util.CheckstyleLog;
 import net.sf.eclipsecs.ui.CheckstyleUIPlugin;
 import net.sf.eclipsecs.ui.stats.Messages;
 import net.sf.eclipsecs.ui.stats.views.internal.CheckstyleMarkerFilter;
@@ -53,6 +55,12 @@ public class CreateStatsJob extends Job {
     /** Regexp to find suites of ' character. */
     private static final Pattern REGEXP_QUOTE = Pattern.compile("'+"); //$NON-NLS-1$
 
+    /** The minimum number of markers analyzed by one parallel task. */
+    private static final int MIN_CHUNK_SIZE = 1024;
+
+    /** The number of chunks per worker thread, so that workers finishing early can help out. */
+    private static final int CHUNKS_PER_WORKER = 4;
+
     /** The filter to analyze. */
     private final CheckstyleMarkerFilter mFilter;
 
@@ -95,81 +103,75 @@ public class CreateStatsJob extends Job {
             int wholeAmountOfMarkers = ResourcesPlugin.getWorkspace().getRoot()
                 .findMarkers(CheckstyleMarker.MARKER_ID, true, IResource.DEPTH_INFINITE).length;
 
-            IMarker[] markers = mFilter.findMarkers(monitor);
-
-            Map<String, MarkerStat> markerStats = new HashMap<>();
-
-            for (int i = 0, size = markers.length; i < size; i++) {
-
-                String message = null;
-                try {
-                    message = getUnlocalizedMessage(markers[i]);
-                    message = cleanMessage(message);
-                }
-                catch (CoreException ex) {
-                    CheckstyleLog.log(ex, Messages.CreateStatsJob_errorAnalyzingMarkers);
-                }
-
-                // check that the message is not empty
-                if (message == null || message.trim().length() == 0) {
-                    // cela ne devrait pas arriver, mais bon, on laisse faire
-                    CheckstyleLog.log(null, Messages.CreateStatsJob_markerMessageShouldntBeEmpty);
-                    continue;
-                }
-
-                // puis on recherche
-                MarkerStat stat = markerStats.get(message);
-                if (stat == null) {
-                    // 1ere fois qu'on rencontre un marqueur de ce type
-                    MarkerStat newMarkerStat = new MarkerStat(message);
-                    newMarkerStat.addMarker(markers[i]);
-                    markerStats.put(newMarkerStat.getIdentifiant(), newMarkerStat);
-                }
-                else {
-                    // on augmente juste le nombre d'occurence
-                    stat.addMarker(markers[i]);
-                }
-            }
+            IMarker[] markers = mFilter.findMarkersInScope(monitor);
 
-            mStats = new Stats(markerStats.values(), markers.length, wholeAmountOfMarkers);
+            monitor.beginTask(Messages.CreateStatsJob_msgAnalyzeMarkers, markers.length);
+            mStats = analyzeMarkers(markers, wholeAmountOfMarkers, monitor);
             status = Status.OK_STATUS;
         }
         catch (CoreException ex) {
             status = new Status(IStatus.ERROR, CheckstyleUIPlugin.PLUGIN_ID, IStatus.OK,
                 Messages.CreateStatsJob_errorAnalyzingMarkers, ex);
         }
+        catch (OperationCanceledException ex) {
+            status = Status.CANCEL_STATUS;
+        }
+        finally {
+            monitor.done();
+        }
 
         return status;
     }
 
     /**
-     * Returns the statistics data compiled by the job.
+     * Analyzes the markers in parallel chunks. Each chunk builds partial statistics, which are
+     * merged in the order of the markers afterwards. Cancellation is checked for each chunk.
      *
+     * @param markers
+     *            the markers to analyze
+     * @param wholeAmountOfMarkers
+     *            the number of all Checkstyle markers in the workspace
+     * @param monitor
+     *            the progress monitor
      * @return the statistics data
      */
-    public Stats getStats() {
-        return mStats;
+    private Stats analyzeMarkers(IMarker[] markers, int wholeAmountOfMarkers,
+        IProgressMonitor monitor) {
+        int chunkSize = Math.max(MIN_CHUNK_SIZE,
+            markers.length / (ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_WORKER));
+
+        // the chunks are forked from within the pool, the job thread just waits for them
+        List<AnalyzeMarkersTask> tasks = ForkJoinPool.commonPool().invoke(ForkJoinTask.adapt(() -> {
+            List<AnalyzeMarkersTask> chunks = new ArrayList<>();
+            for (int start = 0; start < markers.length; start += chunkSize) {
+                chunks.add(new AnalyzeMarkersTask(markers, start,
+                    Math.min(start + chunkSize, markers.length), monitor));
+            }
+            ForkJoinTask.invokeAll(chunks);
+            return chunks;
+        }));
+
+        Stats stats = new Stats(markers.length, wholeAmountOfMarkers);
+        for (AnalyzeMarkersTask task : tasks) {
+            checkCanceled(monitor);
+            stats.merge(task.join());
+        }
+        return stats;
+    }
+
+    private static void checkCanceled(IProgressMonitor monitor) {
+        if (monitor.isCanceled()) {
+            throw new OperationCanceledException();
+        }
     }
 
     /**
-     * Returns the standard, untranslated message for a Checkstyle violation marker.
+     * Returns the statistics data compiled by the job.
      *
-     * @param marker
-     *            the marker
-     * @return the untranslated message
-     * @throws CoreException
-     *             error accessing marker attributes
+     * @return the statistics data
      */
-    public static String getUnlocalizedMessage(IMarker marker) throws CoreException {
-        String key = (String) marker.getAttribute(CheckstyleMarker.MESSAGE_KEY);
-        String moduleInternalName = (String) marker.getAttribute(CheckstyleMarker.MODULE_NAME);
-
-        String standardMessage = MetadataFactory.getStandardMessage(key, moduleInternalName);
-
-        if (standardMessage == null) {
-            standardMessage = (String) marker.getAttribute(IMarker.MESSAGE);
-        }
-        return standardMessage;
+    public Stats getStats() {
+        return mStats;
     }
 
     /**
@@ -186,4 +188,49 @@ public class CreateStatsJob extends Job {
 
         return finalMessage;
     }
+
+    /**
+     * Task building partial statistics for a chunk of the markers.
+     */
+    private final class AnalyzeMarkersTask extends RecursiveTask<Stats> {
+
+        /** Serial version UID. */
+        private static final long serialVersionUID = 1L;
+
+        /** The markers. */
+        private final IMarker[] mMarkers;
+
+        /** The index of the first marker of the chunk. */
+        private final int mStart;
+
+        /** The index after the last marker of the chunk. */
+        private final int mEnd;
+
+        /** The progress monitor, shared by all tasks. */
+        private final IProgressMonitor mMonitor;
+
+        private AnalyzeMarkersTask(IMarker[] markers, int start, int end,
+            IProgressMonitor monitor) {
+            mMarkers = markers;
+            mStart = start;
+            mEnd = end;
+            mMonitor = monitor;
+        }
+
+        @Override
+        protected Stats compute() {
+            checkCanceled(mMonitor);
+
+            Stats partial = new Stats(mEnd - mStart, 0);
+            for (int i = mStart; i < mEnd; i++) {
+                partial.addMarker(mMarkers[i], mFilter);
+            }
+
+            // progress monitors are not thread safe
+            synchronized (mMonitor) {
+                mMonitor.worked(mEnd - mStart);
+            }
+            return partial;
+        }
+    }
 }
@@ -0,0 +1,98 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+
+package net.sf.eclipsecs.ui.stats.data;
+
+import java.util.Optional;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+
+/**
+ * A marker of the statistics, referencing its row in the marker snapshot. The attributes are read
+ * from the snapshot on demand. Since the snapshot reuses the rows of removed markers, the entry
+ * remembers the id of its marker to detect that its row has been taken over.
+ *
+ * @param snapshot
+ *            the marker snapshot
+ * @param row
+ *            the row of the marker in the snapshot
+ * @param markerId
+ *            the id of the marker expected in the row
+ */
+public record MarkerEntry(MarkerSnapshot snapshot, int row, long markerId) {
+
+    /**
+     * Checks if the row of the entry still holds its marker.
+     *
+     * @return <code>true</code> if the row holds the marker, <code>false</code> if the marker has
+     *         been removed from the snapshot
+     */
+    public boolean isValid() {
+        return snapshot.getMarkerId(row) == markerId;
+    }
+
+    /**
+     * Returns the resource of the marker.
+     *
+     * @return the resource
+     */
+    public IResource getResource() {
+        return snapshot.getResource(row);
+    }
+
+    /**
+     * Returns the line number of the marker.
+     *
+     * @return the line number
+     */
+    public int getLine() {
+        return snapshot.getLine(row);
+    }
+
+    /**
+     * Returns the severity of the marker.
+     *
+     * @return the severity, <code>-1</code> if the marker has none
+     */
+    public int getSeverity() {
+        return snapshot.getSeverity(row);
+    }
+
+    /**
+     * Returns the message of the marker.
+     *
+     * @return the message, <code>null</code> if the marker has none
+     */
+    public String getMessage() {
+        return snapshot.getMessage(row);
+    }
+
+    /**
+     * Looks up the marker, for example to open it in an editor.
+     *
+     * @return the marker, empty if it does not exist anymore or its row has been taken over
+     */
+    public Optional<IMarker> getMarker() {
+        synchronized (snapshot) {
+            return isValid() ? snapshot.getMarker(row) : Optional.empty();
+        }
+    }
+}
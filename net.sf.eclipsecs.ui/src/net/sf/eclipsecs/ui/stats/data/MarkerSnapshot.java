@@ -0,0 +1,564 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+
+package net.sf.eclipsecs.ui.stats.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.function.Function;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+
+import net.sf.eclipsecs.core.builder.CheckstyleMarker;
+
+/**
+ * Columnar snapshot of the attributes of Checkstyle markers. The attributes of a marker are read
+ * with a single call to the marker manager and stored in primitive arrays, one row per marker.
+ * Resources and strings are interned and referenced by id. Interned values are dropped once no row
+ * references them anymore, so that their ids can be reused.
+ *
+ * <p>
+ * Rows of removed markers are reused by markers added later, the row of a marker therefore is
+ * only valid while the marker is part of the snapshot.
+ * </p>
+ */
+public final class MarkerSnapshot {
+
+    /**
+     * The columns the rows of the snapshot can be sorted by.
+     */
+    public enum SortColumn {
+
+        /** Sorts by severity, highest severity first. */
+        SEVERITY,
+
+        /** Sorts by resource name. */
+        RESOURCE_NAME,
+
+        /** Sorts by the path of the folder containing the resource. */
+        FOLDER,
+
+        /** Sorts by line number. */
+        LINE,
+
+        /** Sorts by message. */
+        MESSAGE
+    }
+
+    /** The marker attributes read into the snapshot. */
+    private static final String[] ATTRIBUTES = {
+        IMarker.SEVERITY, IMarker.LINE_NUMBER, IMarker.MESSAGE, CheckstyleMarker.MODULE_NAME,
+        CheckstyleMarker.MESSAGE_KEY,
+    };
+
+    /** The id used for absent strings. */
+    private static final int NO_STRING = -1;
+
+    /** The severity stored for markers without severity. */
+    private static final byte NO_SEVERITY = -1;
+
+    /** The minimum number of rows allocated. */
+    private static final int MIN_CAPACITY = 16;
+
+    /** Mask for the position part of a sort key. */
+    private static final long POSITION_MASK = 0xFFFFFFFFL;
+
+    /** The interned resources. */
+    private final InternTable<IResource> mResources = new InternTable<>();
+
+    /** The interned strings. */
+    private final InternTable<String> mStrings = new InternTable<>();
+
+    /** The marker id column. */
+    private long[] mMarkerIds;
+
+    /** The resource id column. */
+    private int[] mResourceIds;
+
+    /** The line number column. */
+    private int[] mLines;
+
+    /** The severity column. */
+    private byte[] mSeverities;
+
+    /** The message string id column. */
+    private int[] mMessageIds;
+
+    /** The module name string id column. */
+    private int[] mModuleIds;
+
+    /** The message key string id column. */
+    private int[] mMessageKeyIds;
+
+    /** The number of rows used so far, including free rows. */
+    private int mRowCount;
+
+    /** The rows of removed markers, available for reuse. */
+    private int[] mFreeRows = new int[MIN_CAPACITY];
+
+    /** The number of free rows. */
+    private int mFreeRowCount;
+
+    /**
+     * Creates an empty snapshot.
+     *
+     * @param capacity
+     *            the expected number of markers
+     */
+    public MarkerSnapshot(int capacity) {
+        int initialCapacity = Math.max(capacity, MIN_CAPACITY);
+        mMarkerIds = new long[initialCapacity];
+        mResourceIds = new int[initialCapacity];
+        mLines = new int[initialCapacity];
+        mSeverities = new byte[initialCapacity];
+        mMessageIds = new int[initialCapacity];
+        mModuleIds = new int[initialCapacity];
+        mMessageKeyIds = new int[initialCapacity];
+    }
+
+    /**
+     * Reads the attributes of the marker into a row of the snapshot.
+     *
+     * @param marker
+     *            the Checkstyle marker
+     * @return the row of the marker, empty if the marker does not exist anymore
+     */
+    public synchronized OptionalInt add(IMarker marker) {
+        OptionalInt row = OptionalInt.empty();
+        try {
+            Object[] values = marker.getAttributes(ATTRIBUTES);
+            int index = allocateRow();
+            mMarkerIds[index] = marker.getId();
+            mResourceIds[index] = mResources.retain(marker.getResource());
+            mSeverities[index] = values[0] instanceof Integer severity
+                ? severity.byteValue()
+                : NO_SEVERITY;
+            mLines[index] = values[1] instanceof Integer line ? line : 0;
+            mMessageIds[index] = intern(values[2]);
+            mModuleIds[index] = intern(values[3]);
+            mMessageKeyIds[index] = intern(values[4]);
+            row = OptionalInt.of(index);
+        }
+        catch (CoreException ex) {
+            // the marker has been deleted in the meantime
+        }
+        return row;
+    }
+
+    /**
+     * Appends the rows of another snapshot to this snapshot. The rows keep their order, the row
+     * <code>n</code> of the other snapshot becomes the row <code>offset + n</code>.
+     *
+     * @param other
+     *            the snapshot to append, for example one built by a parallel worker
+     * @return the offset of the appended rows
+     */
+    synchronized int append(MarkerSnapshot other) {
+        synchronized (other) {
+            int offset = mRowCount;
+            int rowCount = other.mRowCount;
+            if (offset + rowCount > mMarkerIds.length) {
+                grow(Math.max(offset + rowCount, mMarkerIds.length * 2));
+            }
+
+            // free rows may reference values the other snapshot has dropped already
+            boolean[] free = new boolean[rowCount];
+            for (int i = 0; i < other.mFreeRowCount; i++) {
+                free[other.mFreeRows[i]] = true;
+            }
+
+            int[] resourceIds = other.mResources.newMapping();
+            int[] stringIds = other.mStrings.newMapping();
+            for (int row = 0; row < rowCount; row++) {
+                if (!free[row]) {
+                    int target = offset + row;
+                    mResourceIds[target] =
+                        mResources.retain(other.mResources, resourceIds, other.mResourceIds[row]);
+                    mMessageIds[target] =
+                        mStrings.retain(other.mStrings, stringIds, other.mMessageIds[row]);
+                    mModuleIds[target] =
+                        mStrings.retain(other.mStrings, stringIds, other.mModuleIds[row]);
+                    mMessageKeyIds[target] =
+                        mStrings.retain(other.mStrings, stringIds, other.mMessageKeyIds[row]);
+                }
+            }
+            System.arraycopy(other.mMarkerIds, 0, mMarkerIds, offset, rowCount);
+            System.arraycopy(other.mLines, 0, mLines, offset, rowCount);
+            System.arraycopy(other.mSeverities, 0, mSeverities, offset, rowCount);
+            mRowCount += rowCount;
+
+            for (int i = 0; i < other.mFreeRowCount; i++) {
+                freeRow(offset + other.mFreeRows[i]);
+            }
+            return offset;
+        }
+    }
+
+    /**
+     * Removes a row from the snapshot, so that it can be reused.
+     *
+     * @param row
+     *            the row
+     */
+    public synchronized void remove(int row) {
+        mResources.release(mResourceIds[row]);
+        mStrings.release(mMessageIds[row]);
+        mStrings.release(mModuleIds[row]);
+        mStrings.release(mMessageKeyIds[row]);
+        freeRow(row);
+    }
+
+    private void freeRow(int row) {
+        if (mFreeRowCount == mFreeRows.length) {
+            mFreeRows = Arrays.copyOf(mFreeRows, mFreeRowCount * 2);
+        }
+        mFreeRows[mFreeRowCount++] = row;
+    }
+
+    /**
+     * Returns the id of the marker in a row.
+     *
+     * @param row
+     *            the row
+     * @return the marker id
+     */
+    public synchronized long getMarkerId(int row) {
+        return mMarkerIds[row];
+    }
+
+    /**
+     * Returns the resource of the marker in a row.
+     *
+     * @param row
+     *            the row
+     * @return the resource
+     */
+    public synchronized IResource getResource(int row) {
+        return mResources.get(mResourceIds[row]);
+    }
+
+    /**
+     * Returns the line number of the marker in a row.
+     *
+     * @param row
+     *            the row
+     * @return the line number, <code>0</code> if the marker has none
+     */
+    public synchronized int getLine(int row) {
+        return mLines[row];
+    }
+
+    /**
+     * Returns the severity of the marker in a row.
+     *
+     * @param row
+     *            the row
+     * @return the severity, <code>-1</code> if the marker has none
+     */
+    public synchronized int getSeverity(int row) {
+        return mSeverities[row];
+    }
+
+    /**
+     * Returns the message of the marker in a row.
+     *
+     * @param row
+     *            the row
+     * @return the message, <code>null</code> if the marker has none
+     */
+    public synchronized String getMessage(int row) {
+        return getString(mMessageIds[row]);
+    }
+
+    /**
+     * Returns the internal name of the module that created the marker in a row.
+     *
+     * @param row
+     *            the row
+     * @return the module name, <code>null</code> if the marker has none
+     */
+    public synchronized String getModuleName(int row) {
+        return getString(mModuleIds[row]);
+    }
+
+    /**
+     * Returns the message key of the marker in a row.
+     *
+     * @param row
+     *            the row
+     * @return the message key, <code>null</code> if the marker has none
+     */
+    public synchronized String getMessageKey(int row) {
+        return getString(mMessageKeyIds[row]);
+    }
+
+    /**
+     * Returns the interned id of the message of the marker in a row.
+     *
+     * @param row
+     *            the row
+     * @return the message id
+     */
+    synchronized int getMessageId(int row) {
+        return mMessageIds[row];
+    }
+
+    /**
+     * Looks up the marker in a row.
+     *
+     * @param row
+     *            the row
+     * @return the marker, empty if it does not exist anymore
+     */
+    public synchronized Optional<IMarker> getMarker(int row) {
+        IMarker marker = getResource(row).getMarker(mMarkerIds[row]);
+        return marker.exists() ? Optional.of(marker) : Optional.empty();
+    }
+
+    /**
+     * Sorts marker entries by their rows of the snapshot. The rows are sorted on the primitive
+     * columns, texts are compared once per distinct resource or string. Entries with equal values
+     * keep their relative order.
+     *
+     * @param entries
+     *            the entries to sort, sorted in place
+     * @param column
+     *            the column to sort by
+     * @param textOrder
+     *            the order of texts, like resource names or messages
+     * @param descending
+     *            <code>true</code> to reverse the order
+     */
+    public synchronized void sort(MarkerEntry[] entries, SortColumn column,
+        Comparator<? super String> textOrder, boolean descending) {
+        int[] ranks = switch (column) {
+            case RESOURCE_NAME -> rank(mResources.mValues, IResource::getName, textOrder);
+            case FOLDER -> rank(mResources.mValues,
+                resource -> resource.getParent().getFullPath().toString(), textOrder);
+            case MESSAGE -> rank(mStrings.mValues, Function.identity(), textOrder);
+            default -> null;
+        };
+
+        // sort keys combine the value with the original position, so that sorting is stable
+        long[] keys = new long[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            int row = entries[i].row();
+            int value = switch (column) {
+                case SEVERITY -> -mSeverities[row];
+                case LINE -> mLines[row];
+                case MESSAGE -> mMessageIds[row] == NO_STRING ? -1 : ranks[mMessageIds[row]];
+                default -> ranks[mResourceIds[row]];
+            };
+            keys[i] = (long) value << Integer.SIZE | i;
+        }
+        Arrays.sort(keys);
+
+        MarkerEntry[] sorted = entries.clone();
+        for (int i = 0; i < keys.length; i++) {
+            int target = descending ? keys.length - 1 - i : i;
+            entries[target] = sorted[(int) (keys[i] & POSITION_MASK)];
+        }
+    }
+
+    private static <T> int[] rank(List<T> values, Function<T, String> text,
+        Comparator<? super String> textOrder) {
+        Integer[] order = new Integer[values.size()];
+        String[] texts = new String[values.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+            // unused ids are not referenced by any row, their rank does not matter
+            T value = values.get(i);
+            texts[i] = value == null ? "" : text.apply(value); //$NON-NLS-1$
+        }
+        Arrays.sort(order, (first, second) -> textOrder.compare(texts[first], texts[second]));
+
+        // equal texts share their rank
+        int[] ranks = new int[order.length];
+        for (int i = 1; i < order.length; i++) {
+            boolean equal = textOrder.compare(texts[order[i - 1]], texts[order[i]]) == 0;
+            ranks[order[i]] = equal ? ranks[order[i - 1]] : i;
+        }
+        return ranks;
+    }
+
+    private int allocateRow() {
+        int row;
+        if (mFreeRowCount > 0) {
+            row = mFreeRows[--mFreeRowCount];
+        }
+        else {
+            if (mRowCount == mMarkerIds.length) {
+                grow(mRowCount * 2);
+            }
+            row = mRowCount++;
+        }
+        return row;
+    }
+
+    private void grow(int capacity) {
+        mMarkerIds = Arrays.copyOf(mMarkerIds, capacity);
+        mResourceIds = Arrays.copyOf(mResourceIds, capacity);
+        mLines = Arrays.copyOf(mLines, capacity);
+        mSeverities = Arrays.copyOf(mSeverities, capacity);
+        mMessageIds = Arrays.copyOf(mMessageIds, capacity);
+        mModuleIds = Arrays.copyOf(mModuleIds, capacity);
+        mMessageKeyIds = Arrays.copyOf(mMessageKeyIds, capacity);
+    }
+
+    private int intern(Object value) {
+        return value instanceof String string ? mStrings.retain(string) : NO_STRING;
+    }
+
+    private String getString(int id) {
+        return id == NO_STRING ? null : mStrings.get(id);
+    }
+
+    /**
+     * Table of interned values, referenced by id. The table counts the rows referencing each value,
+     * values no longer referenced are dropped and their ids reused. The id of absent strings is
+     * never counted.
+     *
+     * @param <T>
+     *            the type of the values
+     */
+    private static final class InternTable<T> {
+
+        /** The values by id, <code>null</code> for unused ids. */
+        private final List<T> mValues = new ArrayList<>();
+
+        /** The ids of the values. */
+        private final Map<T, Integer> mIds = new HashMap<>();
+
+        /** The number of rows referencing each id. */
+        private int[] mReferences = new int[MIN_CAPACITY];
+
+        /** The unused ids, available for reuse. */
+        private int[] mFreeIds = new int[MIN_CAPACITY];
+
+        /** The number of unused ids. */
+        private int mFreeIdCount;
+
+        /**
+         * Interns a value and counts a reference to it.
+         *
+         * @param value
+         *            the value
+         * @return the id of the value
+         */
+        int retain(T value) {
+            Integer id = mIds.get(value);
+            if (id == null) {
+                id = allocateId();
+                mValues.set(id, value);
+                mIds.put(value, id);
+            }
+            mReferences[id]++;
+            return id;
+        }
+
+        /**
+         * Interns a value of another table and counts a reference to it. The ids of the other
+         * table already interned are remembered by the mapping, so that each value is only looked
+         * up once.
+         *
+         * @param other
+         *            the other table
+         * @param mapping
+         *            the ids of this table by id of the other table, see {@link #newMapping()}
+         * @param otherId
+         *            the id of the value in the other table
+         * @return the id of the value in this table
+         */
+        int retain(InternTable<T> other, int[] mapping, int otherId) {
+            int id = NO_STRING;
+            if (otherId != NO_STRING) {
+                if (mapping[otherId] == NO_STRING) {
+                    mapping[otherId] = retain(other.get(otherId));
+                }
+                else {
+                    mReferences[mapping[otherId]]++;
+                }
+                id = mapping[otherId];
+            }
+            return id;
+        }
+
+        /**
+         * Returns an empty mapping from the ids of this table to the ids of another table.
+         *
+         * @return the mapping
+         */
+        int[] newMapping() {
+            int[] mapping = new int[mValues.size()];
+            Arrays.fill(mapping, NO_STRING);
+            return mapping;
+        }
+
+        /**
+         * Drops a reference to a value, and the value itself if it is no longer referenced.
+         *
+         * @param id
+         *            the id of the value
+         */
+        void release(int id) {
+            if (id != NO_STRING && --mReferences[id] == 0) {
+                mIds.remove(mValues.set(id, null));
+                if (mFreeIdCount == mFreeIds.length) {
+                    mFreeIds = Arrays.copyOf(mFreeIds, mFreeIdCount * 2);
+                }
+                mFreeIds[mFreeIdCount++] = id;
+            }
+        }
+
+        /**
+         * Returns an interned value.
+         *
+         * @param id
+         *            the id of the value
+         * @return the value
+         */
+        T get(int id) {
+            return mValues.get(id);
+        }
+
+        private int allocateId() {
+            int id;
+            if (mFreeIdCount > 0) {
+                id = mFreeIds[--mFreeIdCount];
+            }
+            else {
+                id = mValues.size();
+                mValues.add(null);
+                if (id == mReferences.length) {
+                    mReferences = Arrays.copyOf(mReferences, id * 2);
+                }
+            }
+            return id;
+        }
+    }
+}
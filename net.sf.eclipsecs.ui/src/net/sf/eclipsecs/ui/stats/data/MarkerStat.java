@@ -20,32 +20,41 @@
 
 package net.sf.eclipsecs.ui.stats.data;
 
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 
 import org.eclipse.core.resources.IMarker;
-import org.eclipse.ui.texteditor.MarkerUtilities;
 
 /**
  * Objet qui donne des statistiques sur les marqueurs.
  *
+ * <p>
+ * The markers of the category are kept as their rows in the marker snapshot of the statistics.
+ * </p>
  */
 public class MarkerStat implements Comparable<MarkerStat> {
 
+    /** The initial number of rows allocated. */
+    private static final int INITIAL_CAPACITY = 8;
+
     /**
      * Identifiant du marqueur : dans notre cas, il s'agit du message du marqueur Checkstyle.
      */
-    private String mIdentifiant;
+    private final String mIdentifiant;
 
     /**
-     * List of the markers of this categories.
+     * The snapshot rows of the markers of this category.
      */
-    private Collection<IMarker> mMarkers;
+    private int[] mRows = new int[INITIAL_CAPACITY];
 
     /**
-     * The maximum severity for this marker group.
+     * The number of markers of this category.
      */
-    private int mMaxSeverity;
+    private int mCount;
+
+    /**
+     * The number of markers per severity level, indexed by severity.
+     */
+    private final int[] mSeverityCounts = new int[IMarker.SEVERITY_ERROR + 1];
 
     /**
      * Crée un MarkerStat pour un marqueur Checkstyle correspondant à l'identifiant passé en
@@ -56,22 +65,71 @@ public class MarkerStat implements Comparable<MarkerStat> {
      */
     public MarkerStat(String identifiant) {
         this.mIdentifiant = identifiant;
-        mMarkers = new ArrayList<>();
     }
 
     /**
      * Reference the marker as one fo this category.
      *
-     * @param marker
-     *            : the marker to add to this category
+     * @param row
+     *            the snapshot row of the marker
+     * @param severity
+     *            the severity of the marker
+     * @return the position of the row within this category
+     */
+    synchronized int addRow(int row, int severity) {
+        if (mCount == mRows.length) {
+            mRows = Arrays.copyOf(mRows, mCount * 2);
+        }
+        mRows[mCount] = row;
+        mSeverityCounts[getSeverityIndex(severity)]++;
+        return mCount++;
+    }
+
+    /**
+     * Adds the markers of a partial category, built from another snapshot, to this category.
+     *
+     * @param other
+     *            the partial category with the same identifier
+     * @param rowOffset
+     *            the offset of the rows of the other snapshot in the snapshot of this category
+     * @return the position of the first added row within this category, the other rows follow in
+     *         the order of {@link #getRows()} of the partial category
      */
-    public void addMarker(IMarker marker) {
-        mMarkers.add(marker);
+    synchronized int addAll(MarkerStat other, int rowOffset) {
+        synchronized (other) {
+            int position = mCount;
+            if (mCount + other.mCount > mRows.length) {
+                mRows = Arrays.copyOf(mRows, Math.max(mCount + other.mCount, mRows.length * 2));
+            }
+            for (int i = 0; i < other.mCount; i++) {
+                mRows[mCount++] = other.mRows[i] + rowOffset;
+            }
+            for (int severity = 0; severity < mSeverityCounts.length; severity++) {
+                mSeverityCounts[severity] += other.mSeverityCounts[severity];
+            }
+            return position;
+        }
+    }
 
-        int severity = MarkerUtilities.getSeverity(marker);
-        if (severity > mMaxSeverity) {
-            mMaxSeverity = severity;
+    /**
+     * Removes a marker from this category. The last row of the category takes the place of the
+     * removed row.
+     *
+     * @param position
+     *            the position of the row within this category
+     * @param severity
+     *            the severity of the marker
+     * @return the row that moved to the given position, <code>-1</code> if no row moved
+     */
+    synchronized int removeRow(int position, int severity) {
+        mSeverityCounts[getSeverityIndex(severity)]--;
+        mCount--;
+        int movedRow = -1;
+        if (position < mCount) {
+            movedRow = mRows[mCount];
+            mRows[position] = movedRow;
         }
+        return movedRow;
     }
 
     @Override
@@ -80,12 +138,12 @@ public class MarkerStat implements Comparable<MarkerStat> {
     }
 
     /**
-     * Returns the list of markers for this category.
+     * Returns the snapshot rows of the markers of this category.
      *
-     * @return a collection of IMarker
+     * @return the snapshot rows
      */
-    public Collection<IMarker> getMarkers() {
-        return mMarkers;
+    synchronized int[] getRows() {
+        return Arrays.copyOf(mRows, mCount);
     }
 
     /**
@@ -93,8 +151,8 @@ public class MarkerStat implements Comparable<MarkerStat> {
      *
      * @return Returns the count.
      */
-    public int getCount() {
-        return mMarkers.size();
+    public synchronized int getCount() {
+        return mCount;
     }
 
     /**
@@ -102,8 +160,12 @@ public class MarkerStat implements Comparable<MarkerStat> {
      *
      * @return the maximum severity level
      */
-    public int getMaxSeverity() {
-        return mMaxSeverity;
+    public synchronized int getMaxSeverity() {
+        int maxSeverity = mSeverityCounts.length - 1;
+        while (maxSeverity > 0 && mSeverityCounts[maxSeverity] == 0) {
+            maxSeverity--;
+        }
+        return maxSeverity;
     }
 
     /**
@@ -114,4 +176,8 @@ public class MarkerStat implements Comparable<MarkerStat> {
     public String getIdentifiant() {
         return mIdentifiant;
     }
+
+    private static int getSeverityIndex(int severity) {
+        return Math.max(IMarker.SEVERITY_INFO, Math.min(severity, IMarker.SEVERITY_ERROR));
+    }
 }
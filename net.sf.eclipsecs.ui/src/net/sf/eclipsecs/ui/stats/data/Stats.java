@@ -20,22 +20,62 @@
 
 package net.sf.eclipsecs.ui.stats.data;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IMarkerDelta;
+import org.eclipse.core.resources.IResourceDelta;
+
+import net.sf.eclipsecs.core.config.meta.MetadataFactory;
+import net.sf.eclipsecs.core.util.CheckstyleLog;
+import net.sf.eclipsecs.ui.stats.Messages;
+import net.sf.eclipsecs.ui.stats.views.internal.CheckstyleMarkerFilter;
 
 /**
  * Classe qui véhicule les statistiques Checkstyle. Elle contient notamment la liste des différentes
  * erreurs avec leur comptage.
  *
+ * <p>
+ * The attributes of the counted markers are held in a {@link MarkerSnapshot}, the categories
+ * reference the markers by their snapshot rows. The statistics are kept up to date with marker
+ * deltas by {@link #applyMarkerDeltas(IMarkerDelta[], CheckstyleMarkerFilter)}, which only touches
+ * the categories of the changed markers.
+ * </p>
  */
 public class Stats {
 
-    /** Liste des différentes erreurs. */
-    private Collection<MarkerStat> mMarkerStats;
+    /** Liste des différentes erreurs, par identifiant. */
+    private final Map<String, MarkerStat> mMarkerStats = new HashMap<>();
+
+    /** The attributes of the scanned markers. */
+    private final MarkerSnapshot mSnapshot;
+
+    /** Les marqueurs scannés : the snapshot rows by marker id. */
+    private final Map<Long, Integer> mRows = new HashMap<>();
+
+    /** The category of each snapshot row, <code>null</code> for markers without message. */
+    private MarkerStat[] mRowStats;
+
+    /** The position of each snapshot row within its category. */
+    private int[] mRowPositions;
+
+    /** The categories derived from the standard messages, by module and message key. */
+    private final Map<MessageKey, Optional<String>> mStandardCategories = new HashMap<>();
 
     /**
-     * Nombre de marqueurs scannés.
+     * The categories of markers without standard message, by message id. The snapshot reuses the
+     * ids of dropped messages, the cached message tells if an entry is still valid.
      */
-    private int mMarkerCount;
+    private final Map<Integer, MessageCategory> mMessageCategories = new HashMap<>();
 
     /** The number of all markers in the workspace. */
     private int mMarkerCountWhole;
@@ -43,16 +83,15 @@ public class Stats {
     /**
      * Constructeur.
      *
-     * @param markerStats
-     *            la liste des MarkerStats
      * @param markerCount
-     *            le nombre de marqueurs scannés
+     *            the expected number of scanned markers
      * @param markerCountWhole
      *            the number of all checkstyle markers in the workspace
      */
-    public Stats(Collection<MarkerStat> markerStats, int markerCount, int markerCountWhole) {
-        this.mMarkerStats = markerStats;
-        this.mMarkerCount = markerCount;
+    public Stats(int markerCount, int markerCountWhole) {
+        this.mSnapshot = new MarkerSnapshot(markerCount);
+        this.mRowStats = new MarkerStat[markerCount];
+        this.mRowPositions = new int[markerCount];
         this.mMarkerCountWhole = markerCountWhole;
     }
 
@@ -61,8 +100,34 @@ public class Stats {
      *
      * @return Returns the markerStats.
      */
-    public Collection<MarkerStat> getMarkerStats() {
-        return mMarkerStats;
+    public synchronized Collection<MarkerStat> getMarkerStats() {
+        return new ArrayList<>(mMarkerStats.values());
+    }
+
+    /**
+     * Returns the markers of a category as entries referencing their snapshot rows.
+     *
+     * @param category
+     *            the identifier of the category
+     * @return the marker entries, empty if the category is not part of the statistics
+     */
+    public synchronized MarkerEntry[] getMarkerEntries(String category) {
+        MarkerStat markerStat = mMarkerStats.get(category);
+        int[] rows = markerStat != null ? markerStat.getRows() : new int[0];
+        MarkerEntry[] entries = new MarkerEntry[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            entries[i] = new MarkerEntry(mSnapshot, rows[i], mSnapshot.getMarkerId(rows[i]));
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the snapshot holding the attributes of the counted markers.
+     *
+     * @return the marker snapshot
+     */
+    public MarkerSnapshot getSnapshot() {
+        return mSnapshot;
     }
 
     /**
@@ -70,8 +135,8 @@ public class Stats {
      *
      * @return Returns the markerCount.
      */
-    public int getMarkerCount() {
-        return mMarkerCount;
+    public synchronized int getMarkerCount() {
+        return mRows.size();
     }
 
     /**
@@ -79,7 +144,199 @@ public class Stats {
      *
      * @return the number of all Checkstyle markers
      */
-    public int getMarkerCountAll() {
+    public synchronized int getMarkerCountAll() {
         return mMarkerCountWhole;
     }
+
+    /**
+     * Checks if the given marker category is part of these statistics. A category is dropped once
+     * its last marker has been removed.
+     *
+     * @param markerStat
+     *            the marker category
+     * @return <code>true</code> if the category is part of the statistics
+     */
+    public synchronized boolean contains(MarkerStat markerStat) {
+        return mMarkerStats.get(markerStat.getIdentifiant()) == markerStat;
+    }
+
+    /**
+     * Applies the given Checkstyle marker deltas to the statistics. Added and changed markers are
+     * only counted if they pass the filter.
+     *
+     * @param deltas
+     *            the marker deltas
+     * @param filter
+     *            the filter the statistics were built with
+     * @return the marker categories whose content changed
+     */
+    public synchronized Set<MarkerStat> applyMarkerDeltas(IMarkerDelta[] deltas,
+        CheckstyleMarkerFilter filter) {
+        Set<MarkerStat> changed = new HashSet<>();
+        for (IMarkerDelta delta : deltas) {
+            if (delta.getKind() == IResourceDelta.ADDED) {
+                mMarkerCountWhole++;
+            }
+            else {
+                removeMarker(delta.getId()).ifPresent(changed::add);
+            }
+
+            if (delta.getKind() == IResourceDelta.REMOVED) {
+                mMarkerCountWhole--;
+            }
+            else if (filter.isInScope(delta.getResource())) {
+                addMarker(delta.getMarker(), filter).ifPresent(changed::add);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Reads the attributes of a marker into the snapshot and adds the marker to the category of
+     * its message, if it passes the filter.
+     *
+     * @param marker
+     *            the marker
+     * @param filter
+     *            the filter selecting markers by their attributes
+     * @return the category the marker was added to, empty if the marker has not been added or has
+     *         no message
+     */
+    synchronized Optional<MarkerStat> addMarker(IMarker marker, CheckstyleMarkerFilter filter) {
+        Optional<MarkerStat> stat = Optional.empty();
+        OptionalInt row = mSnapshot.add(marker);
+        if (row.isPresent() && filter.select(mSnapshot, row.getAsInt())) {
+            stat = addRow(marker.getId(), row.getAsInt());
+        }
+        else {
+            row.ifPresent(mSnapshot::remove);
+        }
+        return stat;
+    }
+
+    /**
+     * Merges partial statistics, for example built by a parallel worker, into these statistics.
+     * The partial statistics must not be used afterwards.
+     *
+     * @param partial
+     *            the partial statistics
+     */
+    synchronized void merge(Stats partial) {
+        synchronized (partial) {
+            int offset = mSnapshot.append(partial.mSnapshot);
+            ensureRowCapacity(offset + partial.mRowStats.length);
+
+            for (MarkerStat partialStat : partial.mMarkerStats.values()) {
+                MarkerStat stat =
+                    mMarkerStats.computeIfAbsent(partialStat.getIdentifiant(), MarkerStat::new);
+                int position = stat.addAll(partialStat, offset);
+                for (int row : partialStat.getRows()) {
+                    mRowStats[offset + row] = stat;
+                    mRowPositions[offset + row] = position++;
+                }
+            }
+            partial.mRows.forEach((markerId, row) -> mRows.put(markerId, offset + row));
+            mMarkerCountWhole += partial.mMarkerCountWhole;
+        }
+    }
+
+    private void ensureRowCapacity(int rowCount) {
+        if (rowCount > mRowStats.length) {
+            int capacity = Math.max(rowCount, mRowStats.length * 2);
+            mRowStats = Arrays.copyOf(mRowStats, capacity);
+            mRowPositions = Arrays.copyOf(mRowPositions, capacity);
+        }
+    }
+
+    private Optional<MarkerStat> addRow(long markerId, int row) {
+        ensureRowCapacity(row + 1);
+
+        Optional<MarkerStat> stat = getCategory(row)
+            .map(category -> mMarkerStats.computeIfAbsent(category, MarkerStat::new));
+        stat.ifPresent(markerStat -> {
+            mRowPositions[row] = markerStat.addRow(row, mSnapshot.getSeverity(row));
+        });
+        mRowStats[row] = stat.orElse(null);
+        mRows.put(markerId, row);
+        return stat;
+    }
+
+    /**
+     * Returns the category of a marker, that is its cleaned up, untranslated message. The
+     * categories are cached by module and message key, so the message of each kind of violation is
+     * only looked up and cleaned once.
+     *
+     * @param row
+     *            the snapshot row of the marker
+     * @return the category, empty if the marker has no message
+     */
+    private Optional<String> getCategory(int row) {
+        Optional<String> category = mStandardCategories.computeIfAbsent(
+            new MessageKey(mSnapshot.getModuleName(row), mSnapshot.getMessageKey(row)),
+            key -> normalize(MetadataFactory.getStandardMessage(key.messageKey(),
+                key.moduleName())));
+        if (category.isEmpty()) {
+            String message = mSnapshot.getMessage(row);
+            MessageCategory cached = mMessageCategories.get(mSnapshot.getMessageId(row));
+            if (cached == null || !Objects.equals(cached.message(), message)) {
+                cached = new MessageCategory(message, normalize(message));
+                if (cached.category().isEmpty()) {
+                    // cela ne devrait pas arriver, mais bon, on laisse faire
+                    CheckstyleLog.log(null, Messages.CreateStatsJob_markerMessageShouldntBeEmpty);
+                }
+                mMessageCategories.put(mSnapshot.getMessageId(row), cached);
+            }
+            category = cached.category();
+        }
+        return category;
+    }
+
+    private static Optional<String> normalize(String message) {
+        return Optional.ofNullable(message).filter(text -> !text.isBlank())
+            .map(CreateStatsJob::cleanMessage);
+    }
+
+    private Optional<MarkerStat> removeMarker(long markerId) {
+        Optional<Integer> row = Optional.ofNullable(mRows.remove(markerId));
+        Optional<MarkerStat> stat = row.map(index -> mRowStats[index]);
+        row.ifPresent(index -> {
+            stat.ifPresent(markerStat -> removeRow(markerStat, index));
+            mRowStats[index] = null;
+            mSnapshot.remove(index);
+        });
+        return stat;
+    }
+
+    private void removeRow(MarkerStat markerStat, int row) {
+        int position = mRowPositions[row];
+        int movedRow = markerStat.removeRow(position, mSnapshot.getSeverity(row));
+        if (movedRow >= 0) {
+            mRowPositions[movedRow] = position;
+        }
+        if (markerStat.getCount() == 0) {
+            mMarkerStats.remove(markerStat.getIdentifiant());
+        }
+    }
+
+    /**
+     * Key of the standard message of a violation.
+     *
+     * @param moduleName
+     *            the module name
+     * @param messageKey
+     *            the message key
+     */
+    private record MessageKey(String moduleName, String messageKey) {
+    }
+
+    /**
+     * Category of a message without standard message.
+     *
+     * @param message
+     *            the message
+     * @param category
+     *            the category, empty if the message is empty
+     */
+    private record MessageCategory(String message, Optional<String> category) {
+    }
 }
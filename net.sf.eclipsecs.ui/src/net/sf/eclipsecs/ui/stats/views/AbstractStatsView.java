@@ -20,17 +20,24 @@
 
 package net.sf.eclipsecs.ui.stats.views;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.eclipse.core.resources.IMarkerDelta;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
-import org.eclipse.core.runtime.jobs.IJobChangeListener;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
 import org.eclipse.jface.action.IMenuManager;
 import org.eclipse.jface.action.IToolBarManager;
 import org.eclipse.jface.dialogs.IDialogSettings;
@@ -49,6 +56,7 @@ import net.sf.eclipsecs.core.builder.CheckstyleMarker;
 import net.sf.eclipsecs.ui.CheckstyleUIPlugin;
 import net.sf.eclipsecs.ui.stats.Messages;
 import net.sf.eclipsecs.ui.stats.data.CreateStatsJob;
+import net.sf.eclipsecs.ui.stats.data.MarkerStat;
 import net.sf.eclipsecs.ui.stats.data.Stats;
 import net.sf.eclipsecs.ui.stats.views.internal.CheckstyleMarkerFilter;
 import net.sf.eclipsecs.ui.stats.views.internal.CheckstyleMarkerFilterDialog;
@@ -64,13 +72,31 @@ public abstract class AbstractStatsView extends ViewPart {
     //
 
     /** The filter for this stats view. */
-    private CheckstyleMarkerFilter filter;
+    private volatile CheckstyleMarkerFilter filter;
 
     /** The focused resources. */
     private IResource[] mFocusedResources;
 
     /** The views private set of statistics. */
-    private Stats mStats;
+    private volatile Stats mStats;
+
+    /** The marker categories changed by marker deltas, not yet shown by the view. */
+    private final Set<MarkerStat> mPendingChanges = new HashSet<>();
+
+    /** Flags if a rebuild of the statistics data is pending because of marker deltas. */
+    private final AtomicBoolean mRebuildPending = new AtomicBoolean();
+
+    /** Guards the statistics data against marker deltas arriving while it is rebuilt. */
+    private final Object mRebuildLock = new Object();
+
+    /** Flags if a rebuild job is collecting the markers, guarded by the rebuild lock. */
+    private boolean mRebuilding;
+
+    /** Flags if marker deltas arrived while the rebuild job ran, guarded by the rebuild lock. */
+    private boolean mDeltasMissed;
+
+    /** The job showing the pending marker category changes. */
+    private WorkbenchJob mStatsChangedJob;
 
     /** The listener reacting to selection changes in the workspace. */
     private ISelectionListener mFocusListener;
@@ -102,6 +128,18 @@ public abstract class AbstractStatsView extends ViewPart {
      */
     protected abstract void handleStatsRebuilt();
 
+    /**
+     * Callback for subclasses to update the content of their controls, since marker deltas have
+     * been applied to the statistics data. Only the given marker categories have changed, the
+     * categories no longer contained in the statistics data have been removed. <br/>
+     * This method is called in the UI thread, subclasses should check if their controls have been
+     * disposed.
+     *
+     * @param changedStats
+     *            the changed marker categories
+     */
+    protected abstract void handleStatsChanged(Collection<MarkerStat> changedStats);
+
     /**
      * Create the viewer actions.
      */
@@ -123,11 +161,24 @@ public abstract class AbstractStatsView extends ViewPart {
             focusSelectionChanged(null, selection);
         }
 
+        mStatsChangedJob = new WorkbenchJob(Messages.AbstractStatsView_msgRefreshStats) {
+            {
+                setPriority(Job.DECORATE);
+                setSystem(true);
+            }
+
+            @Override
+            public IStatus runInUIThread(IProgressMonitor monitor) {
+                handleStatsChanged(takePendingChanges());
+                return Status.OK_STATUS;
+            }
+        };
+
         // create and register the listener for resource changes
         mResourceListener = event -> {
-            int numMarkerDeltas = event.findMarkerDeltas(CheckstyleMarker.MARKER_ID, true).length;
-            if (numMarkerDeltas > 0) {
-                refresh();
+            IMarkerDelta[] deltas = event.findMarkerDeltas(CheckstyleMarker.MARKER_ID, true);
+            if (deltas.length > 0) {
+                applyMarkerDeltas(deltas);
             }
         };
 
@@ -147,6 +198,7 @@ public abstract class AbstractStatsView extends ViewPart {
         // IMPORTANT: Deregister listeners
         getSite().getPage().removeSelectionListener(mFocusListener);
         ResourcesPlugin.getWorkspace().removeResourceChangeListener(mResourceListener);
+        mStatsChangedJob.cancel();
 
         super.dispose();
     }
@@ -211,13 +263,80 @@ public abstract class AbstractStatsView extends ViewPart {
         CreateStatsJob job = new CreateStatsJob(filter, getViewId());
         job.setPriority(Job.DECORATE);
         job.setRule(ResourcesPlugin.getWorkspace().getRoot());
-        job.addJobChangeListener(IJobChangeListener.onDone(event -> {
-            mStats = ((CreateStatsJob) event.getJob()).getStats();
-            uiJob.schedule();
-        }));
+        job.addJobChangeListener(new JobChangeAdapter() {
+
+            @Override
+            public void aboutToRun(IJobChangeEvent event) {
+                synchronized (mRebuildLock) {
+                    mRebuilding = true;
+                    mDeltasMissed = false;
+                }
+            }
+
+            @Override
+            public void done(IJobChangeEvent event) {
+                boolean rebuildAgain;
+                synchronized (mRebuildLock) {
+                    mRebuilding = false;
+                    mRebuildPending.set(false);
+                    // a cancelled job keeps the previous statistics
+                    rebuildAgain = event.getResult().getSeverity() != IStatus.CANCEL;
+                    if (rebuildAgain) {
+                        mStats = ((CreateStatsJob) event.getJob()).getStats();
+                        uiJob.schedule();
+                    }
+                    // the new statistics may lack the markers changed while the job ran
+                    rebuildAgain &= mDeltasMissed;
+                }
+                if (rebuildAgain) {
+                    refresh();
+                }
+            }
+        });
         service.schedule(job, 0, true);
     }
 
+    /**
+     * Applies marker deltas to the statistics data and schedules the update of the changed marker
+     * categories. The statistics data is built from scratch if it does not exist yet, unless such
+     * a rebuild is already pending. Deltas arriving while a rebuild job collects the markers cause
+     * another rebuild once the job is done, since the job may or may not have seen the changes.
+     *
+     * @param deltas
+     *            the Checkstyle marker deltas
+     */
+    private void applyMarkerDeltas(IMarkerDelta[] deltas) {
+        boolean rebuild;
+        synchronized (mRebuildLock) {
+            mDeltasMissed |= mRebuilding;
+            Stats stats = mStats;
+            if (stats != null) {
+                Set<MarkerStat> changedStats = stats.applyMarkerDeltas(deltas, filter);
+                synchronized (mPendingChanges) {
+                    mPendingChanges.addAll(changedStats);
+                }
+                mStatsChangedJob.schedule();
+            }
+            rebuild = stats == null && !mRebuilding && mRebuildPending.compareAndSet(false, true);
+        }
+        if (rebuild) {
+            refresh();
+        }
+    }
+
+    /**
+     * Returns the marker categories changed since the last call and forgets them.
+     *
+     * @return the changed marker categories
+     */
+    private Collection<MarkerStat> takePendingChanges() {
+        synchronized (mPendingChanges) {
+            Collection<MarkerStat> changedStats = new ArrayList<>(mPendingChanges);
+            mPendingChanges.clear();
+            return changedStats;
+        }
+    }
+
     /**
      * Returns the dialog settings for this view.
      *
@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import org.eclipse.core.resources.IMarker;
@@ -48,9 +49,12 @@ import org.eclipse.ui.IWorkbenchPartSite;
 import org.eclipse.ui.PlatformUI;
 
 import net.sf.eclipsecs.ui.stats.Messages;
+import net.sf.eclipsecs.ui.stats.data.MarkerEntry;
+import net.sf.eclipsecs.ui.stats.data.MarkerSnapshot.SortColumn;
 import net.sf.eclipsecs.ui.stats.data.MarkerStat;
 import net.sf.eclipsecs.ui.stats.data.Stats;
 import net.sf.eclipsecs.ui.stats.views.MarkerStatsView.MarkerStatsViewActions;
+import net.sf.eclipsecs.ui.stats.views.MarkerStatsViewDataProviders.DetailContentProvider;
 import net.sf.eclipsecs.ui.stats.views.MarkerStatsViewDataProviders.MarkerStatsViewDetailDataProviders;
 import net.sf.eclipsecs.ui.stats.views.MarkerStatsViewDataProviders.MarkerStatsViewMasterDataProviders;
 import net.sf.eclipsecs.ui.util.table.TableViewerEnhancer;
@@ -108,7 +112,7 @@ public final class MarkerStatsMainView extends Composite {
     }
 
     public Optional<IMarker> getSelectedMarker() {
-        return mDetailViewer.getSelection();
+        return mDetailViewer.getSelection().flatMap(MarkerEntry::getMarker);
     }
 
     public Optional<MarkerStat> getSelectedMarkerCategory() {
@@ -222,7 +226,7 @@ public final class MarkerStatsMainView extends Composite {
 
     }
 
-    private static final class DetailTableViewer extends AbstractStatTableViewer<IMarker> {
+    private static final class DetailTableViewer extends AbstractStatTableViewer<MarkerEntry> {
 
         /** The table viewer. */
         private final TableViewer tableViewer;
@@ -230,13 +234,14 @@ public final class MarkerStatsMainView extends Composite {
         private DetailTableViewer(Composite parent, int style,
             MarkerStatsViewDetailDataProviders providers, IWorkbenchPartSite site,
             Runnable updateActions, IAction drillBackAction, IAction showErrorAction) {
-            super(parent, style, IMarker.class);
+            super(parent, style, MarkerEntry.class);
 
             final TableColumnLayout tableColumnLayout = new TableColumnLayout();
             setLayout(tableColumnLayout);
 
+            // virtual, so that only the visible markers of large categories are created
             this.tableViewer = new TableViewer(this,
-                SWT.H_SCROLL | SWT.V_SCROLL | SWT.SINGLE | SWT.FULL_SELECTION);
+                SWT.H_SCROLL | SWT.V_SCROLL | SWT.SINGLE | SWT.FULL_SELECTION | SWT.VIRTUAL);
 
             Table table = tableViewer.getTable();
             table.setLinesVisible(true);
@@ -263,7 +268,7 @@ public final class MarkerStatsMainView extends Composite {
             final TableViewerColumn severityCol = new TableViewerColumn(tableViewer, SWT.CENTER);
             severityCol.setLabelProvider(ColumnLabelProvider.createImageProvider(element -> {
                 final ISharedImages imgs = PlatformUI.getWorkbench().getSharedImages();
-                return switch (((IMarker) element).getAttribute(IMarker.SEVERITY, 0)) {
+                return switch (((MarkerEntry) element).getSeverity()) {
                     case IMarker.SEVERITY_ERROR -> imgs.getImage(ISharedImages.IMG_OBJS_ERROR_TSK);
                     case IMarker.SEVERITY_WARNING -> imgs.getImage(ISharedImages.IMG_OBJS_WARN_TSK);
                     case IMarker.SEVERITY_INFO -> imgs.getImage(ISharedImages.IMG_OBJS_INFO_TSK);
@@ -274,41 +279,41 @@ public final class MarkerStatsMainView extends Composite {
             severityCol.getColumn().setResizable(false);
             tableColumnLayout.setColumnData(severityCol.getColumn(),
                 new ColumnPixelData(severityCol.getColumn().getWidth()));
-            TableViewerEnhancer.setColumnComparator(severityCol.getColumn(),
-                Comparator.comparingInt(marker -> -((IMarker) marker).getAttribute(IMarker.SEVERITY,
-                    Integer.MAX_VALUE)));
+            DetailContentProvider.setSortColumn(severityCol.getColumn(), SortColumn.SEVERITY);
 
             final TableViewerColumn fileCol = new TableViewerColumn(tableViewer, SWT.LEFT);
             fileCol.getColumn().setText(Messages.MarkerStatsView_fileColumn);
             fileCol.setLabelProvider(ColumnLabelProvider
-                .createTextProvider(element -> ((IMarker) element).getResource().getName()));
+                .createTextProvider(element -> ((MarkerEntry) element).getResource().getName()));
             fileCol.getColumn().pack();
+            DetailContentProvider.setSortColumn(fileCol.getColumn(), SortColumn.RESOURCE_NAME);
             tableColumnLayout.setColumnData(fileCol.getColumn(),
                 new ColumnPixelData(fileCol.getColumn().getWidth()));
 
             final TableViewerColumn folderCol = new TableViewerColumn(tableViewer, SWT.LEFT);
             folderCol.getColumn().setText(Messages.MarkerStatsView_folderColumn);
             folderCol.setLabelProvider(ColumnLabelProvider.createTextProvider(
-                marker -> ((IMarker) marker).getResource().getParent().getFullPath().toString()));
+                entry -> ((MarkerEntry) entry).getResource().getParent().getFullPath().toString()));
             folderCol.getColumn().pack();
+            DetailContentProvider.setSortColumn(folderCol.getColumn(), SortColumn.FOLDER);
             tableColumnLayout.setColumnData(folderCol.getColumn(),
                 new ColumnPixelData(folderCol.getColumn().getWidth()));
 
             final TableViewerColumn lineCol = new TableViewerColumn(tableViewer, SWT.RIGHT);
             lineCol.getColumn().setText(Messages.MarkerStatsView_lineColumn);
-            lineCol.setLabelProvider(ColumnLabelProvider.createTextProvider(element -> String
-                .valueOf(((IMarker) element).getAttribute(IMarker.LINE_NUMBER, 0))));
+            lineCol.setLabelProvider(ColumnLabelProvider.createTextProvider(
+                element -> String.valueOf(((MarkerEntry) element).getLine())));
             lineCol.getColumn().pack();
             tableColumnLayout.setColumnData(lineCol.getColumn(),
                 new ColumnPixelData(lineCol.getColumn().getWidth()));
-            TableViewerEnhancer.setColumnComparator(lineCol.getColumn(), Comparator.comparingInt(
-                marker -> ((IMarker) marker).getAttribute(IMarker.LINE_NUMBER, Integer.MAX_VALUE)));
+            DetailContentProvider.setSortColumn(lineCol.getColumn(), SortColumn.LINE);
 
             final TableViewerColumn messageCol = new TableViewerColumn(tableViewer, SWT.LEFT);
             messageCol.getColumn().setText(Messages.MarkerStatsView_messageColumn);
             messageCol.setLabelProvider(ColumnLabelProvider.createTextProvider(
-                element -> ((IMarker) element).getAttribute(IMarker.MESSAGE, "")));
+                element -> Objects.toString(((MarkerEntry) element).getMessage(), "")));
             messageCol.getColumn().pack();
+            DetailContentProvider.setSortColumn(messageCol.getColumn(), SortColumn.MESSAGE);
             tableColumnLayout.setColumnData(messageCol.getColumn(),
                 new ColumnPixelData(messageCol.getColumn().getWidth()));
         }
@@ -20,6 +20,8 @@
 
 package net.sf.eclipsecs.ui.stats.views;
 
+import java.util.Collection;
+
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IAction;
 import org.eclipse.jface.action.IMenuManager;
@@ -38,8 +40,10 @@ import org.eclipse.ui.ide.IDE;
 
 import net.sf.eclipsecs.core.util.CheckstyleLog;
 import net.sf.eclipsecs.ui.stats.Messages;
+import net.sf.eclipsecs.ui.stats.data.MarkerStat;
 import net.sf.eclipsecs.ui.stats.data.Stats;
 import net.sf.eclipsecs.ui.stats.views.MarkerStatsViewDataProviders.DetailContentProvider;
+import net.sf.eclipsecs.ui.stats.views.MarkerStatsViewDataProviders.MasterContentProvider;
 import net.sf.eclipsecs.ui.stats.views.internal.FiltersAction;
 
 /**
@@ -66,6 +70,9 @@ public class MarkerStatsView extends AbstractStatsView {
     /** The view actions. */
     private MarkerStatsViewActions actions;
 
+    /** The master content provider. */
+    private MasterContentProvider masterContentProvider;
+
     /** The detail content provider. */
     private DetailContentProvider detailContentProvider;
 
@@ -82,6 +89,7 @@ public class MarkerStatsView extends AbstractStatsView {
 
         MarkerStatsViewDataProviders providers =
             new MarkerStatsViewDataProviders(getDialogSettings());
+        this.masterContentProvider = providers.master().contentProvider();
         this.detailContentProvider = providers.detail().contentProvider();
 
         // set up the main layout
@@ -142,6 +150,20 @@ public class MarkerStatsView extends AbstractStatsView {
         }
     }
 
+    @Override
+    protected void handleStatsChanged(Collection<MarkerStat> changedStats) {
+        if (mMainSection != null && !mMainSection.isDisposed()) {
+            masterContentProvider.statsChanged(changedStats);
+            detailContentProvider.statsChanged(changedStats);
+            if (mIsDrilledDown && detailContentProvider.getMarkerCount() == 0) {
+                drillBack();
+            } else {
+                updateActions();
+                updateLabel();
+            }
+        }
+    }
+
     @Override
     protected void makeActions() {
         // action used to display the detail of a specific error type
@@ -20,13 +20,25 @@
 
 package net.sf.eclipsecs.ui.stats.views;
 
+import java.text.Collator;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
 
 import org.eclipse.jface.dialogs.IDialogSettings;
+import org.eclipse.jface.viewers.AbstractTableViewer;
+import org.eclipse.jface.viewers.ILazyContentProvider;
 import org.eclipse.jface.viewers.IStructuredContentProvider;
+import org.eclipse.jface.viewers.TableViewer;
 import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.TableColumn;
 
+import net.sf.eclipsecs.ui.CheckstyleUIPlugin;
+import net.sf.eclipsecs.ui.stats.data.MarkerEntry;
+import net.sf.eclipsecs.ui.stats.data.MarkerSnapshot;
 import net.sf.eclipsecs.ui.stats.data.MarkerStat;
 import net.sf.eclipsecs.ui.stats.data.Stats;
 
@@ -81,8 +93,16 @@ public record MarkerStatsViewDataProviders(MarkerStatsViewMasterDataProviders ma
      * @author Lars Ködderitzsch
      */
     public static final class MasterContentProvider implements IStructuredContentProvider {
-        /** The current marker stats. */
-        private Object[] mCurrentMarkerStats;
+
+        /** The marker stats currently shown by the viewer. */
+        private final Set<MarkerStat> mShownMarkerStats =
+            Collections.newSetFromMap(new IdentityHashMap<>());
+
+        /** The viewer. */
+        private AbstractTableViewer mViewer;
+
+        /** The current statistics. */
+        private Stats mStats;
 
         private MasterContentProvider() {
 
@@ -90,59 +110,101 @@ public record MarkerStatsViewDataProviders(MarkerStatsViewMasterDataProviders ma
 
         @Override
         public Object[] getElements(Object inputElement) {
-            if (mCurrentMarkerStats == null) {
-                // find the marker statistics for the current category
-                Stats currentStats = (Stats) inputElement;
-                mCurrentMarkerStats = currentStats.getMarkerStats().toArray();
-            }
-
-            return mCurrentMarkerStats;
+            Collection<MarkerStat> markerStats = ((Stats) inputElement).getMarkerStats();
+            mShownMarkerStats.clear();
+            mShownMarkerStats.addAll(markerStats);
+            return markerStats.toArray();
         }
 
         @Override
         public void dispose() {
-            mCurrentMarkerStats = null;
+            mShownMarkerStats.clear();
         }
 
         @Override
         public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
-            mCurrentMarkerStats = null;
+            mViewer = (AbstractTableViewer) viewer;
+            mStats = (Stats) newInput;
+            mShownMarkerStats.clear();
+        }
+
+        /**
+         * Updates the rows of the changed marker stats, adding and removing rows for marker stats
+         * that appeared or disappeared.
+         *
+         * @param changedStats
+         *            the changed marker stats
+         */
+        public void statsChanged(Collection<MarkerStat> changedStats) {
+            if (mStats != null && !mViewer.getControl().isDisposed()) {
+                for (MarkerStat markerStat : changedStats) {
+                    boolean shown = mShownMarkerStats.contains(markerStat);
+                    if (!mStats.contains(markerStat)) {
+                        if (shown) {
+                            mViewer.remove(markerStat);
+                            mShownMarkerStats.remove(markerStat);
+                        }
+                    }
+                    else if (shown) {
+                        mViewer.update(markerStat, null);
+                    }
+                    else {
+                        mViewer.add(markerStat);
+                        mShownMarkerStats.add(markerStat);
+                    }
+                }
+            }
         }
     }
 
     /**
-     * Content provider for the detail table viewer.
+     * Lazy content provider for the virtual detail table viewer. Only the snapshot rows of the
+     * current category are loaded, the markers of the rows are created when the table shows them.
+     * The rows are sorted on the snapshot by the sort column of the table. Entries whose row has
+     * been taken over by another marker are not shown, the pending reload replaces them.
      *
      * @author Lars Ködderitzsch
      */
-    public static final class DetailContentProvider implements IStructuredContentProvider {
+    public static final class DetailContentProvider implements ILazyContentProvider {
 
-        /** The current detail markers. */
-        private Object[] mCurrentDetails;
+        /** Key for the snapshot column a table column is sorted by, stored in the column data. */
+        private static final String WIDGET_DATA_SORT_COLUMN = "snapshotSortColumn"; //$NON-NLS-1$
+
+        /** The entries of the current detail markers, in display order. */
+        private MarkerEntry[] mCurrentDetails;
+        /** The table column the current detail markers are sorted by. */
+        private TableColumn mSortedColumn;
+        /** The direction the current detail markers are sorted in. */
+        private int mSortedDirection;
         /** The current detail category. */
         private String currentDetailCategory;
+        /** The viewer. */
+        private TableViewer mViewer;
+        /** The current statistics. */
+        private Stats mStats;
 
         private DetailContentProvider() {
 
         }
 
+        /**
+         * Sets the snapshot column a table column of the detail table is sorted by.
+         *
+         * @param column
+         *            the table column
+         * @param sortColumn
+         *            the snapshot column
+         */
+        public static void setSortColumn(TableColumn column, MarkerSnapshot.SortColumn sortColumn) {
+            column.setData(WIDGET_DATA_SORT_COLUMN, sortColumn);
+        }
+
         @Override
-        public Object[] getElements(Object inputElement) {
-            if (mCurrentDetails == null) {
-                // find the marker statistics for the current category
-                Stats currentStats = (Stats) inputElement;
-                Collection<MarkerStat> markerStats = currentStats.getMarkerStats();
-                Iterator<MarkerStat> iter = markerStats.iterator();
-                while (iter.hasNext()) {
-                    MarkerStat markerStat = iter.next();
-                    if (markerStat.getIdentifiant().equals(currentDetailCategory)) {
-                        mCurrentDetails = markerStat.getMarkers().toArray();
-                        break;
-                    }
-                }
+        public void updateElement(int index) {
+            MarkerEntry[] entries = getCurrentDetails();
+            if (index < entries.length && entries[index].isValid()) {
+                mViewer.replace(entries[index], index);
             }
-
-            return mCurrentDetails != null ? mCurrentDetails : new Object[0];
         }
 
         @Override
@@ -152,11 +214,28 @@ public record MarkerStatsViewDataProviders(MarkerStatsViewMasterDataProviders ma
 
         @Override
         public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
-            mCurrentDetails = null;
+            mViewer = (TableViewer) viewer;
+            mStats = (Stats) newInput;
+            reload();
+        }
+
+        /**
+         * Reloads the viewer if the current detail category is among the changed marker stats.
+         *
+         * @param changedStats
+         *            the changed marker stats
+         */
+        public void statsChanged(Collection<MarkerStat> changedStats) {
+            boolean affected = changedStats.stream()
+                .anyMatch(markerStat -> markerStat.getIdentifiant().equals(currentDetailCategory));
+            if (affected && !mViewer.getControl().isDisposed()) {
+                reload();
+                mViewer.refresh();
+            }
         }
 
         public int getMarkerCount() {
-            return mCurrentDetails != null ? mCurrentDetails.length : 0;
+            return getCurrentDetails().length;
         }
 
         public String getCurrentDetailCategory() {
@@ -165,9 +244,51 @@ public record MarkerStatsViewDataProviders(MarkerStatsViewMasterDataProviders ma
 
         public void setCurrentDetailCategory(String currentDetailCategory) {
             this.currentDetailCategory = currentDetailCategory;
-            this.mCurrentDetails = null;
+            reload();
+        }
+
+        /**
+         * Forgets the loaded rows and updates the item count of the viewer.
+         */
+        private void reload() {
+            mCurrentDetails = null;
+            if (mViewer != null && !mViewer.getControl().isDisposed()) {
+                mViewer.setItemCount(getCurrentDetails().length);
+            }
         }
 
+        /**
+         * Returns the entries of the current category, sorted like the table.
+         *
+         * @return the marker entries
+         */
+        private MarkerEntry[] getCurrentDetails() {
+            Table table = mViewer != null ? mViewer.getTable() : null;
+            if (mCurrentDetails == null && mStats != null && currentDetailCategory != null) {
+                mCurrentDetails = mStats.getMarkerEntries(currentDetailCategory);
+                mSortedColumn = null;
+            }
+            if (mCurrentDetails == null) {
+                mCurrentDetails = new MarkerEntry[0];
+            }
+            else if (table != null && (table.getSortColumn() != mSortedColumn
+                || table.getSortDirection() != mSortedDirection)) {
+                sort(table);
+            }
+            return mCurrentDetails;
+        }
+
+        private void sort(Table table) {
+            mSortedColumn = table.getSortColumn();
+            mSortedDirection = table.getSortDirection();
+            Object sortColumnData =
+                mSortedColumn != null ? mSortedColumn.getData(WIDGET_DATA_SORT_COLUMN) : null;
+            if (sortColumnData instanceof MarkerSnapshot.SortColumn sortColumn) {
+                mStats.getSnapshot().sort(mCurrentDetails, sortColumn,
+                    Collator.getInstance(CheckstyleUIPlugin.getPlatformLocale()),
+                    mSortedDirection == SWT.DOWN);
+            }
+        }
     }
 
 }
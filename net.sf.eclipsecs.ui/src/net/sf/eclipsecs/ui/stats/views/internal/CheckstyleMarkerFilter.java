@@ -24,10 +24,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.StringJoiner;
+import java.util.WeakHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
@@ -41,6 +45,8 @@ import org.eclipse.ui.IWorkingSet;
 import org.eclipse.ui.PlatformUI;
 
 import net.sf.eclipsecs.core.builder.CheckstyleMarker;
+import net.sf.eclipsecs.core.util.CheckstyleLog;
+import net.sf.eclipsecs.ui.stats.data.MarkerSnapshot;
 
 /**
  * Filter class for Checkstyle markers. This filter is used by the Checkstyle statistics views.
@@ -130,6 +136,24 @@ public record CheckstyleMarkerFilter(boolean enabled, int onResource, IWorkingSe
     /** Default activation status. */
     private static final boolean DEFAULT_ACTIVATION_STATUS = true;
 
+    /**
+     * Regexp to find constructs which change their meaning once patterns are combined: back
+     * references refer to other groups, while quotes, inline flags and comments reach into the
+     * following patterns.
+     */
+    private static final Pattern REGEXP_STANDALONE =
+        Pattern.compile("\\\\(?:[1-9]|k<|Q)|\\(\\?[a-zA-Z-]|#"); //$NON-NLS-1$
+
+    /**
+     * The compiled regular expressions by the expressions of the filters. Entries are dropped once
+     * no filter uses the expressions anymore.
+     */
+    private static final Map<List<String>, List<Pattern>> PATTERNS =
+        Collections.synchronizedMap(new WeakHashMap<>());
+
+    /** The compiled regular expressions looked up last, saving the lookup for each marker. */
+    private static volatile CompiledPatterns sLastPatterns;
+
     //
     // methods
     //
@@ -140,15 +164,16 @@ public record CheckstyleMarkerFilter(boolean enabled, int onResource, IWorkingSe
     }
 
     /**
-     * Searches the workspace for markers that pass this filter.
+     * Searches the workspace for markers on the resources selected by this filter. The markers
+     * still need to be selected by their attributes with {@link #select(MarkerSnapshot, int)}.
      *
      * @param mon
      *            the progress monitor
-     * @return the array of Checkstyle markers that pass this filter.
+     * @return the array of Checkstyle markers on the resources selected by this filter.
      * @throws CoreException
      *             an unexpected error occurred
      */
-    public IMarker[] findMarkers(IProgressMonitor mon) throws CoreException {
+    public IMarker[] findMarkersInScope(IProgressMonitor mon) throws CoreException {
 
         List<IMarker> unfiltered;
 
@@ -178,6 +203,41 @@ public record CheckstyleMarkerFilter(boolean enabled, int onResource, IWorkingSe
         return unfiltered.toArray(new IMarker[unfiltered.size()]);
     }
 
+    /**
+     * Checks if a resource is selected by this filter, for example the resource of a marker that
+     * has been added after the markers were searched with
+     * {@link #findMarkersInScope(IProgressMonitor)}.
+     *
+     * @param resource
+     *            the resource
+     * @return <code>true</code> if the resource is selected by this filter
+     */
+    public boolean isInScope(IResource resource) {
+        return !enabled || switch (onResource) {
+            case ON_ANY_RESOURCE -> true;
+            case ON_SELECTED_RESOURCE_ONLY -> Arrays.asList(focusResources).contains(resource);
+            case ON_SELECTED_RESOURCE_AND_CHILDREN -> isContained(resource, focusResources);
+            case ON_ANY_RESOURCE_OF_SAME_PROJECT -> getProjects(focusResources)
+                .contains(resource.getProject());
+            case ON_WORKING_SET -> isContained(resource, getResourcesInWorkingSet(workingSet));
+            default -> false;
+        };
+    }
+
+    /**
+     * Checks if a marker passes the severity and regular expression settings of this filter.
+     *
+     * @param snapshot
+     *            the snapshot holding the marker attributes
+     * @param row
+     *            the row of the marker in the snapshot
+     * @return <code>true</code> if the marker is selected
+     */
+    public boolean select(MarkerSnapshot snapshot, int row) {
+        return !enabled || doSelectBySeverity(snapshot.getSeverity(row))
+            && selectByRegex(snapshot.getMessage(row));
+    }
+
     /**
      * Restores the state of the filter from the given dialog settings.
      *
@@ -297,29 +357,19 @@ public record CheckstyleMarkerFilter(boolean enabled, int onResource, IWorkingSe
                     Arrays.asList(resource.findMarkers(CheckstyleMarker.MARKER_ID, true, depth)));
             }
         }
-        Stream<IMarker> filteredMarkers = markers.stream();
-        if (enabled) {
-            if (selectBySeverity) {
-                filteredMarkers = filteredMarkers.filter(this::doSelectBySeverity);
-            }
-            if (filterByRegex) {
-                filteredMarkers = filteredMarkers.filter(this::selectByRegex);
-            }
-        }
-        return filteredMarkers.toList();
+        return markers;
     }
 
     /**
      * Selects markers by its severity.
      *
-     * @param item
-     *            the marker
+     * @param markerSeverity
+     *            the severity of the marker
      * @return <code>true</code> if the marker is selected
      */
-    private boolean doSelectBySeverity(IMarker item) {
+    private boolean doSelectBySeverity(int markerSeverity) {
         boolean select = true;
         if (selectBySeverity) {
-            int markerSeverity = item.getAttribute(IMarker.SEVERITY, -1);
             if (markerSeverity == IMarker.SEVERITY_ERROR) {
                 int flag = severity & SEVERITY_ERROR;
                 select = flag > 0;
@@ -340,21 +390,15 @@ public record CheckstyleMarkerFilter(boolean enabled, int onResource, IWorkingSe
     /**
      * Selects marker by matching the message against regular expressions.
      *
-     * @param item
-     *            the marker
+     * @param message
+     *            the message of the marker
      * @return <code>true</code> if the marker is selected
      */
-    private boolean selectByRegex(IMarker item) {
+    private boolean selectByRegex(String message) {
         boolean select = true;
-        if (filterByRegex) {
-            int size = filterRegex != null ? filterRegex.size() : 0;
-            for (int i = 0; i < size; i++) {
-
-                String regex = filterRegex.get(i);
-
-                String message = item.getAttribute(IMarker.MESSAGE, null);
-
-                if (message != null && message.matches(regex)) {
+        if (filterByRegex && message != null) {
+            for (Pattern pattern : getFilterPatterns()) {
+                if (pattern.matcher(message).matches()) {
                     select = false;
                     break;
                 }
@@ -363,6 +407,66 @@ public record CheckstyleMarkerFilter(boolean enabled, int onResource, IWorkingSe
         return select;
     }
 
+    /**
+     * Returns the compiled regular expressions of this filter. The expressions are compiled once
+     * and shared by all filters with equal expressions.
+     *
+     * @return the compiled patterns
+     */
+    private List<Pattern> getFilterPatterns() {
+        CompiledPatterns patterns = sLastPatterns;
+        if (patterns == null || patterns.filterRegex() != filterRegex) {
+            patterns = new CompiledPatterns(filterRegex,
+                PATTERNS.computeIfAbsent(filterRegex, CheckstyleMarkerFilter::compilePatterns));
+            sLastPatterns = patterns;
+        }
+        return patterns.patterns();
+    }
+
+    /**
+     * Compiles the regular expressions. The expressions are combined into a single alternation,
+     * except for expressions whose meaning would change by combining them, like back references
+     * or inline flags. If the combined expression does not compile, the expressions are kept
+     * separate. Invalid expressions are skipped.
+     *
+     * @param filterRegex
+     *            the regular expressions
+     * @return the compiled patterns
+     */
+    private static List<Pattern> compilePatterns(List<String> filterRegex) {
+        List<Pattern> patterns = new ArrayList<>();
+        List<Pattern> combinable = new ArrayList<>();
+        StringJoiner combined = new StringJoiner("|"); //$NON-NLS-1$
+        for (String regex : filterRegex != null ? filterRegex : List.<String> of()) {
+            try {
+                Pattern pattern = Pattern.compile(regex);
+                if (REGEXP_STANDALONE.matcher(regex).find()) {
+                    patterns.add(pattern);
+                }
+                else {
+                    combinable.add(pattern);
+                    combined.add("(?:" + regex + ")"); //$NON-NLS-1$ //$NON-NLS-2$
+                }
+            }
+            catch (PatternSyntaxException ex) {
+                CheckstyleLog.log(ex);
+            }
+        }
+        if (combinable.size() == 1) {
+            patterns.addAll(combinable);
+        }
+        else if (!combinable.isEmpty()) {
+            try {
+                patterns.add(Pattern.compile(combined.toString()));
+            }
+            catch (PatternSyntaxException ex) {
+                // the expressions only compile on their own
+                patterns.addAll(combinable);
+            }
+        }
+        return List.copyOf(patterns);
+    }
+
     /**
      * Returns the set of projects that contain the given set of resources.
      *
@@ -374,6 +478,20 @@ public record CheckstyleMarkerFilter(boolean enabled, int onResource, IWorkingSe
         return Arrays.stream(resources).map(IResource::getProject).collect(Collectors.toSet());
     }
 
+    /**
+     * Checks if the resource is one of the given containers or lies within one of them.
+     *
+     * @param resource
+     *            the resource
+     * @param containers
+     *            the containing resources
+     * @return <code>true</code> if the resource is contained
+     */
+    private static boolean isContained(IResource resource, IResource[] containers) {
+        return Arrays.stream(containers)
+            .anyMatch(container -> container.getFullPath().isPrefixOf(resource.getFullPath()));
+    }
+
     /**
      * Returns all resources within the working set.
      *
@@ -403,4 +521,15 @@ public record CheckstyleMarkerFilter(boolean enabled, int onResource, IWorkingSe
         return resources;
     }
 
+    /**
+     * Compiled regular expressions of a filter.
+     *
+     * @param filterRegex
+     *            the regular expressions
+     * @param patterns
+     *            the compiled patterns
+     */
+    private record CompiledPatterns(List<String> filterRegex, List<Pattern> patterns) {
+    }
+
 }
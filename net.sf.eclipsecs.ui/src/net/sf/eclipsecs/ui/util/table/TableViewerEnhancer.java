@@ -27,6 +27,7 @@ import org.eclipse.jface.dialogs.IDialogSettings;
 import org.eclipse.jface.layout.TableColumnLayout;
 import org.eclipse.jface.viewers.ColumnLabelProvider;
 import org.eclipse.jface.viewers.ColumnPixelData;
+import org.eclipse.jface.viewers.ILazyContentProvider;
 import org.eclipse.jface.viewers.TableViewer;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.jface.viewers.ViewerComparator;
@@ -116,7 +117,10 @@ public final class TableViewerEnhancer {
             table.setSortColumn(table.getColumn(sortColumnIndex));
         }
 
-        tableViewer.setComparator(new TableViewerTextLabelComparator());
+        // lazy content providers sort by themselves, using the sort column of the table
+        if (!(tableViewer.getContentProvider() instanceof ILazyContentProvider)) {
+            tableViewer.setComparator(new TableViewerTextLabelComparator());
+        }
 
         // restore the column widths
         try {
@@ -0,0 +1,69 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+
+package net.sf.eclipsecs.ui.stats.data;
+
+import static net.sf.eclipsecs.ui.stats.data.MarkerSnapshotTest.marker;
+import static net.sf.eclipsecs.ui.stats.data.MarkerSnapshotTest.resource;
+import static net.sf.eclipsecs.ui.stats.data.MarkerSnapshotTest.stub;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.junit.jupiter.api.Test;
+
+class MarkerEntryTest {
+
+    private final MarkerSnapshot mSnapshot = new MarkerSnapshot(0);
+
+    @Test
+    void entryReadsTheAttributesOfItsRow() {
+        IResource resource = resource("A.java", "/project"); //$NON-NLS-1$ //$NON-NLS-2$
+        int row = mSnapshot.add(marker(7, resource, IMarker.SEVERITY_ERROR, 3,
+            "message", null, null)).getAsInt(); //$NON-NLS-1$
+
+        MarkerEntry entry = new MarkerEntry(mSnapshot, row, 7);
+
+        assertThat(entry.isValid()).isTrue();
+        assertThat(entry.getResource()).isSameAs(resource);
+        assertThat(entry.getSeverity()).isEqualTo(IMarker.SEVERITY_ERROR);
+        assertThat(entry.getLine()).isEqualTo(3);
+        assertThat(entry.getMessage()).isEqualTo("message"); //$NON-NLS-1$
+    }
+
+    @Test
+    void entryIsInvalidOnceItsRowIsTakenOver() {
+        IMarker existing = stub(IMarker.class, Map.of("exists", true)); //$NON-NLS-1$
+        IResource resource = stub(IResource.class, Map.of("getMarker", existing)); //$NON-NLS-1$
+        int row = mSnapshot.add(marker(7, resource, null, null, null, null, null)).getAsInt();
+        MarkerEntry entry = new MarkerEntry(mSnapshot, row, 7);
+        assertThat(entry.getMarker()).hasValue(existing);
+
+        mSnapshot.remove(row);
+        assertThat(mSnapshot.add(marker(8, resource, null, null, null, null, null)).getAsInt())
+            .isEqualTo(row);
+
+        assertThat(entry.isValid()).isFalse();
+        assertThat(entry.getMarker()).isEmpty();
+        assertThat(new MarkerEntry(mSnapshot, row, 8).getMarker()).hasValue(existing);
+    }
+}
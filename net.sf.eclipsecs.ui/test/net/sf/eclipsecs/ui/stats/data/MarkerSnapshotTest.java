@@ -0,0 +1,297 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+
+package net.sf.eclipsecs.ui.stats.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.OptionalInt;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Status;
+import org.junit.jupiter.api.Test;
+
+import net.sf.eclipsecs.ui.stats.data.MarkerSnapshot.SortColumn;
+
+class MarkerSnapshotTest {
+
+    private final IResource mResource =
+        resource("A.java", "/project/a"); //$NON-NLS-1$ //$NON-NLS-2$
+
+    private final MarkerSnapshot mSnapshot = new MarkerSnapshot(0);
+
+    @Test
+    void attributesOfAddedMarkerAreRead() {
+        IMarker marker = marker(42, mResource, IMarker.SEVERITY_WARNING, 12,
+            "message", "Module", "key"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+        int row = mSnapshot.add(marker).getAsInt();
+
+        assertThat(mSnapshot.getMarkerId(row)).isEqualTo(42L);
+        assertThat(mSnapshot.getResource(row)).isSameAs(mResource);
+        assertThat(mSnapshot.getSeverity(row)).isEqualTo(IMarker.SEVERITY_WARNING);
+        assertThat(mSnapshot.getLine(row)).isEqualTo(12);
+        assertThat(mSnapshot.getMessage(row)).isEqualTo("message"); //$NON-NLS-1$
+        assertThat(mSnapshot.getModuleName(row)).isEqualTo("Module"); //$NON-NLS-1$
+        assertThat(mSnapshot.getMessageKey(row)).isEqualTo("key"); //$NON-NLS-1$
+    }
+
+    @Test
+    void missingAttributesAreDefaulted() {
+        int row = mSnapshot.add(marker(1, mResource, null, null, null, null, null)).getAsInt();
+
+        assertThat(mSnapshot.getSeverity(row)).isEqualTo(-1);
+        assertThat(mSnapshot.getLine(row)).isZero();
+        assertThat(mSnapshot.getMessage(row)).isNull();
+        assertThat(mSnapshot.getModuleName(row)).isNull();
+        assertThat(mSnapshot.getMessageKey(row)).isNull();
+    }
+
+    @Test
+    void equalStringsAreInternedOnce() {
+        int first = add(1, IMarker.SEVERITY_INFO, 1, new String("message")); //$NON-NLS-1$
+        int second = add(2, IMarker.SEVERITY_INFO, 2, new String("message")); //$NON-NLS-1$
+
+        assertThat(mSnapshot.getMessageId(second)).isEqualTo(mSnapshot.getMessageId(first));
+        assertThat(mSnapshot.getMessage(second)).isSameAs(mSnapshot.getMessage(first));
+    }
+
+    @Test
+    void valuesReferencedByRemainingRowsAreKept() {
+        int removed = add(1, IMarker.SEVERITY_INFO, 1, "shared"); //$NON-NLS-1$
+        int kept = add(2, IMarker.SEVERITY_INFO, 2, "shared"); //$NON-NLS-1$
+
+        mSnapshot.remove(removed);
+        int added = add(3, IMarker.SEVERITY_INFO, 3, "other"); //$NON-NLS-1$
+
+        assertThat(mSnapshot.getMessage(kept)).isEqualTo("shared"); //$NON-NLS-1$
+        assertThat(mSnapshot.getMessage(added)).isEqualTo("other"); //$NON-NLS-1$
+        assertThat(mSnapshot.getMessageId(added)).isNotEqualTo(mSnapshot.getMessageId(kept));
+    }
+
+    @Test
+    void idsOfDroppedValuesAreReused() {
+        IResource other = resource("B.java", "/project/b"); //$NON-NLS-1$ //$NON-NLS-2$
+        int removed = add(1, IMarker.SEVERITY_INFO, 1, "old"); //$NON-NLS-1$
+        int messageId = mSnapshot.getMessageId(removed);
+
+        mSnapshot.remove(removed);
+        int added = mSnapshot.add(marker(2, other, IMarker.SEVERITY_INFO, 2, "new", //$NON-NLS-1$
+            null, null)).getAsInt();
+
+        assertThat(mSnapshot.getMessageId(added)).isEqualTo(messageId);
+        assertThat(mSnapshot.getMessage(added)).isEqualTo("new"); //$NON-NLS-1$
+        assertThat(mSnapshot.getResource(added)).isSameAs(other);
+    }
+
+    @Test
+    void deletedMarkerIsNotAdded() {
+        IMarker deleted = stub(IMarker.class, Map.of("getAttributes", //$NON-NLS-1$
+            new CoreException(Status.CANCEL_STATUS)));
+
+        OptionalInt row = mSnapshot.add(deleted);
+
+        assertThat(row.isPresent()).isFalse();
+        assertThat(add(1, IMarker.SEVERITY_INFO, 1, null)).isZero();
+    }
+
+    @Test
+    void removedRowIsReused() {
+        add(1, IMarker.SEVERITY_INFO, 1, null);
+        int removed = add(2, IMarker.SEVERITY_INFO, 2, null);
+        add(3, IMarker.SEVERITY_INFO, 3, null);
+
+        mSnapshot.remove(removed);
+
+        assertThat(add(4, IMarker.SEVERITY_ERROR, 4, null)).isEqualTo(removed);
+        assertThat(mSnapshot.getMarkerId(removed)).isEqualTo(4L);
+        assertThat(mSnapshot.getSeverity(removed)).isEqualTo(IMarker.SEVERITY_ERROR);
+        assertThat(add(5, IMarker.SEVERITY_INFO, 5, null)).isEqualTo(3);
+    }
+
+    @Test
+    void appendedRowsFollowTheExistingRows() {
+        add(1, IMarker.SEVERITY_INFO, 1, "shared"); //$NON-NLS-1$
+        add(2, IMarker.SEVERITY_INFO, 2, null);
+        IResource otherResource = resource("B.java", "/project/b"); //$NON-NLS-1$ //$NON-NLS-2$
+        MarkerSnapshot other = new MarkerSnapshot(0);
+        other.add(marker(10, otherResource, IMarker.SEVERITY_ERROR, 10, "own", //$NON-NLS-1$
+            null, null));
+        other.add(marker(11, mResource, IMarker.SEVERITY_WARNING, 11, "shared", //$NON-NLS-1$
+            null, null));
+        int removed = other.add(marker(12, mResource, null, null, null, null, null)).getAsInt();
+        other.remove(removed);
+
+        int offset = mSnapshot.append(other);
+
+        assertThat(offset).isEqualTo(2);
+        assertThat(mSnapshot.getMarkerId(2)).isEqualTo(10L);
+        assertThat(mSnapshot.getResource(2)).isSameAs(otherResource);
+        assertThat(mSnapshot.getSeverity(2)).isEqualTo(IMarker.SEVERITY_ERROR);
+        assertThat(mSnapshot.getMessage(2)).isEqualTo("own"); //$NON-NLS-1$
+        assertThat(mSnapshot.getResource(3)).isSameAs(mResource);
+        assertThat(mSnapshot.getLine(3)).isEqualTo(11);
+        assertThat(mSnapshot.getMessageId(3)).isEqualTo(mSnapshot.getMessageId(0));
+        assertThat(mSnapshot.getModuleName(3)).isNull();
+        assertThat(add(13, IMarker.SEVERITY_INFO, 13, null)).isEqualTo(offset + removed);
+    }
+
+    @Test
+    void valuesDroppedByTheAppendedSnapshotAreNotCopied() {
+        MarkerSnapshot other = new MarkerSnapshot(0);
+        int removed = other.add(marker(10, mResource, null, null, "dropped", //$NON-NLS-1$
+            null, null)).getAsInt();
+        other.add(marker(11, mResource, null, null, "kept", null, null)); //$NON-NLS-1$
+        other.remove(removed);
+
+        mSnapshot.append(other);
+        int added = add(12, IMarker.SEVERITY_INFO, 12, "new"); //$NON-NLS-1$
+
+        assertThat(added).isEqualTo(removed);
+        assertThat(mSnapshot.getMessage(1)).isEqualTo("kept"); //$NON-NLS-1$
+        assertThat(mSnapshot.getMessageId(1)).isZero();
+        assertThat(mSnapshot.getMessageId(added)).isEqualTo(1);
+    }
+
+    @Test
+    void appendGrowsTheSnapshot() {
+        MarkerSnapshot other = new MarkerSnapshot(0);
+        for (int id = 0; id < 40; id++) {
+            other.add(marker(id, mResource, IMarker.SEVERITY_INFO, id, null, null, null));
+        }
+        add(100, IMarker.SEVERITY_INFO, 1, null);
+
+        assertThat(mSnapshot.append(other)).isEqualTo(1);
+        assertThat(mSnapshot.getMarkerId(40)).isEqualTo(39L);
+        assertThat(add(101, IMarker.SEVERITY_INFO, 1, null)).isEqualTo(41);
+    }
+
+    @Test
+    void markerIsLookedUpThroughItsResource() {
+        IMarker existing = stub(IMarker.class, Map.of("exists", true)); //$NON-NLS-1$
+        IMarker deleted = stub(IMarker.class, Map.of("exists", false)); //$NON-NLS-1$
+        IResource first = stub(IResource.class, Map.of("getMarker", existing)); //$NON-NLS-1$
+        IResource second = stub(IResource.class, Map.of("getMarker", deleted)); //$NON-NLS-1$
+        int existingRow = mSnapshot.add(marker(1, first, null, null, null, null, null)).getAsInt();
+        int deletedRow = mSnapshot.add(marker(2, second, null, null, null, null, null)).getAsInt();
+
+        assertThat(mSnapshot.getMarker(existingRow)).hasValue(existing);
+        assertThat(mSnapshot.getMarker(deletedRow)).isEmpty();
+    }
+
+    @Test
+    void sortBySeverityPutsHighestSeverityFirst() {
+        MarkerEntry info = entry(add(1, IMarker.SEVERITY_INFO, 1, null));
+        MarkerEntry error = entry(add(2, IMarker.SEVERITY_ERROR, 2, null));
+        MarkerEntry warning = entry(add(3, IMarker.SEVERITY_WARNING, 3, null));
+        MarkerEntry[] entries = {info, error, warning};
+
+        mSnapshot.sort(entries, SortColumn.SEVERITY, String::compareTo, false);
+
+        assertThat(entries).containsExactly(error, warning, info);
+    }
+
+    @Test
+    void sortByLineIsStableAndCanBeReversed() {
+        MarkerEntry first = entry(add(1, IMarker.SEVERITY_INFO, 20, null));
+        MarkerEntry second = entry(add(2, IMarker.SEVERITY_INFO, 10, null));
+        MarkerEntry third = entry(add(3, IMarker.SEVERITY_INFO, 20, null));
+        MarkerEntry[] entries = {first, second, third};
+
+        mSnapshot.sort(entries, SortColumn.LINE, String::compareTo, false);
+        assertThat(entries).containsExactly(second, first, third);
+
+        mSnapshot.sort(entries, SortColumn.LINE, String::compareTo, true);
+        assertThat(entries).containsExactly(third, first, second);
+    }
+
+    @Test
+    void sortByMessageUsesTheTextOrder() {
+        MarkerEntry upper = entry(add(1, IMarker.SEVERITY_INFO, 1, "B")); //$NON-NLS-1$
+        MarkerEntry lower = entry(add(2, IMarker.SEVERITY_INFO, 2, "a")); //$NON-NLS-1$
+        MarkerEntry none = entry(add(3, IMarker.SEVERITY_INFO, 3, null));
+        MarkerEntry[] entries = {upper, lower, none};
+
+        mSnapshot.sort(entries, SortColumn.MESSAGE, String.CASE_INSENSITIVE_ORDER, false);
+
+        assertThat(entries).containsExactly(none, lower, upper);
+    }
+
+    @Test
+    void sortByResourceNameAndFolder() {
+        IResource other = resource("B.java", "/project/0"); //$NON-NLS-1$ //$NON-NLS-2$
+        MarkerEntry inA = entry(add(1, IMarker.SEVERITY_INFO, 1, null));
+        MarkerEntry inB = entry(
+            mSnapshot.add(marker(2, other, null, null, null, null, null)).getAsInt());
+        MarkerEntry[] entries = {inB, inA};
+
+        mSnapshot.sort(entries, SortColumn.RESOURCE_NAME, String::compareTo, false);
+        assertThat(entries).containsExactly(inA, inB);
+
+        mSnapshot.sort(entries, SortColumn.FOLDER, String::compareTo, false);
+        assertThat(entries).containsExactly(inB, inA);
+    }
+
+    private int add(long id, int severity, int line, String message) {
+        return mSnapshot.add(marker(id, mResource, severity, line, message, null, null)).getAsInt();
+    }
+
+    private MarkerEntry entry(int row) {
+        return new MarkerEntry(mSnapshot, row, mSnapshot.getMarkerId(row));
+    }
+
+    static IMarker marker(long id, IResource resource, Object... attributes) {
+        return stub(IMarker.class, Map.of("getId", id, //$NON-NLS-1$
+            "getResource", resource, //$NON-NLS-1$
+            "getAttributes", attributes)); //$NON-NLS-1$
+    }
+
+    static IResource resource(String name, String folder) {
+        IPath path = stub(IPath.class, Map.of("toString", folder)); //$NON-NLS-1$
+        IContainer parent = stub(IContainer.class, Map.of("getFullPath", path)); //$NON-NLS-1$
+        return stub(IResource.class,
+            Map.of("getName", name, "getParent", parent)); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * Creates an instance of an interface answering its methods by name, throwing the answer if it
+     * is an exception. Objects are only equal to themselves.
+     */
+    static <T> T stub(Class<T> type, Map<String, Object> answers) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+            (proxy, method, args) -> {
+                Object answer = switch (method.getName()) {
+                    case "equals" -> proxy == args[0]; //$NON-NLS-1$
+                    case "hashCode" -> System.identityHashCode(proxy); //$NON-NLS-1$
+                    default -> answers.get(method.getName());
+                };
+                if (answer instanceof Throwable throwable) {
+                    throw throwable;
+                }
+                return answer;
+            }));
+    }
+}
@@ -0,0 +1,122 @@
+//============================================================================
+//
+// Copyright (C) 2003-2023 the original author or authors.
+//
+// This library is free software; you can redistribute it and/or
+// modify it under the terms of the GNU Lesser General Public
+// License as published by the Free Software Foundation; either
+// version 2.1 of the License, or (at your option) any later version.
+//
+// This library is distributed in the hope that it will be useful,
+// but WITHOUT ANY WARRANTY; without even the implied warranty of
+// MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+// Lesser General Public License for more details.
+//
+// You should have received a copy of the GNU Lesser General Public
+// License along with this library; if not, write to the Free Software
+// Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+//
+//============================================================================
+
+package net.sf.eclipsecs.ui.stats.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.eclipse.core.resources.IMarker;
+import org.junit.jupiter.api.Test;
+
+class MarkerStatTest {
+
+    @Test
+    void addedRowsAreCounted() {
+        MarkerStat stat = new MarkerStat("category"); //$NON-NLS-1$
+
+        assertThat(stat.addRow(7, IMarker.SEVERITY_INFO)).isZero();
+        assertThat(stat.addRow(3, IMarker.SEVERITY_WARNING)).isEqualTo(1);
+
+        assertThat(stat.getRows()).containsExactly(7, 3);
+        assertThat(stat.getCount()).isEqualTo(2);
+        assertThat(stat.getMaxSeverity()).isEqualTo(IMarker.SEVERITY_WARNING);
+    }
+
+    @Test
+    void rowsGrowBeyondTheInitialCapacity() {
+        MarkerStat stat = new MarkerStat("category"); //$NON-NLS-1$
+        for (int row = 0; row < 100; row++) {
+            assertThat(stat.addRow(row, IMarker.SEVERITY_INFO)).isEqualTo(row);
+        }
+
+        assertThat(stat.getCount()).isEqualTo(100);
+        assertThat(stat.getRows()[99]).isEqualTo(99);
+    }
+
+    @Test
+    void removedRowIsReplacedByTheLastRow() {
+        MarkerStat stat = new MarkerStat("category"); //$NON-NLS-1$
+        stat.addRow(10, IMarker.SEVERITY_ERROR);
+        stat.addRow(11, IMarker.SEVERITY_INFO);
+        stat.addRow(12, IMarker.SEVERITY_WARNING);
+
+        assertThat(stat.removeRow(0, IMarker.SEVERITY_ERROR)).isEqualTo(12);
+
+        assertThat(stat.getRows()).containsExactly(12, 11);
+        assertThat(stat.getMaxSeverity()).isEqualTo(IMarker.SEVERITY_WARNING);
+    }
+
+    @Test
+    void removingTheLastRowMovesNothing() {
+        MarkerStat stat = new MarkerStat("category"); //$NON-NLS-1$
+        stat.addRow(10, IMarker.SEVERITY_INFO);
+        stat.addRow(11, IMarker.SEVERITY_ERROR);
+
+        assertThat(stat.removeRow(1, IMarker.SEVERITY_ERROR)).isEqualTo(-1);
+        assertThat(stat.getRows()).containsExactly(10);
+        assertThat(stat.getMaxSeverity()).isEqualTo(IMarker.SEVERITY_INFO);
+
+        assertThat(stat.removeRow(0, IMarker.SEVERITY_INFO)).isEqualTo(-1);
+        assertThat(stat.getCount()).isZero();
+    }
+
+    @Test
+    void severitiesOutOfRangeAreClamped() {
+        MarkerStat stat = new MarkerStat("category"); //$NON-NLS-1$
+        stat.addRow(0, -1);
+        assertThat(stat.getMaxSeverity()).isEqualTo(IMarker.SEVERITY_INFO);
+
+        stat.addRow(1, 42);
+        assertThat(stat.getMaxSeverity()).isEqualTo(IMarker.SEVERITY_ERROR);
+
+        stat.removeRow(1, 42);
+        assertThat(stat.getMaxSeverity()).isEqualTo(IMarker.SEVERITY_INFO);
+    }
+
+    @Test
+    void addedCategoryRowsAreOffset() {
+        MarkerStat stat = new MarkerStat("category"); //$NON-NLS-1$
+        stat.addRow(0, IMarker.SEVERITY_INFO);
+        MarkerStat partial = new MarkerStat("category"); //$NON-NLS-1$
+        partial.addRow(1, IMarker.SEVERITY_ERROR);
+        partial.addRow(0, IMarker.SEVERITY_INFO);
+
+        assertThat(stat.addAll(partial, 5)).isEqualTo(1);
+
+        assertThat(stat.getRows()).containsExactly(0, 6, 5);
+        assertThat(stat.getMaxSeverity()).isEqualTo(IMarker.SEVERITY_ERROR);
+        assertThat(stat.removeRow(1, IMarker.SEVERITY_ERROR)).isEqualTo(5);
+        assertThat(stat.getMaxSeverity()).isEqualTo(IMarker.SEVERITY_INFO);
+    }
+
+    @Test
+    void addedCategoryGrowsTheRows() {
+        MarkerStat stat = new MarkerStat("category"); //$NON-NLS-1$
+        MarkerStat partial = new MarkerStat("category"); //$NON-NLS-1$
+        for (int row = 0; row < 20; row++) {
+            partial.addRow(row, IMarker.SEVERITY_WARNING);
+        }
+
+        assertThat(stat.addAll(partial, 0)).isZero();
+
+        assertThat(stat.getCount()).isEqualTo(20);
+        assertThat(stat.getRows()[19]).isEqualTo(19);
+    }
+}